@@ -21,15 +21,19 @@ package org.sonarsource.sonarlint.core.analysis;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisEngineConfiguration;
 import org.sonarsource.sonarlint.core.analysis.container.global.GlobalAnalysisContainer;
 import org.sonarsource.sonarlint.core.analysis.container.global.ModuleRegistry;
 import org.sonarsource.sonarlint.core.analysis.command.Command;
+import org.sonarsource.sonarlint.core.analysis.command.CommandPriority;
+import org.sonarsource.sonarlint.core.analysis.command.CommandSupersededException;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
@@ -40,42 +44,69 @@ public class AnalysisEngine {
   private static final Runnable CANCELING_TERMINATION = () -> {};
 
   private final GlobalAnalysisContainer globalAnalysisContainer;
-  private final BlockingQueue<AsyncCommand<?>> commandQueue = new LinkedBlockingQueue<>();
-  private final Thread analysisThread = new Thread(this::executeQueuedCommands, "sonarlint-analysis-engine");
+  private final AnalysisQueue commandQueue;
+  private final List<Thread> workerThreads = new ArrayList<>();
+  private final AtomicInteger runningWorkers = new AtomicInteger();
   private final ClientLogOutput logOutput;
   private final AtomicReference<Runnable> termination = new AtomicReference<>();
-  private final AtomicReference<AsyncCommand<?>> executingCommand = new AtomicReference<>();
 
   public AnalysisEngine(AnalysisEngineConfiguration analysisGlobalConfig, PluginInstancesRepository pluginInstancesRepository, @Nullable ClientLogOutput logOutput) {
     globalAnalysisContainer = new GlobalAnalysisContainer(analysisGlobalConfig, pluginInstancesRepository);
     this.logOutput = logOutput;
+    this.commandQueue = new AnalysisQueue(analysisGlobalConfig);
+    var workerCount = Math.max(1, analysisGlobalConfig.getWorkerCount());
+    for (var i = 0; i < workerCount; i++) {
+      var threadName = workerCount == 1 ? "sonarlint-analysis-engine" : ("sonarlint-analysis-engine-" + (i + 1));
+      workerThreads.add(new Thread(this::executeQueuedCommands, threadName));
+    }
     start();
   }
 
   private void start() {
-    // if the container cannot be started, the thread won't be started
+    // if the container cannot be started, the threads won't be started
     globalAnalysisContainer.startComponents();
-    analysisThread.start();
+    runningWorkers.set(workerThreads.size());
+    workerThreads.forEach(Thread::start);
   }
 
   private void executeQueuedCommands() {
-    while (termination.get() == null) {
-      SonarLintLogger.setTarget(logOutput);
-      try {
-        executingCommand.set(commandQueue.take());
-        if (termination.get() == CANCELING_TERMINATION) {
-          executingCommand.get().cancel();
-          break;
+    try {
+      while (termination.get() != CANCELING_TERMINATION) {
+        SonarLintLogger.setTarget(logOutput);
+        try {
+          var command = commandQueue.takeNextCommand();
+          if (command == null) {
+            // gracefully finishing, and no more pending commands
+            break;
+          }
+          if (termination.get() == CANCELING_TERMINATION) {
+            command.cancel();
+            command.future.cancel(false);
+            break;
+          }
+          execute(command);
+        } catch (InterruptedException e) {
+          if (termination.get() != CANCELING_TERMINATION) {
+            LOG.error("Analysis engine interrupted", e);
+          }
         }
-        executingCommand.get().execute(getModuleRegistry());
-        executingCommand.set(null);
-      } catch (InterruptedException e) {
-        if (termination.get() != CANCELING_TERMINATION) {
-          LOG.error("Analysis engine interrupted", e);
+      }
+    } finally {
+      if (runningWorkers.decrementAndGet() == 0) {
+        var terminationAction = termination.get();
+        if (terminationAction != null) {
+          terminationAction.run();
         }
       }
     }
-    termination.get().run();
+  }
+
+  private void execute(AsyncCommand<?> command) {
+    try {
+      command.execute(getModuleRegistry());
+    } finally {
+      commandQueue.done(command);
+    }
   }
 
   public <T> CompletableFuture<T> post(Command<T> command, ProgressMonitor progressMonitor) {
@@ -83,50 +114,45 @@ public class AnalysisEngine {
       LOG.error("Analysis engine stopping, ignoring command");
       return CompletableFuture.completedFuture(null);
     }
-    if (!analysisThread.isAlive()) {
+    if (workerThreads.stream().noneMatch(Thread::isAlive)) {
       LOG.error("Analysis engine not started, ignoring command");
       return CompletableFuture.completedFuture(null);
     }
 
     var asyncCommand = new AsyncCommand<>(command, progressMonitor);
-    try {
-      commandQueue.put(asyncCommand);
-    } catch (InterruptedException e) {
-      asyncCommand.future.completeExceptionally(e);
-    }
+    commandQueue.post(asyncCommand);
     return asyncCommand.future;
   }
 
   public void finishGracefully() {
-    termination.compareAndSet(null, this::honorPendingCommands);
-  }
-
-  private void honorPendingCommands() {
-    List<AsyncCommand<?>> pendingCommands = new ArrayList<>();
-    commandQueue.drainTo(pendingCommands);
-    pendingCommands.forEach(c -> c.execute(getModuleRegistry()));
-    globalAnalysisContainer.stopComponents(false);
+    if (termination.compareAndSet(null, () -> globalAnalysisContainer.stopComponents(false))) {
+      // workers will execute pending commands before exiting, the last one will stop the container
+      commandQueue.close();
+    }
   }
 
   public void stop() {
-    if (!analysisThread.isAlive()) {
+    if (workerThreads.stream().noneMatch(Thread::isAlive)) {
       return;
     }
     if (!termination.compareAndSet(null, CANCELING_TERMINATION)) {
       // already terminating
       return;
     }
-    var command = executingCommand.get();
-    if (command != null) {
-      command.cancel();
-    }
-    analysisThread.interrupt();
-    List<AsyncCommand<?>> pendingCommands = new ArrayList<>();
-    commandQueue.drainTo(pendingCommands);
-    pendingCommands.forEach(c -> c.future.cancel(false));
+    commandQueue.close();
+    commandQueue.getExecutingCommands().forEach(AsyncCommand::cancel);
+    workerThreads.forEach(Thread::interrupt);
+    commandQueue.removeAll().forEach(c -> c.future.cancel(false));
     globalAnalysisContainer.stopComponents(false);
   }
 
+  /**
+   * Time spent by commands in the queue before being executed, for each priority
+   */
+  public Map<CommandPriority, QueueWaitStatistics> getQueueWaitStatistics() {
+    return commandQueue.getWaitStatistics();
+  }
+
   // Visible for medium tests
   public ModuleRegistry getModuleRegistry() {
     return globalAnalysisContainer.getModuleRegistry();
@@ -159,5 +185,62 @@ public class AnalysisEngine {
     public void cancel() {
       progressMonitor.cancel();
     }
+
+    /**
+     * Complete the future as superseded, and cancel the execution if it already started
+     */
+    public void supersede() {
+      future.completeExceptionally(new CommandSupersededException());
+      progressMonitor.cancel();
+    }
+
+    /**
+     * Complete the future of this command with the outcome of another command
+     */
+    @SuppressWarnings("unchecked")
+    public void completeWithOutcomeOf(AsyncCommand<?> other) {
+      other.future.whenComplete((result, error) -> {
+        if (error != null) {
+          future.completeExceptionally(error);
+        } else {
+          future.complete((T) result);
+        }
+      });
+    }
+
+    /**
+     * Complete the future of this command with the outcome of another command, transforming its result
+     */
+    @SuppressWarnings("unchecked")
+    public <R> void completeWithOutcomeOf(AsyncCommand<R> other, Function<R, ?> resultMapper) {
+      other.future.whenComplete((result, error) -> {
+        if (error != null) {
+          future.completeExceptionally(error);
+        } else {
+          future.complete((T) resultMapper.apply(result));
+        }
+      });
+    }
+
+    public CompletableFuture<T> getFuture() {
+      return future;
+    }
+
+    public Command<T> getCommand() {
+      return command;
+    }
+
+    public ProgressMonitor getProgressMonitor() {
+      return progressMonitor;
+    }
+
+    @CheckForNull
+    public Object getModuleKey() {
+      return command.moduleKey();
+    }
+
+    public CommandPriority getPriority() {
+      return command.priority();
+    }
   }
 }
@@ -0,0 +1,321 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.analysis.AnalysisEngine.AsyncCommand;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisEngineConfiguration;
+import org.sonarsource.sonarlint.core.analysis.command.AnalyzeCommand;
+import org.sonarsource.sonarlint.core.analysis.command.CommandPriority;
+import org.sonarsource.sonarlint.core.analysis.command.NotifyModuleEventCommand;
+import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
+
+/**
+ * Queue of commands shared by all the workers of the {@link AnalysisEngine}.
+ * <p>
+ * A command is only handed out when no other command targeting the same module is being executed. Among the commands that can be executed,
+ * the one with the highest priority is handed out first, and the oldest one in case of equality. Commands of a given module are not reordered
+ * across a {@link CommandPriority#MAINTENANCE} command, and the commands a maintenance command is waiting for inherit the highest priority
+ * of the commands queued behind it. Commands waiting for longer than the starvation delay are considered
+ * {@link CommandPriority#INTERACTIVE}, so that background work keeps moving.
+ * <p>
+ * When a coalescing window is configured, redundant analyses are superseded by the most recent one, and analyses of the same module
+ * posted within the window are merged.
+ * <p>
+ * File events posted while a {@link NotifyModuleEventCommand} of the same module is still queued, and is the last queued command of this
+ * module, are merged into it. Such a command is held during the file event batching window, unless other commands of the module are
+ * waiting for it, so that bursts of events are delivered as a single batch.
+ */
+class AnalysisQueue {
+  static final Duration DEFAULT_STARVATION_DELAY = Duration.ofSeconds(5);
+
+  private final LinkedList<QueuedCommand> pendingCommands = new LinkedList<>();
+  private final List<AsyncCommand<?>> executingCommands = new ArrayList<>();
+  private final Set<Object> busyModuleKeys = new HashSet<>();
+  private final Map<CommandPriority, QueueWaitStatistics> waitStatistics = new EnumMap<>(CommandPriority.class);
+  private final long starvationDelayNanos;
+  @Nullable
+  private final Long coalescingWindowNanos;
+  private final long fileEventBatchingWindowNanos;
+  private final LongSupplier nanoClock;
+  private boolean closed;
+
+  AnalysisQueue(AnalysisEngineConfiguration configuration) {
+    this(configuration.getAnalysisCoalescingWindow(), configuration.getFileEventBatchingWindow(), DEFAULT_STARVATION_DELAY, System::nanoTime);
+  }
+
+  AnalysisQueue(@Nullable Duration coalescingWindow, Duration fileEventBatchingWindow, Duration starvationDelay, LongSupplier nanoClock) {
+    this.coalescingWindowNanos = coalescingWindow == null ? null : coalescingWindow.toNanos();
+    this.fileEventBatchingWindowNanos = fileEventBatchingWindow.toNanos();
+    this.starvationDelayNanos = starvationDelay.toNanos();
+    this.nanoClock = nanoClock;
+    for (CommandPriority priority : CommandPriority.values()) {
+      waitStatistics.put(priority, QueueWaitStatistics.EMPTY);
+    }
+  }
+
+  synchronized void post(AsyncCommand<?> command) {
+    var now = nanoClock.getAsLong();
+    if (coalescingWindowNanos != null && command.getCommand() instanceof AnalyzeCommand) {
+      var analyzeCommand = (AnalyzeCommand) command.getCommand();
+      supersedeRedundantAnalyses(analyzeCommand);
+      if (mergeIntoQueuedAnalysis(command, analyzeCommand, now)) {
+        return;
+      }
+    }
+    if (command.getCommand() instanceof NotifyModuleEventCommand) {
+      if (mergeIntoQueuedFileEvents(command)) {
+        return;
+      }
+      pendingCommands.add(new QueuedCommand(command, now, now + fileEventBatchingWindowNanos));
+    } else {
+      pendingCommands.add(new QueuedCommand(command, now, now));
+    }
+    notifyAll();
+  }
+
+  private boolean mergeIntoQueuedFileEvents(AsyncCommand<?> command) {
+    var lastOfModule = lastPendingCommandOf(command.getModuleKey());
+    if (lastOfModule != null && lastOfModule.command.getCommand() instanceof NotifyModuleEventCommand) {
+      ((NotifyModuleEventCommand) lastOfModule.command.getCommand()).merge((NotifyModuleEventCommand) command.getCommand());
+      command.completeWithOutcomeOf(lastOfModule.command);
+      return true;
+    }
+    return false;
+  }
+
+  @CheckForNull
+  private QueuedCommand lastPendingCommandOf(@Nullable Object moduleKey) {
+    var iterator = pendingCommands.descendingIterator();
+    while (iterator.hasNext()) {
+      var queuedCommand = iterator.next();
+      if (Objects.equals(queuedCommand.command.getModuleKey(), moduleKey)) {
+        return queuedCommand;
+      }
+    }
+    return null;
+  }
+
+  private void supersedeRedundantAnalyses(AnalyzeCommand analyzeCommand) {
+    executingCommands.stream()
+      .filter(executing -> executing.getCommand() instanceof AnalyzeCommand && analyzeCommand.supersedes((AnalyzeCommand) executing.getCommand()))
+      .forEach(AsyncCommand::supersede);
+    var iterator = pendingCommands.iterator();
+    while (iterator.hasNext()) {
+      var pending = iterator.next().command;
+      if (pending.getCommand() instanceof AnalyzeCommand && analyzeCommand.supersedes((AnalyzeCommand) pending.getCommand())) {
+        iterator.remove();
+        pending.supersede();
+      }
+    }
+  }
+
+  /**
+   * Merge the analysis with the most recent compatible analysis of the same module posted within the coalescing window, as long as no
+   * maintenance command of this module was posted in between.
+   */
+  private boolean mergeIntoQueuedAnalysis(AsyncCommand<?> command, AnalyzeCommand analyzeCommand, long now) {
+    var iterator = pendingCommands.listIterator(pendingCommands.size());
+    while (iterator.hasPrevious()) {
+      var queuedCommand = iterator.previous();
+      var pending = queuedCommand.command;
+      if (!Objects.equals(pending.getModuleKey(), analyzeCommand.moduleKey())) {
+        continue;
+      }
+      if (queuedCommand.isMaintenance() || now - queuedCommand.postTime > coalescingWindowNanos) {
+        return false;
+      }
+      if (pending.getCommand() instanceof AnalyzeCommand && ((AnalyzeCommand) pending.getCommand()).canBeMergedWith(analyzeCommand)) {
+        var pendingAnalyzeCommand = (AnalyzeCommand) pending.getCommand();
+        var mergedCommand = pendingAnalyzeCommand.mergeWith(analyzeCommand);
+        // the merged analysis must keep running as long as one of the callers is still interested in it
+        var merged = new AsyncCommand<>(mergedCommand, ProgressMonitor.merge(pending.getProgressMonitor(), command.getProgressMonitor()));
+        // each caller only gets the results of its own files
+        var pendingUris = pendingAnalyzeCommand.fileUris();
+        var commandUris = analyzeCommand.fileUris();
+        pending.completeWithOutcomeOf(merged, results -> results.forFiles(pendingUris));
+        command.completeWithOutcomeOf(merged, results -> results.forFiles(commandUris));
+        iterator.set(new QueuedCommand(merged, queuedCommand.postTime, queuedCommand.readyTime));
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Wait until a command can be executed, and remove it from the queue. The caller must call {@link #done(AsyncCommand)} after execution.
+   * @return null if the queue has been closed and there is nothing left to execute
+   */
+  @CheckForNull
+  synchronized AsyncCommand<?> takeNextCommand() throws InterruptedException {
+    while (true) {
+      var next = selectNextCommand();
+      if (next != null) {
+        pendingCommands.remove(next);
+        executingCommands.add(next.command);
+        var moduleKey = next.command.getModuleKey();
+        if (moduleKey != null) {
+          busyModuleKeys.add(moduleKey);
+        }
+        var priority = next.command.getPriority();
+        waitStatistics.put(priority, waitStatistics.get(priority).add(Duration.ofNanos(nanoClock.getAsLong() - next.postTime)));
+        return next.command;
+      }
+      if (closed && pendingCommands.isEmpty()) {
+        return null;
+      }
+      var nextReadyTime = nextReadyTime();
+      if (nextReadyTime == null) {
+        wait();
+      } else {
+        var delayNanos = nextReadyTime - nanoClock.getAsLong();
+        if (delayNanos > 0) {
+          wait(TimeUnit.NANOSECONDS.toMillis(delayNanos) + 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the earliest time at which a command held in the queue will become ready, or null if no command is held
+   */
+  @CheckForNull
+  private Long nextReadyTime() {
+    var now = nanoClock.getAsLong();
+    return pendingCommands.stream()
+      .filter(c -> c.readyTime > now)
+      .map(c -> c.readyTime)
+      .min(Long::compare)
+      .orElse(null);
+  }
+
+  @CheckForNull
+  private QueuedCommand selectNextCommand() {
+    var now = nanoClock.getAsLong();
+    // commands queued behind a maintenance command of their module lend their priority to the commands they are waiting for
+    Map<Object, Integer> bestWaitingRankPerModule = new HashMap<>();
+    Map<Object, QueuedCommand> lastCommandPerModule = new HashMap<>();
+    for (QueuedCommand queuedCommand : pendingCommands) {
+      var moduleKey = queuedCommand.command.getModuleKey();
+      if (moduleKey != null && (bestWaitingRankPerModule.containsKey(moduleKey) || queuedCommand.isMaintenance())) {
+        bestWaitingRankPerModule.merge(moduleKey, queuedCommand.rank(now), Math::min);
+      }
+      lastCommandPerModule.put(moduleKey, queuedCommand);
+    }
+
+    Set<Object> modulesWithPendingCommands = new HashSet<>();
+    Set<Object> modulesBehindMaintenance = new HashSet<>();
+    QueuedCommand best = null;
+    var bestRank = Integer.MAX_VALUE;
+    for (QueuedCommand queuedCommand : pendingCommands) {
+      var moduleKey = queuedCommand.command.getModuleKey();
+      var rank = queuedCommand.rank(now);
+      if (moduleKey != null) {
+        var isFirstOfModule = modulesWithPendingCommands.add(moduleKey);
+        var canExecute = !busyModuleKeys.contains(moduleKey) && !modulesBehindMaintenance.contains(moduleKey) && (!queuedCommand.isMaintenance() || isFirstOfModule);
+        if (queuedCommand.isMaintenance()) {
+          modulesBehindMaintenance.add(moduleKey);
+        }
+        if (!canExecute) {
+          continue;
+        }
+        rank = Math.min(rank, bestWaitingRankPerModule.getOrDefault(moduleKey, rank));
+      }
+      // a held command is released early if other commands of the module are waiting for it
+      var isReady = closed || now >= queuedCommand.readyTime || lastCommandPerModule.get(moduleKey) != queuedCommand;
+      if (!isReady) {
+        continue;
+      }
+      if (rank < bestRank) {
+        best = queuedCommand;
+        bestRank = rank;
+      }
+    }
+    return best;
+  }
+
+  synchronized void done(AsyncCommand<?> command) {
+    executingCommands.remove(command);
+    var moduleKey = command.getModuleKey();
+    if (moduleKey != null) {
+      busyModuleKeys.remove(moduleKey);
+      notifyAll();
+    }
+  }
+
+  /**
+   * Once closed, {@link #takeNextCommand()} returns null as soon as all pending commands have been handed out.
+   */
+  synchronized void close() {
+    closed = true;
+    notifyAll();
+  }
+
+  synchronized List<AsyncCommand<?>> removeAll() {
+    List<AsyncCommand<?>> removedCommands = pendingCommands.stream().map(c -> c.command).collect(Collectors.toCollection(ArrayList::new));
+    pendingCommands.clear();
+    return removedCommands;
+  }
+
+  synchronized List<AsyncCommand<?>> getExecutingCommands() {
+    return new ArrayList<>(executingCommands);
+  }
+
+  synchronized Map<CommandPriority, QueueWaitStatistics> getWaitStatistics() {
+    return new EnumMap<>(waitStatistics);
+  }
+
+  private class QueuedCommand {
+    private final AsyncCommand<?> command;
+    private final long postTime;
+    private final long readyTime;
+
+    private QueuedCommand(AsyncCommand<?> command, long postTime, long readyTime) {
+      this.command = command;
+      this.postTime = postTime;
+      this.readyTime = readyTime;
+    }
+
+    private boolean isMaintenance() {
+      return command.getPriority() == CommandPriority.MAINTENANCE;
+    }
+
+    private int rank(long now) {
+      if (now - postTime >= starvationDelayNanos) {
+        return CommandPriority.INTERACTIVE.ordinal();
+      }
+      return command.getPriority().ordinal();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis;
+
+import java.time.Duration;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Time spent by commands of a given priority in the queue, between being posted and starting to execute.
+ */
+@Immutable
+public class QueueWaitStatistics {
+  static final QueueWaitStatistics EMPTY = new QueueWaitStatistics(0, Duration.ZERO, Duration.ZERO);
+
+  private final long commandCount;
+  private final Duration totalWait;
+  private final Duration maxWait;
+
+  private QueueWaitStatistics(long commandCount, Duration totalWait, Duration maxWait) {
+    this.commandCount = commandCount;
+    this.totalWait = totalWait;
+    this.maxWait = maxWait;
+  }
+
+  QueueWaitStatistics add(Duration wait) {
+    return new QueueWaitStatistics(commandCount + 1, totalWait.plus(wait), maxWait.compareTo(wait) >= 0 ? maxWait : wait);
+  }
+
+  public long getCommandCount() {
+    return commandCount;
+  }
+
+  public Duration getTotalWait() {
+    return totalWait;
+  }
+
+  public Duration getMaxWait() {
+    return maxWait;
+  }
+
+  public Duration getAverageWait() {
+    return commandCount == 0 ? Duration.ZERO : totalWait.dividedBy(commandCount);
+  }
+
+  @Override
+  public String toString() {
+    return "commands=" + commandCount + ", average wait=" + getAverageWait().toMillis() + "ms, max wait=" + maxWait.toMillis() + "ms";
+  }
+}
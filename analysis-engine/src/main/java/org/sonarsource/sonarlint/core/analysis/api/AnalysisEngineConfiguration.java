@@ -20,6 +20,7 @@
 package org.sonarsource.sonarlint.core.analysis.api;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -28,6 +29,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import org.sonarsource.sonarlint.core.commons.Language;
@@ -43,6 +45,12 @@ public class AnalysisEngineConfiguration {
   private final Path nodeJsPath;
   private final long clientPid;
   private final ClientModulesProvider modulesProvider;
+  private final int workerCount;
+  private final Duration analysisCoalescingWindow;
+  private final Duration fileEventBatchingWindow;
+  private final int transientModuleContainerPoolSize;
+  private final int sensorThreadCount;
+  private final int indexingThreadCount;
 
   private AnalysisEngineConfiguration(Builder builder) {
     this.workDir = builder.workDir;
@@ -51,6 +59,12 @@ public class AnalysisEngineConfiguration {
     this.nodeJsPath = builder.nodeJsPath;
     this.clientPid = builder.clientPid;
     this.modulesProvider = builder.modulesProvider;
+    this.workerCount = builder.workerCount;
+    this.analysisCoalescingWindow = builder.analysisCoalescingWindow;
+    this.fileEventBatchingWindow = builder.fileEventBatchingWindow;
+    this.transientModuleContainerPoolSize = builder.transientModuleContainerPoolSize;
+    this.sensorThreadCount = builder.sensorThreadCount;
+    this.indexingThreadCount = builder.indexingThreadCount;
   }
 
   public static Builder builder() {
@@ -73,6 +87,31 @@ public class AnalysisEngineConfiguration {
     return modulesProvider;
   }
 
+  public int getWorkerCount() {
+    return workerCount;
+  }
+
+  @CheckForNull
+  public Duration getAnalysisCoalescingWindow() {
+    return analysisCoalescingWindow;
+  }
+
+  public Duration getFileEventBatchingWindow() {
+    return fileEventBatchingWindow;
+  }
+
+  public int getTransientModuleContainerPoolSize() {
+    return transientModuleContainerPoolSize;
+  }
+
+  public int getSensorThreadCount() {
+    return sensorThreadCount;
+  }
+
+  public int getIndexingThreadCount() {
+    return indexingThreadCount;
+  }
+
   public Map<String, String> getEffectiveSettings() {
     Map<String, String> props = new HashMap<>(extraProperties);
     if (nodeJsPath != null) {
@@ -88,6 +127,12 @@ public class AnalysisEngineConfiguration {
     private Path nodeJsPath;
     private long clientPid;
     private ClientModulesProvider modulesProvider;
+    private int workerCount = 1;
+    private Duration analysisCoalescingWindow;
+    private Duration fileEventBatchingWindow = Duration.ZERO;
+    private int transientModuleContainerPoolSize = 1;
+    private int sensorThreadCount = 1;
+    private int indexingThreadCount = 1;
 
     private Builder() {
 
@@ -151,6 +196,69 @@ public class AnalysisEngineConfiguration {
       return this;
     }
 
+    /**
+     * Number of threads executing commands. Commands targeting different modules can run concurrently, while at most one command targeting
+     * the same module is executed at a time. See {@link org.sonarsource.sonarlint.core.analysis.command.Command#moduleKey()} for the
+     * ordering rules. Default to 1.
+     */
+    public Builder setWorkerCount(int workerCount) {
+      this.workerCount = workerCount;
+      return this;
+    }
+
+    /**
+     * Opt-in to the coalescing of redundant analyses. When set, a posted analysis replaces the queued analyses of the same module covering
+     * the same files, and cancels the running one. The futures of replaced analyses complete with a
+     * {@link org.sonarsource.sonarlint.core.analysis.command.CommandSupersededException}. Queued analyses of the same module posted
+     * within the given window are merged into a single analysis of all their files. The results of each caller of a merged analysis only
+     * cover its own files, except for {@link AnalysisResults#timings()}, which cover the whole analysis.
+     */
+    public Builder setAnalysisCoalescingWindow(@Nullable Duration analysisCoalescingWindow) {
+      this.analysisCoalescingWindow = analysisCoalescingWindow;
+      return this;
+    }
+
+    /**
+     * How long file events are held before being delivered to the module file listeners, so that bursts of events (e.g. during a
+     * branch checkout) are collapsed and delivered as a single batch. Events posted while a previous batch is still queued are always
+     * merged into it. Default to zero.
+     */
+    public Builder setFileEventBatchingWindow(Duration fileEventBatchingWindow) {
+      this.fileEventBatchingWindow = fileEventBatchingWindow;
+      return this;
+    }
+
+    /**
+     * Maximum number of idle module containers kept to analyze files outside of any module. Use 0 to create a new container for each
+     * analysis. Containers in which plugins installed module-lifespan extensions are never kept, since these extensions could carry state
+     * from one analysis to an unrelated one: with such plugins, a new container is still created for each analysis. Default to 1.
+     */
+    public Builder setTransientModuleContainerPoolSize(int transientModuleContainerPoolSize) {
+      this.transientModuleContainerPoolSize = transientModuleContainerPoolSize;
+      return this;
+    }
+
+    /**
+     * Opt-in to the concurrent execution of sensors. When greater than 1, sensors with no ordering constraint between them (phases,
+     * {@link org.sonar.api.batch.DependsUpon} and {@link org.sonar.api.batch.DependedUpon}) are executed in parallel, using at most this
+     * number of threads shared by all analyses. Default to 1, sensors being executed one after another.
+     */
+    public Builder setSensorThreadCount(int sensorThreadCount) {
+      this.sensorThreadCount = sensorThreadCount;
+      return this;
+    }
+
+    /**
+     * Opt-in to the concurrent indexing of files. When greater than 1, building input files, detecting their language and computing
+     * their metadata is done in parallel, using at most this number of threads shared by all analyses.
+     * {@link org.sonar.api.batch.fs.InputFileFilter}s and exclusions are still applied on the analysis thread, and files are indexed in the
+     * order they were provided. Default to 1.
+     */
+    public Builder setIndexingThreadCount(int indexingThreadCount) {
+      this.indexingThreadCount = indexingThreadCount;
+      return this;
+    }
+
     public AnalysisEngineConfiguration build() {
       return new AnalysisEngineConfiguration(this);
     }
@@ -19,7 +19,10 @@
  */
 package org.sonarsource.sonarlint.core.analysis.api;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -31,13 +34,27 @@ public class AnalysisResults {
   private final Set<ClientInputFile> failedAnalysisFiles = new LinkedHashSet<>();
   private int indexedFileCount;
   private final Map<ClientInputFile, Language> languagePerFile = new LinkedHashMap<>();
+  private final AnalysisTimings timings;
+
+  public AnalysisResults() {
+    this(new AnalysisTimings());
+  }
+
+  private AnalysisResults(AnalysisTimings timings) {
+    this.timings = timings;
+  }
 
   public AnalysisResults setIndexedFileCount(int indexedFileCount) {
     this.indexedFileCount = indexedFileCount;
     return this;
   }
 
-  public void addFailedAnalysisFile(ClientInputFile inputFile) {
+  public AnalysisResults setContainerBuildDuration(Duration containerBuildDuration) {
+    timings.recordPhase(AnalysisTimings.Phase.CONTAINER_BUILD, containerBuildDuration);
+    return this;
+  }
+
+  public synchronized void addFailedAnalysisFile(ClientInputFile inputFile) {
     failedAnalysisFiles.add(inputFile);
   }
 
@@ -61,12 +78,46 @@ public class AnalysisResults {
     return indexedFileCount;
   }
 
+  /**
+   * Time spent building the analysis container (registering and instantiating its components), before files are indexed and sensors
+   * executed.
+   */
+  public Duration containerBuildDuration() {
+    return timings.phaseDuration(AnalysisTimings.Phase.CONTAINER_BUILD);
+  }
+
+  /**
+   * Where the time of the analysis was spent: phases, sensors, and files whose metadata were the slowest to compute.
+   */
+  public AnalysisTimings timings() {
+    return timings;
+  }
+
   /**
    * Input files for which there were analysis errors. The analyzers failed to correctly handle these files, and therefore there might be issues
-   * missing or no issues at all for these files.
+   * missing or no issues at all for these files. The returned collection is a snapshot, sensors may still be reporting failures concurrently.
+   */
+  public synchronized Collection<ClientInputFile> failedAnalysisFiles() {
+    return Collections.unmodifiableSet(new LinkedHashSet<>(failedAnalysisFiles));
+  }
+
+  /**
+   * Results of the given files only, for the callers of analyses that were merged into a single one. Timings are shared with this result
+   * since they cover the whole analysis.
    */
-  public Collection<ClientInputFile> failedAnalysisFiles() {
-    return failedAnalysisFiles;
+  public AnalysisResults forFiles(Set<URI> fileUris) {
+    var results = new AnalysisResults(timings);
+    languagePerFile.forEach((file, language) -> {
+      if (fileUris.contains(file.uri())) {
+        results.setLanguageForFile(file, language);
+      }
+    });
+    // only indexed files have a language entry
+    results.setIndexedFileCount(results.languagePerFile.size());
+    failedAnalysisFiles().stream()
+      .filter(file -> fileUris.contains(file.uri()))
+      .forEach(results::addFailedAnalysisFile);
+    return results;
   }
 
 }
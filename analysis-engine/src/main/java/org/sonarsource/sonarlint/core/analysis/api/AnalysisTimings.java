@@ -0,0 +1,166 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Breakdown of the time spent by an analysis. Phases are measured in wall-clock time. Metadata computation (including the scanning of
+ * issue exclusion patterns) and issue storage (including issue filters) happen during other phases, and are reported as cumulated times.
+ */
+public class AnalysisTimings {
+
+  static final int SLOWEST_FILES_COUNT = 10;
+
+  public enum Phase {
+    /**
+     * Registration and instantiation of the components of the analysis container
+     */
+    CONTAINER_BUILD,
+    FILE_INDEXING,
+    SENSORS_EXECUTION
+  }
+
+  private final Map<Phase, Duration> phaseDurations = new EnumMap<>(Phase.class);
+  private final List<SensorTiming> sensorTimings = new ArrayList<>();
+  private final AtomicLong metadataNanos = new AtomicLong();
+  private final AtomicLong issueStorageNanos = new AtomicLong();
+  private final PriorityQueue<FileTiming> slowestFiles = new PriorityQueue<>(Comparator.comparing(FileTiming::getMetadataDuration));
+
+  public synchronized void recordPhase(Phase phase, Duration duration) {
+    phaseDurations.put(phase, duration);
+  }
+
+  public synchronized void recordSensor(String sensorName, Duration duration, int issueCount) {
+    sensorTimings.add(new SensorTiming(sensorName, duration, issueCount));
+  }
+
+  public void recordFileMetadata(ClientInputFile file, Duration duration) {
+    metadataNanos.addAndGet(duration.toNanos());
+    synchronized (slowestFiles) {
+      slowestFiles.add(new FileTiming(file, duration));
+      if (slowestFiles.size() > SLOWEST_FILES_COUNT) {
+        slowestFiles.poll();
+      }
+    }
+  }
+
+  public void recordIssueStorage(long durationNanos) {
+    issueStorageNanos.addAndGet(durationNanos);
+  }
+
+  /**
+   * @return {@link Duration#ZERO} if the phase was not reached
+   */
+  public synchronized Duration phaseDuration(Phase phase) {
+    return phaseDurations.getOrDefault(phase, Duration.ZERO);
+  }
+
+  /**
+   * Executed sensors, in the order they completed
+   */
+  public synchronized List<SensorTiming> sensorTimings() {
+    return List.copyOf(sensorTimings);
+  }
+
+  public Duration metadataDuration() {
+    return Duration.ofNanos(metadataNanos.get());
+  }
+
+  public Duration issueStorageDuration() {
+    return Duration.ofNanos(issueStorageNanos.get());
+  }
+
+  /**
+   * Files whose metadata took the longest to compute, slowest first
+   */
+  public List<FileTiming> slowestFilesByMetadata() {
+    List<FileTiming> files;
+    synchronized (slowestFiles) {
+      files = new ArrayList<>(slowestFiles);
+    }
+    files.sort(Comparator.comparing(FileTiming::getMetadataDuration).reversed());
+    return files;
+  }
+
+  @Override
+  public synchronized String toString() {
+    var sb = new StringBuilder();
+    phaseDurations.forEach((phase, duration) -> sb.append(phase).append('=').append(duration.toMillis()).append("ms, "));
+    sb.append("metadata=").append(metadataDuration().toMillis()).append("ms, ");
+    sb.append("issue storage=").append(issueStorageDuration().toMillis()).append("ms");
+    return sb.toString();
+  }
+
+  @Immutable
+  public static class SensorTiming {
+    private final String sensorName;
+    private final Duration duration;
+    private final int issueCount;
+
+    SensorTiming(String sensorName, Duration duration, int issueCount) {
+      this.sensorName = sensorName;
+      this.duration = duration;
+      this.issueCount = issueCount;
+    }
+
+    public String getSensorName() {
+      return sensorName;
+    }
+
+    public Duration getDuration() {
+      return duration;
+    }
+
+    /**
+     * Number of issues raised by the sensor that were not filtered out
+     */
+    public int getIssueCount() {
+      return issueCount;
+    }
+  }
+
+  @Immutable
+  public static class FileTiming {
+    private final ClientInputFile file;
+    private final Duration metadataDuration;
+
+    FileTiming(ClientInputFile file, Duration metadataDuration) {
+      this.file = file;
+      this.metadataDuration = metadataDuration;
+    }
+
+    public ClientInputFile getFile() {
+      return file;
+    }
+
+    public Duration getMetadataDuration() {
+      return metadataDuration;
+    }
+  }
+}
@@ -75,6 +75,24 @@ public interface ClientInputFile {
    */
   String contents() throws IOException;
 
+  /**
+   * Whether the content of this file is the one of the file at {@link #uri()} on the filesystem, as opposed to the content of an unsaved
+   * editor buffer. Allows changes to be detected from the size and the modification time of the file, without reading it. Default to false.
+   */
+  default boolean isOnFileSystem() {
+    return false;
+  }
+
+  /**
+   * Version of the content of this file, that must change whenever the content changes, for example the modification stamp of an editor
+   * buffer or a hash of the content maintained by the client. Allows changes to be detected without reading the content. If null, the
+   * content is read to detect changes, unless the file {@link #isOnFileSystem()}.
+   */
+  @CheckForNull
+  default String contentVersion() {
+    return null;
+  }
+
   /**
    * Logical relative path with '/' separators. Used to apply SonarLintPathPatterns and by some analyzers. Example: 'src/main/java/Foo.java'.
    * Can be project relative path when it makes sense.
@@ -19,10 +19,21 @@
  */
 package org.sonarsource.sonarlint.core.analysis.command;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.analysis.api.ActiveRule;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisConfiguration;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
 import org.sonarsource.sonarlint.core.analysis.api.Issue;
 import org.sonarsource.sonarlint.core.analysis.container.global.ModuleRegistry;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput;
@@ -35,12 +46,19 @@ public class AnalyzeCommand implements Command<AnalysisResults> {
   private final AnalysisConfiguration configuration;
   private final Consumer<Issue> issueListener;
   private final ClientLogOutput logOutput;
+  private final CommandPriority priority;
 
   public AnalyzeCommand(@Nullable Object moduleKey, AnalysisConfiguration configuration, Consumer<Issue> issueListener, @Nullable ClientLogOutput logOutput) {
+    this(moduleKey, configuration, issueListener, logOutput, CommandPriority.INTERACTIVE);
+  }
+
+  public AnalyzeCommand(@Nullable Object moduleKey, AnalysisConfiguration configuration, Consumer<Issue> issueListener, @Nullable ClientLogOutput logOutput,
+    CommandPriority priority) {
     this.moduleKey = moduleKey;
     this.configuration = configuration;
     this.issueListener = issueListener;
     this.logOutput = logOutput;
+    this.priority = priority;
   }
 
   @Override
@@ -62,7 +80,7 @@ public class AnalyzeCommand implements Command<AnalysisResults> {
     } finally {
       try {
         if (moduleContainer.isTransient()) {
-          moduleContainer.stopComponents();
+          moduleRegistry.releaseTransientContainer(moduleContainer, originalException == null);
         }
       } catch (Exception e) {
         if (originalException != null) {
@@ -72,4 +90,82 @@ public class AnalyzeCommand implements Command<AnalysisResults> {
       }
     }
   }
+
+  @Override
+  @CheckForNull
+  public Object moduleKey() {
+    return moduleKey;
+  }
+
+  @Override
+  public CommandPriority priority() {
+    return priority;
+  }
+
+  public Set<URI> fileUris() {
+    return StreamSupport.stream(configuration.inputFiles().spliterator(), false).map(ClientInputFile::uri).collect(Collectors.toSet());
+  }
+
+  /**
+   * A command supersedes another one if it targets the same module with the same configuration, and analyzes at least the same files.
+   * Analyses outside of any module are never superseded.
+   */
+  public boolean supersedes(AnalyzeCommand other) {
+    return hasSameConfigurationAs(other) && fileUris().containsAll(other.fileUris());
+  }
+
+  /**
+   * Two commands can be merged if they only differ by the files they analyze. Analyses outside of any module are never merged.
+   */
+  public boolean canBeMergedWith(AnalyzeCommand other) {
+    return hasSameConfigurationAs(other)
+      && priority == other.priority
+      && logOutput == other.logOutput;
+  }
+
+  private boolean hasSameConfigurationAs(AnalyzeCommand other) {
+    return moduleKey != null
+      && moduleKey.equals(other.moduleKey)
+      && Objects.equals(configuration.baseDir(), other.configuration.baseDir())
+      && configuration.extraProperties().equals(other.configuration.extraProperties())
+      && activeRulesDescription(configuration).equals(activeRulesDescription(other.configuration));
+  }
+
+  private static List<String> activeRulesDescription(AnalysisConfiguration configuration) {
+    return configuration.activeRules().stream()
+      .map(AnalyzeCommand::describe)
+      .collect(Collectors.toList());
+  }
+
+  private static String describe(ActiveRule activeRule) {
+    return activeRule.getLanguageKey() + ":" + activeRule + ":" + activeRule.getTemplateRuleKey();
+  }
+
+  /**
+   * Create a command analyzing the files of both commands. When a file is analyzed by both, the version of the later command is kept.
+   * Issues are dispatched to the listener(s) of the command(s) the file comes from, issues not attached to any file are dispatched to both.
+   */
+  public AnalyzeCommand mergeWith(AnalyzeCommand later) {
+    var filesByUri = new LinkedHashMap<URI, ClientInputFile>();
+    configuration.inputFiles().forEach(f -> filesByUri.put(f.uri(), f));
+    later.configuration.inputFiles().forEach(f -> filesByUri.put(f.uri(), f));
+    var mergedConfiguration = AnalysisConfiguration.builder()
+      .addInputFiles(new ArrayList<>(filesByUri.values()))
+      .putAllExtraProperties(later.configuration.extraProperties())
+      .setBaseDir(later.configuration.baseDir())
+      .addActiveRules(later.configuration.activeRules())
+      .build();
+    var earlierUris = fileUris();
+    var laterUris = later.fileUris();
+    Consumer<Issue> dispatchingListener = issue -> {
+      var inputFile = issue.getInputFile();
+      if (inputFile == null || earlierUris.contains(inputFile.uri())) {
+        issueListener.accept(issue);
+      }
+      if (inputFile == null || laterUris.contains(inputFile.uri())) {
+        later.issueListener.accept(issue);
+      }
+    };
+    return new AnalyzeCommand(moduleKey, mergedConfiguration, dispatchingListener, later.logOutput, later.priority);
+  }
 }
@@ -19,9 +19,36 @@
  */
 package org.sonarsource.sonarlint.core.analysis.command;
 
+import javax.annotation.CheckForNull;
 import org.sonarsource.sonarlint.core.analysis.container.global.ModuleRegistry;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
 
 public interface Command<R> {
   R execute(ModuleRegistry moduleRegistry, ProgressMonitor progressMonitor);
+
+  /**
+   * Key of the module targeted by this command. Commands not bound to any module return null.
+   * <p>
+   * At most one command per module is executing at a time, while commands targeting different modules can be executed concurrently.
+   * Commands of the same module are not guaranteed to run in posting order:
+   * <ul>
+   *   <li>a higher {@link #priority()} command can overtake lower priority ones, but no command crosses a {@link CommandPriority#MAINTENANCE}
+   *   command of the same module, in either direction;</li>
+   *   <li>file events can be held for a short batching window and merged with later file events of the module;</li>
+   *   <li>an analysis can be merged with a compatible analysis posted shortly before it, or cancel an earlier analysis of the same files
+   *   with the same configuration, in which case the earlier one completes with a {@link CommandSupersededException}.</li>
+   * </ul>
+   */
+  @CheckForNull
+  default Object moduleKey() {
+    return null;
+  }
+
+  /**
+   * Higher priority commands are executed before lower priority ones, but never before a pending {@link CommandPriority#MAINTENANCE}
+   * command of the same module.
+   */
+  default CommandPriority priority() {
+    return CommandPriority.BACKGROUND;
+  }
 }
@@ -19,26 +19,49 @@
  */
 package org.sonarsource.sonarlint.core.analysis.command;
 
+import java.util.List;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileEvent;
 import org.sonarsource.sonarlint.core.analysis.container.global.ModuleRegistry;
+import org.sonarsource.sonarlint.core.analysis.container.module.ModuleFileEventBatch;
 import org.sonarsource.sonarlint.core.analysis.container.module.ModuleFileEventNotifier;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
 
 public class NotifyModuleEventCommand implements Command<Void> {
   private final Object moduleKey;
-  private final ClientModuleFileEvent event;
+  private final ModuleFileEventBatch events = new ModuleFileEventBatch();
 
   public NotifyModuleEventCommand(Object moduleKey, ClientModuleFileEvent event) {
     this.moduleKey = moduleKey;
-    this.event = event;
+    this.events.add(event);
+  }
+
+  /**
+   * Append the events of a more recent command of the same module. Must only be called while this command is not executing.
+   */
+  public void merge(NotifyModuleEventCommand other) {
+    events.addAll(other.events);
+  }
+
+  public List<ClientModuleFileEvent> events() {
+    return events.events();
   }
 
   @Override
   public Void execute(ModuleRegistry moduleRegistry, ProgressMonitor progressMonitor) {
     var moduleContainer = moduleRegistry.getContainerFor(moduleKey);
     if (moduleContainer != null) {
-      moduleContainer.getComponentByType(ModuleFileEventNotifier.class).fireModuleFileEvent(event);
+      moduleContainer.getComponentByType(ModuleFileEventNotifier.class).fireModuleFileEvents(events.events());
     }
     return null;
   }
+
+  @Override
+  public Object moduleKey() {
+    return moduleKey;
+  }
+
+  @Override
+  public CommandPriority priority() {
+    return CommandPriority.MAINTENANCE;
+  }
 }
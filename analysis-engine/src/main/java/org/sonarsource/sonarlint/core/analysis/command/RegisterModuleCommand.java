@@ -19,6 +19,7 @@
  */
 package org.sonarsource.sonarlint.core.analysis.command;
 
+import javax.annotation.CheckForNull;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModuleInfo;
 import org.sonarsource.sonarlint.core.analysis.container.global.ModuleRegistry;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
@@ -35,4 +36,15 @@ public class RegisterModuleCommand implements Command<Void> {
     moduleRegistry.registerModule(module);
     return null;
   }
+
+  @Override
+  @CheckForNull
+  public Object moduleKey() {
+    return module.key();
+  }
+
+  @Override
+  public CommandPriority priority() {
+    return CommandPriority.MAINTENANCE;
+  }
 }
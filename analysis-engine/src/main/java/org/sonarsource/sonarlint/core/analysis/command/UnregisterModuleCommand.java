@@ -34,4 +34,14 @@ public class UnregisterModuleCommand implements Command<Void> {
     moduleRegistry.unregisterModule(moduleKey);
     return null;
   }
+
+  @Override
+  public Object moduleKey() {
+    return moduleKey;
+  }
+
+  @Override
+  public CommandPriority priority() {
+    return CommandPriority.MAINTENANCE;
+  }
 }
@@ -19,9 +19,12 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis;
 
+import java.time.Duration;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.resources.Languages;
 import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisTimings;
 import org.sonarsource.sonarlint.core.analysis.container.ContainerLifespan;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileIndexer;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata;
@@ -46,19 +49,27 @@ import org.sonarsource.sonarlint.core.analysis.sonarapi.noop.NoOpFileLinesContex
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
 import org.sonarsource.sonarlint.core.plugin.commons.pico.ComponentContainer;
+import org.sonarsource.sonarlint.core.plugin.commons.pico.ConstructorCache;
 
 public class AnalysisContainer extends ComponentContainer {
 
   private static final SonarLintLogger LOG = SonarLintLogger.get();
   private final ProgressMonitor progress;
+  private long buildStartTime;
 
   public AnalysisContainer(ComponentContainer globalContainer, ProgressMonitor progress) {
     super(globalContainer);
     this.progress = progress;
   }
 
+  public AnalysisContainer(ComponentContainer moduleContainer, ConstructorCache constructorCache, ProgressMonitor progress) {
+    super(moduleContainer, constructorCache);
+    this.progress = progress;
+  }
+
   @Override
   protected void doBeforeStart() {
+    buildStartTime = System.nanoTime();
     addCoreComponents();
     addPluginExtensions();
   }
@@ -116,10 +127,18 @@ public class AnalysisContainer extends ComponentContainer {
 
   @Override
   protected void doAfterStart() {
+    var buildDuration = Duration.ofNanos(System.nanoTime() - buildStartTime);
+    LOG.debug("Analysis container built in {}ms", buildDuration.toMillis());
+    var timings = getComponentByType(AnalysisResults.class).setContainerBuildDuration(buildDuration).timings();
     LOG.debug("Start analysis");
     // Don't initialize Sensors before the FS is indexed
+    var indexingStart = System.nanoTime();
     getComponentByType(FileIndexer.class).index();
+    timings.recordPhase(AnalysisTimings.Phase.FILE_INDEXING, Duration.ofNanos(System.nanoTime() - indexingStart));
+    var sensorsStart = System.nanoTime();
     getComponentByType(SensorsExecutor.class).execute();
+    timings.recordPhase(AnalysisTimings.Phase.SENSORS_EXECUTION, Duration.ofNanos(System.nanoTime() - sensorsStart));
+    LOG.debug("Analysis timings: {}", timings);
   }
 
 }
@@ -0,0 +1,120 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+
+/**
+ * Threads used to execute parts of an analysis concurrently, shared by all the analyses of the engine. Only started when configured with
+ * more than one thread. Tasks log to the output of the analysis that submitted them.
+ * <p>
+ * Pools are global container components, so their threads are stopped with the engine.
+ */
+public abstract class AnalysisThreadPool {
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  @Nullable
+  private final ThreadPoolExecutor executor;
+
+  protected AnalysisThreadPool(String threadNamePrefix, int threadCount) {
+    if (threadCount > 1) {
+      var threadIndex = new AtomicInteger();
+      executor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+        var thread = new Thread(r, threadNamePrefix + threadIndex.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.allowCoreThreadTimeOut(true);
+    } else {
+      executor = null;
+    }
+  }
+
+  /**
+   * @return false when tasks should be executed sequentially by the analysis thread
+   */
+  public boolean isConcurrent() {
+    return executor != null;
+  }
+
+  /**
+   * Execute the task on a thread of the pool, on behalf of the analysis of the calling thread. Must only be called when {@link #isConcurrent()}.
+   */
+  public <T> CompletableFuture<T> submit(Supplier<T> task) {
+    var logOutput = SonarLintLogger.getTarget();
+    return CompletableFuture.supplyAsync(() -> {
+      SonarLintLogger.setTarget(logOutput);
+      try {
+        return task.get();
+      } finally {
+        SonarLintLogger.setTarget(null);
+      }
+    }, executor);
+  }
+
+  /**
+   * Execute the task on a thread of the pool once the given future completed, on behalf of the analysis of the calling thread. Must only be
+   * called when {@link #isConcurrent()}.
+   */
+  public CompletableFuture<Void> submitAfter(CompletableFuture<?> predecessor, Runnable task) {
+    var logOutput = SonarLintLogger.getTarget();
+    return predecessor.thenRunAsync(() -> {
+      SonarLintLogger.setTarget(logOutput);
+      try {
+        task.run();
+      } finally {
+        SonarLintLogger.setTarget(null);
+      }
+    }, executor);
+  }
+
+  /**
+   * Wait for the task, and rethrow the runtime exception it failed with, if any
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  public void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  boolean isStopped() {
+    return executor == null || executor.isShutdown();
+  }
+}
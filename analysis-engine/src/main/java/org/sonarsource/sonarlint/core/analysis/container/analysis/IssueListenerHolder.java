@@ -23,8 +23,8 @@ import java.util.function.Consumer;
 import org.sonarsource.sonarlint.core.analysis.api.Issue;
 
 /**
- * We need a dedicated class for dependency injection
- *
+ * We need a dedicated class for dependency injection.
+ * Issues are delivered one at a time, even when sensors are executed concurrently.
  */
 public class IssueListenerHolder {
   private final Consumer<Issue> wrapped;
@@ -33,7 +33,7 @@ public class IssueListenerHolder {
     this.wrapped = issueListener;
   }
 
-  public void handle(Issue issue) {
+  public synchronized void handle(Issue issue) {
     wrapped.accept(issue);
   }
 }
@@ -19,6 +19,7 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis;
 
+import javax.annotation.CheckForNull;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.sonar.api.batch.fs.InputFile;
@@ -34,6 +35,7 @@ public class SonarLintPathPattern {
   private static final SonarLintLogger LOG = SonarLintLogger.get();
 
   final WildcardPattern pattern;
+  private final String glob;
 
   public SonarLintPathPattern(String pattern) {
     if (pattern.startsWith("file:")) {
@@ -43,6 +45,7 @@ public class SonarLintPathPattern {
     if (!pattern.startsWith("**/")) {
       pattern = "**/" + pattern;
     }
+    this.glob = pattern;
     this.pattern = WildcardPattern.create(pattern);
   }
 
@@ -67,6 +70,19 @@ public class SonarLintPathPattern {
   }
 
   public boolean match(String filePath, boolean caseSensitiveFileExtension) {
+    var path = normalize(filePath, caseSensitiveFileExtension);
+    return path != null && matchNormalized(path);
+  }
+
+  /**
+   * @param path as returned by {@link #normalize(String, boolean)}
+   */
+  boolean matchNormalized(String path) {
+    return pattern.match(path);
+  }
+
+  @CheckForNull
+  static String normalize(String filePath, boolean caseSensitiveFileExtension) {
     var path = PathUtils.sanitize(filePath);
     if (!caseSensitiveFileExtension) {
       var extension = sanitizeExtension(FilenameUtils.getExtension(path));
@@ -75,7 +91,25 @@ public class SonarLintPathPattern {
         path = path + extension;
       }
     }
-    return path != null && pattern.match(path);
+    return path;
+  }
+
+  /**
+   * @return the extension that all the paths matched by this pattern have, or null if it depends on the path
+   */
+  @CheckForNull
+  String literalExtension() {
+    var dot = glob.lastIndexOf('.');
+    if (dot == -1) {
+      return null;
+    }
+    var extension = glob.substring(dot + 1);
+    for (var i = 0; i < extension.length(); i++) {
+      if ("*?/\\".indexOf(extension.charAt(i)) >= 0) {
+        return null;
+      }
+    }
+    return extension;
   }
 
   @Override
@@ -0,0 +1,138 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Several {@link SonarLintPathPattern} matched together. Patterns ending with a literal extension (like <code>**&#47;*.java</code>) are
+ * bucketed by this extension, so that for a given path only the patterns of its extension and the ones without a literal extension are
+ * evaluated. The path is sanitized only once for all the patterns.
+ */
+public class SonarLintPathPatternSet {
+
+  private static final int[] NONE = new int[0];
+
+  private final List<SonarLintPathPattern> patterns;
+  private final Map<String, int[]> indexesByExtension;
+  private final int[] otherIndexes;
+
+  public SonarLintPathPatternSet(List<SonarLintPathPattern> patterns) {
+    this.patterns = List.copyOf(patterns);
+    Map<String, List<Integer>> byExtension = new HashMap<>();
+    List<Integer> others = new ArrayList<>();
+    for (var i = 0; i < patterns.size(); i++) {
+      var extension = patterns.get(i).literalExtension();
+      if (extension == null) {
+        others.add(i);
+      } else {
+        byExtension.computeIfAbsent(extension, e -> new ArrayList<>()).add(i);
+      }
+    }
+    this.indexesByExtension = new HashMap<>();
+    byExtension.forEach((extension, indexes) -> indexesByExtension.put(extension, toArray(indexes)));
+    this.otherIndexes = toArray(others);
+  }
+
+  public static SonarLintPathPatternSet create(String[] patterns) {
+    return new SonarLintPathPatternSet(List.of(SonarLintPathPattern.create(patterns)));
+  }
+
+  public boolean isEmpty() {
+    return patterns.isEmpty();
+  }
+
+  public boolean matchAny(InputFile inputFile) {
+    return matchAny(inputFile.relativePath(), true);
+  }
+
+  public boolean matchAny(String filePath, boolean caseSensitiveFileExtension) {
+    var path = SonarLintPathPattern.normalize(filePath, caseSensitiveFileExtension);
+    if (path == null) {
+      return false;
+    }
+    return matchAny(candidatesByExtension(path), path) || matchAny(otherIndexes, path);
+  }
+
+  /**
+   * @return indexes of the patterns matching the path, in ascending order
+   */
+  public int[] matchingIndexes(String filePath) {
+    var path = SonarLintPathPattern.normalize(filePath, true);
+    if (path == null) {
+      return NONE;
+    }
+    var byExtension = candidatesByExtension(path);
+    var result = new int[byExtension.length + otherIndexes.length];
+    var count = 0;
+    var i = 0;
+    var j = 0;
+    // merge both sorted candidate lists to keep the declaration order
+    while (i < byExtension.length || j < otherIndexes.length) {
+      int candidate;
+      if (j == otherIndexes.length || (i < byExtension.length && byExtension[i] < otherIndexes[j])) {
+        candidate = byExtension[i++];
+      } else {
+        candidate = otherIndexes[j++];
+      }
+      if (patterns.get(candidate).matchNormalized(path)) {
+        result[count++] = candidate;
+      }
+    }
+    return count == result.length ? result : Arrays.copyOf(result, count);
+  }
+
+  private int[] candidatesByExtension(String path) {
+    if (indexesByExtension.isEmpty()) {
+      return NONE;
+    }
+    // same trimming as WildcardPattern.match
+    var trimmed = StringUtils.removeEnd(path, "/");
+    var dot = trimmed.lastIndexOf('.');
+    if (dot == -1 || dot < trimmed.lastIndexOf('/')) {
+      return NONE;
+    }
+    return indexesByExtension.getOrDefault(trimmed.substring(dot + 1), NONE);
+  }
+
+  private boolean matchAny(int[] candidates, String path) {
+    for (int candidate : candidates) {
+      if (patterns.get(candidate).matchNormalized(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int[] toArray(List<Integer> indexes) {
+    return indexes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Override
+  public String toString() {
+    return patterns.toString();
+  }
+}
@@ -43,6 +43,11 @@ public abstract class AbstractFilePredicate implements OptimizedFilePredicate {
     return filter(index.inputFiles());
   }
 
+  @Override
+  public int indexedSize(Index index) {
+    return NOT_INDEXED;
+  }
+
   @Override
   public int priority() {
     return DEFAULT_PRIORITY;
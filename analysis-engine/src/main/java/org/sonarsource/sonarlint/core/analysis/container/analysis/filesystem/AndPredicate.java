@@ -81,12 +81,43 @@ class AndPredicate extends AbstractFilePredicate {
     if (predicates.isEmpty()) {
       return index.inputFiles();
     }
-    // Optimization, use get on first predicate then filter with next predicates
-    var result = predicates.get(0).get(index);
-    for (var i = 1; i < predicates.size(); i++) {
-      result = predicates.get(i).filter(result);
+    // Optimization, use get on the most selective predicate then filter with next predicates
+    var first = mostSelective(index);
+    var result = first.get(index);
+    for (OptimizedFilePredicate predicate : predicates) {
+      if (predicate != first) {
+        result = predicate.filter(result);
+      }
     }
     return result;
   }
 
+  @Override
+  public int indexedSize(Index index) {
+    var smallestSize = NOT_INDEXED;
+    for (OptimizedFilePredicate predicate : predicates) {
+      var size = predicate.indexedSize(index);
+      if (size != NOT_INDEXED && (smallestSize == NOT_INDEXED || size < smallestSize)) {
+        smallestSize = size;
+      }
+    }
+    return smallestSize;
+  }
+
+  /**
+   * The predicate served by the smallest index, or the one with the highest priority if none is served by an index
+   */
+  private OptimizedFilePredicate mostSelective(Index index) {
+    var selected = predicates.get(0);
+    var smallestSize = NOT_INDEXED;
+    for (OptimizedFilePredicate predicate : predicates) {
+      var size = predicate.indexedSize(index);
+      if (size != NOT_INDEXED && (smallestSize == NOT_INDEXED || size < smallestSize)) {
+        selected = predicate;
+        smallestSize = size;
+      }
+    }
+    return selected;
+  }
+
 }
@@ -30,6 +30,7 @@ import org.sonar.api.batch.fs.FilePredicates;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputFile.Status;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.SonarLintPathPattern;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.SonarLintPathPatternSet;
 
 /**
  * Factory of {@link org.sonar.api.batch.fs.FilePredicate}
@@ -74,7 +75,7 @@ public class DefaultFilePredicates implements FilePredicates {
 
   @Override
   public FilePredicate matchesPathPattern(String inclusionPattern) {
-    return new PathPatternPredicate(new SonarLintPathPattern(inclusionPattern));
+    return new PathPatternPredicate(new SonarLintPathPatternSet(List.of(new SonarLintPathPattern(inclusionPattern))));
   }
 
   @Override
@@ -82,11 +83,7 @@ public class DefaultFilePredicates implements FilePredicates {
     if (inclusionPatterns.length == 0) {
       return TruePredicate.TRUE;
     }
-    var predicates = new FilePredicate[inclusionPatterns.length];
-    for (var i = 0; i < inclusionPatterns.length; i++) {
-      predicates[i] = new PathPatternPredicate(new SonarLintPathPattern(inclusionPatterns[i]));
-    }
-    return or(predicates);
+    return new PathPatternPredicate(SonarLintPathPatternSet.create(inclusionPatterns));
   }
 
   @Override
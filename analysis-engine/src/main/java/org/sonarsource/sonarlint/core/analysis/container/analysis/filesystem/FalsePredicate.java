@@ -42,4 +42,9 @@ class FalsePredicate extends AbstractFilePredicate {
   public Iterable<InputFile> get(Index index) {
     return Collections.emptyList();
   }
+
+  @Override
+  public int indexedSize(Index index) {
+    return 0;
+  }
 }
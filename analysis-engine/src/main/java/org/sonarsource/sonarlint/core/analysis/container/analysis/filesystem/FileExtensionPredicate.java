@@ -41,6 +41,11 @@ public class FileExtensionPredicate extends AbstractFilePredicate {
     return index.getFilesByExtension(extension);
   }
 
+  @Override
+  public int indexedSize(FileSystem.Index index) {
+    return index instanceof InputFileIndex ? ((InputFileIndex) index).getFilesByExtension(extension).size() : NOT_INDEXED;
+  }
+
   public static String getExtension(InputFile inputFile) {
     return getExtension(inputFile.filename());
   }
@@ -20,9 +20,13 @@
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputFileFilter;
 import org.sonar.api.utils.MessageException;
@@ -30,6 +34,7 @@ import org.sonarsource.api.sonarlint.SonarLintSide;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisConfiguration;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
 import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.AnalysisThreadPool;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.scanner.IssueExclusionsLoader;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 
@@ -40,6 +45,7 @@ import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 public class FileIndexer {
 
   private static final SonarLintLogger LOG = SonarLintLogger.get();
+  private static final int CHUNK_SIZE = 64;
 
   private final InputFileBuilder inputFileBuilder;
   private final AnalysisConfiguration analysisConfiguration;
@@ -47,18 +53,31 @@ public class FileIndexer {
   private final InputFileFilter[] filters;
   private final IssueExclusionsLoader issueExclusionsLoader;
   private final InputFileIndex inputFileCache;
+  private final FileIndexingPool indexingPool;
 
   private ProgressReport progressReport;
 
   public FileIndexer(InputFileIndex inputFileCache, InputFileBuilder inputFileBuilder, AnalysisConfiguration analysisConfiguration,
     AnalysisResults analysisResult, IssueExclusionsLoader issueExclusionsLoader,
-    InputFileFilter[] filters) {
+    InputFileFilter[] filters, FileIndexingPool indexingPool) {
     this.inputFileCache = inputFileCache;
     this.inputFileBuilder = inputFileBuilder;
     this.analysisConfiguration = analysisConfiguration;
     this.analysisResult = analysisResult;
     this.issueExclusionsLoader = issueExclusionsLoader;
     this.filters = filters;
+    this.indexingPool = indexingPool;
+  }
+
+  public FileIndexer(InputFileIndex inputFileCache, InputFileBuilder inputFileBuilder, AnalysisConfiguration analysisConfiguration,
+    AnalysisResults analysisResult, IssueExclusionsLoader issueExclusionsLoader, FileIndexingPool indexingPool) {
+    this(inputFileCache, inputFileBuilder, analysisConfiguration, analysisResult, issueExclusionsLoader, new InputFileFilter[0], indexingPool);
+  }
+
+  public FileIndexer(InputFileIndex inputFileCache, InputFileBuilder inputFileBuilder, AnalysisConfiguration analysisConfiguration,
+    AnalysisResults analysisResult, IssueExclusionsLoader issueExclusionsLoader,
+    InputFileFilter[] filters) {
+    this(inputFileCache, inputFileBuilder, analysisConfiguration, analysisResult, issueExclusionsLoader, filters, new FileIndexingPool(1));
   }
 
   public FileIndexer(InputFileIndex inputFileCache, InputFileBuilder inputFileBuilder, AnalysisConfiguration analysisConfiguration,
@@ -88,23 +107,103 @@ public class FileIndexer {
   }
 
   private void indexFiles(InputFileIndex inputFileCache, Progress progress, Iterable<ClientInputFile> inputFiles) {
+    if (indexingPool.isConcurrent()) {
+      indexFilesConcurrently(inputFileCache, progress, inputFiles);
+      return;
+    }
+    for (ClientInputFile file : inputFiles) {
+      var inputFile = prepare(file);
+      if (inputFile != null) {
+        indexFile(inputFileCache, progress, file, inputFile);
+      }
+    }
+  }
+
+  /**
+   * Input files are built by chunks on the indexing threads. {@link InputFileFilter}s, which are not required to be thread-safe, and
+   * exclusions are then applied on the calling thread while chunks are added to the index in the order files were provided, so that sensors
+   * iterate over them in a deterministic order. The metadata of accepted files is finally computed on the indexing threads, so that the
+   * content of excluded files is never read.
+   */
+  private void indexFilesConcurrently(InputFileIndex inputFileCache, Progress progress, Iterable<ClientInputFile> inputFiles) {
+    List<List<ClientInputFile>> chunks = new ArrayList<>();
+    List<CompletableFuture<SonarLintInputFile[]>> createdChunks = new ArrayList<>();
+    List<CompletableFuture<Void>> metadataChunks = new ArrayList<>();
+    var chunk = new ArrayList<ClientInputFile>(CHUNK_SIZE);
     for (ClientInputFile file : inputFiles) {
-      indexFile(inputFileCache, progress, file);
+      chunk.add(file);
+      if (chunk.size() == CHUNK_SIZE) {
+        submit(chunks, createdChunks, chunk);
+        chunk = new ArrayList<>(CHUNK_SIZE);
+      }
+    }
+    if (!chunk.isEmpty()) {
+      submit(chunks, createdChunks, chunk);
+    }
+    try {
+      for (var i = 0; i < chunks.size(); i++) {
+        var files = chunks.get(i);
+        var createdFiles = AnalysisThreadPool.join(createdChunks.get(i));
+        List<SonarLintInputFile> acceptedFiles = new ArrayList<>(files.size());
+        for (var j = 0; j < files.size(); j++) {
+          var inputFile = acceptAndRegister(createdFiles[j]);
+          if (inputFile != null) {
+            indexFile(inputFileCache, progress, files.get(j), inputFile);
+            acceptedFiles.add(inputFile);
+          }
+        }
+        metadataChunks.add(indexingPool.submit(() -> computeMetadata(acceptedFiles)));
+      }
+      metadataChunks.forEach(AnalysisThreadPool::join);
+    } finally {
+      createdChunks.forEach(f -> f.cancel(false));
+      metadataChunks.forEach(f -> f.cancel(false));
+    }
+  }
+
+  private void submit(List<List<ClientInputFile>> chunks, List<CompletableFuture<SonarLintInputFile[]>> createdChunks,
+    List<ClientInputFile> chunk) {
+    chunks.add(chunk);
+    createdChunks.add(indexingPool.submit(() -> chunk.stream().map(inputFileBuilder::create).toArray(SonarLintInputFile[]::new)));
+  }
+
+  @CheckForNull
+  private static Void computeMetadata(List<SonarLintInputFile> inputFiles) {
+    for (SonarLintInputFile inputFile : inputFiles) {
+      try {
+        inputFile.checkMetadata();
+      } catch (RuntimeException e) {
+        // Metadata stays lazy, the failure will surface when it is first accessed, as in the sequential case
+        LOG.debug("Unable to compute metadata of '{}': {}", inputFile, e.getMessage());
+      }
     }
+    return null;
+  }
+
+  /**
+   * @return null if the file is excluded by a filter
+   */
+  @CheckForNull
+  private SonarLintInputFile prepare(ClientInputFile file) {
+    return acceptAndRegister(inputFileBuilder.create(file));
   }
 
-  private void indexFile(InputFileIndex inputFileCache, Progress progress, ClientInputFile file) {
-    var inputFile = inputFileBuilder.create(file);
+  /**
+   * @return null if the file is excluded by a filter
+   */
+  @CheckForNull
+  private SonarLintInputFile acceptAndRegister(SonarLintInputFile inputFile) {
     if (accept(inputFile)) {
-      analysisResult.setLanguageForFile(file, inputFile.getLanguage());
-      indexFile(inputFileCache, progress, inputFile);
       issueExclusionsLoader.addMulticriteriaPatterns(inputFile);
+      return inputFile;
     }
+    return null;
   }
 
-  private void indexFile(final InputFileIndex inputFileCache, final Progress status, final SonarLintInputFile inputFile) {
+  private void indexFile(InputFileIndex inputFileCache, Progress progress, ClientInputFile file, SonarLintInputFile inputFile) {
+    analysisResult.setLanguageForFile(file, inputFile.getLanguage());
     inputFileCache.doAdd(inputFile);
-    status.markAsIndexed(inputFile);
+    progress.markAsIndexed(inputFile);
   }
 
   private boolean accept(InputFile indexedFile) {
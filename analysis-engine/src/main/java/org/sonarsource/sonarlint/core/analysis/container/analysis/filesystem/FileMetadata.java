@@ -19,7 +19,6 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -29,8 +28,9 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
@@ -48,6 +48,9 @@ public class FileMetadata {
 
   private static final char LINE_FEED = '\n';
   private static final char CARRIAGE_RETURN = '\r';
+  private static final int BUFFER_SIZE = 16 * 1024;
+  private static final int INCOMPLETE = 0;
+  private static final int MALFORMED = -1;
 
   public abstract static class CharHandler {
 
@@ -57,6 +60,18 @@ public class FileMetadata {
     protected void handleIgnoreEoL(char c) {
     }
 
+    /**
+     * Bulk variant of {@link #handleIgnoreEoL(char)} and {@link #handleAll(char)}, called with a run of characters that contains no
+     * line terminator. Subclasses that only need whole lines should override it to avoid the per-character dispatch.
+     */
+    protected void handleChars(char[] buffer, int offset, int length) {
+      for (var i = offset; i < offset + length; i++) {
+        var c = buffer[i];
+        handleIgnoreEoL(c);
+        handleAll(c);
+      }
+    }
+
     protected void newLine() {
     }
 
@@ -64,70 +79,185 @@ public class FileMetadata {
     }
   }
 
-  private static class LineCounter extends CharHandler {
-    private int lines = 1;
-    boolean alreadyLoggedInvalidCharacter = false;
+  /**
+   * Counts lines and line offsets of a stream of characters or UTF-8 bytes read by blocks. Line terminators follow the usual rules:
+   * LF, CR and CRLF all end a line, a CR at the end of the content starts a new (empty) line.
+   */
+  private static class LineScanner {
+    private static final int INITIAL_LINES_CAPACITY = 64;
+
     private final URI fileUri;
     private final Charset encoding;
+    @Nullable
+    private final CharHandler otherHandler;
+    private int[] originalLineOffsets = new int[INITIAL_LINES_CAPACITY];
+    private int lines = 1;
+    private int currentOffset = 0;
+    private boolean afterCR = false;
+    private boolean alreadyLoggedInvalidCharacter = false;
 
-    LineCounter(URI fileUri, Charset encoding) {
+    LineScanner(URI fileUri, Charset encoding, @Nullable CharHandler otherHandler) {
       this.fileUri = fileUri;
       this.encoding = encoding;
+      this.otherHandler = otherHandler;
     }
 
-    @Override
-    protected void handleAll(char c) {
-      if (!alreadyLoggedInvalidCharacter && c == '\ufffd') {
-        LOG.warn("Invalid character encountered in file '{}' at line {} for encoding {}. Please fix file content or configure the encoding.",
-          fileUri,
-          lines, encoding);
-        alreadyLoggedInvalidCharacter = true;
+    void scan(char[] buffer, int length) {
+      var chunkStart = 0;
+      for (var i = 0; i < length; i++) {
+        var c = buffer[i];
+        if (c == LINE_FEED) {
+          flushChars(buffer, chunkStart, i);
+          if (otherHandler != null) {
+            otherHandler.handleAll(c);
+          }
+          newLine(currentOffset + i + 1);
+          afterCR = false;
+          chunkStart = i + 1;
+        } else if (c == CARRIAGE_RETURN) {
+          flushChars(buffer, chunkStart, i);
+          if (afterCR) {
+            newLine(currentOffset + i);
+          }
+          if (otherHandler != null) {
+            otherHandler.handleAll(c);
+          }
+          afterCR = true;
+          chunkStart = i + 1;
+        } else {
+          if (afterCR) {
+            newLine(currentOffset + i);
+            afterCR = false;
+          }
+          if (c == '\ufffd' && !alreadyLoggedInvalidCharacter) {
+            LOG.warn("Invalid character encountered in file '{}' at line {} for encoding {}. Please fix file content or configure the encoding.",
+              fileUri,
+              lines, encoding);
+            alreadyLoggedInvalidCharacter = true;
+          }
+        }
       }
+      flushChars(buffer, chunkStart, length);
+      currentOffset += length;
     }
 
-    @Override
-    protected void newLine() {
-      lines++;
+    /**
+     * Scans UTF-8 (or ASCII) bytes without decoding them. Offsets are still counted in UTF-16 code units, like the decoding path does.
+     * @return the number of bytes consumed, less than length when the block ends in the middle of a character, or {@link #MALFORMED}
+     * when the content would be decoded with replacement characters
+     */
+    int scan(byte[] buffer, int length, boolean asciiOnly) {
+      var i = 0;
+      while (i < length) {
+        var b = buffer[i];
+        if (b >= 0) {
+          if (b == LINE_FEED) {
+            newLine(currentOffset + 1);
+            afterCR = false;
+          } else if (b == CARRIAGE_RETURN) {
+            if (afterCR) {
+              newLine(currentOffset);
+            }
+            afterCR = true;
+          } else if (afterCR) {
+            newLine(currentOffset);
+            afterCR = false;
+          }
+          currentOffset++;
+          i++;
+        } else {
+          var sequenceLength = asciiOnly ? MALFORMED : utf8SequenceLength(buffer, i, length);
+          if (sequenceLength == MALFORMED) {
+            return MALFORMED;
+          }
+          if (sequenceLength == INCOMPLETE) {
+            return i;
+          }
+          if (afterCR) {
+            newLine(currentOffset);
+            afterCR = false;
+          }
+          // 4 bytes sequences are outside of the BMP and need a surrogate pair
+          currentOffset += sequenceLength == 4 ? 2 : 1;
+          i += sequenceLength;
+        }
+      }
+      return length;
     }
 
-    public int lines() {
-      return lines;
+    private void flushChars(char[] buffer, int from, int to) {
+      if (otherHandler != null && from < to) {
+        otherHandler.handleChars(buffer, from, to - from);
+      }
     }
 
-  }
-
-  private static class LineOffsetCounter extends CharHandler {
-    private int currentOriginalOffset = 0;
-    private final List<Integer> originalLineOffsets = new ArrayList<>();
-    private int lastValidOffset = 0;
-
-    public LineOffsetCounter() {
-      originalLineOffsets.add(0);
+    private void newLine(int lineStartOffset) {
+      if (lines == originalLineOffsets.length) {
+        originalLineOffsets = Arrays.copyOf(originalLineOffsets, lines * 2);
+      }
+      originalLineOffsets[lines] = lineStartOffset;
+      lines++;
+      if (otherHandler != null) {
+        otherHandler.newLine();
+      }
     }
 
-    @Override
-    protected void handleAll(char c) {
-      currentOriginalOffset++;
+    Metadata eof() {
+      if (afterCR) {
+        newLine(currentOffset);
+      }
+      if (otherHandler != null) {
+        otherHandler.eof();
+      }
+      return new Metadata(lines, Arrays.copyOf(originalLineOffsets, lines), currentOffset);
     }
+  }
 
-    @Override
-    protected void newLine() {
-      originalLineOffsets.add(currentOriginalOffset);
+  private static int utf8SequenceLength(byte[] buffer, int pos, int limit) {
+    var lead = buffer[pos] & 0xFF;
+    int length;
+    var secondMin = 0x80;
+    var secondMax = 0xBF;
+    if (lead >= 0xC2 && lead <= 0xDF) {
+      length = 2;
+    } else if (lead >= 0xE0 && lead <= 0xEF) {
+      length = 3;
+      if (lead == 0xE0) {
+        // overlong encoding
+        secondMin = 0xA0;
+      } else if (lead == 0xED) {
+        // surrogates
+        secondMax = 0x9F;
+      }
+    } else if (lead >= 0xF0 && lead <= 0xF4) {
+      length = 4;
+      if (lead == 0xF0) {
+        // overlong encoding
+        secondMin = 0x90;
+      } else if (lead == 0xF4) {
+        // above U+10FFFF
+        secondMax = 0x8F;
+      }
+    } else {
+      return MALFORMED;
     }
-
-    @Override
-    protected void eof() {
-      lastValidOffset = currentOriginalOffset;
+    if (pos + length > limit) {
+      return INCOMPLETE;
     }
-
-    public List<Integer> getOriginalLineOffsets() {
-      return originalLineOffsets;
+    var second = buffer[pos + 1] & 0xFF;
+    if (second < secondMin || second > secondMax) {
+      return MALFORMED;
     }
-
-    public int getLastValidOffset() {
-      return lastValidOffset;
+    for (var i = pos + 2; i < pos + length; i++) {
+      if ((buffer[i] & 0xC0) != 0x80) {
+        return MALFORMED;
+      }
     }
-
+    if (lead == 0xEF && second == 0xBF && (buffer[pos + 2] & 0xFF) == 0xBD) {
+      // U+FFFD is reported as an invalid character by the decoding path
+      return MALFORMED;
+    }
+    return length;
   }
 
   /**
@@ -143,20 +273,47 @@ public class FileMetadata {
    * Maximum performance is needed.
    */
   public Metadata readMetadata(InputStream stream, Charset encoding, URI fileUri, @Nullable CharHandler otherHandler) {
-    var lineCounter = new LineCounter(fileUri, encoding);
-    var lineOffsetCounter = new LineOffsetCounter();
-    try (Reader reader = new BufferedReader(new InputStreamReader(stream, encoding))) {
-      CharHandler[] handlers;
-      if (otherHandler != null) {
-        handlers = new CharHandler[] {lineCounter, lineOffsetCounter, otherHandler};
-      } else {
-        handlers = new CharHandler[] {lineCounter, lineOffsetCounter};
+    try (Reader reader = new InputStreamReader(stream, encoding)) {
+      return read(reader, new LineScanner(fileUri, encoding, otherHandler));
+    } catch (IOException e) {
+      throw new IllegalStateException(String.format("Fail to read file '%s' with encoding '%s'", fileUri, encoding), e);
+    }
+  }
+
+  /**
+   * Whether {@link #readMetadataWithoutDecoding(InputStream, Charset, URI)} supports the given encoding.
+   */
+  public static boolean canReadWithoutDecoding(Charset encoding) {
+    return StandardCharsets.UTF_8.equals(encoding) || StandardCharsets.US_ASCII.equals(encoding);
+  }
+
+  /**
+   * Same as {@link #readMetadata(InputStream, Charset, URI, CharHandler)} without a handler, but scans the raw bytes of UTF-8 or ASCII
+   * content instead of decoding them.
+   * @return null if the content is not valid in the given encoding, in which case the decoding path should be used to get the
+   * invalid character warning and the replacement characters offsets
+   */
+  @CheckForNull
+  public Metadata readMetadataWithoutDecoding(InputStream stream, Charset encoding, URI fileUri) {
+    var asciiOnly = StandardCharsets.US_ASCII.equals(encoding);
+    var scanner = new LineScanner(fileUri, encoding, null);
+    try (stream) {
+      var buffer = new byte[BUFFER_SIZE];
+      var pending = 0;
+      int read;
+      while ((read = stream.read(buffer, pending, buffer.length - pending)) != -1) {
+        var available = pending + read;
+        var consumed = scanner.scan(buffer, available, asciiOnly);
+        if (consumed == MALFORMED) {
+          return null;
+        }
+        pending = available - consumed;
+        System.arraycopy(buffer, consumed, buffer, 0, pending);
       }
-      read(reader, handlers);
+      return pending == 0 ? scanner.eof() : null;
     } catch (IOException e) {
       throw new IllegalStateException(String.format("Fail to read file '%s' with encoding '%s'", fileUri, encoding), e);
     }
-    return new Metadata(lineCounter.lines(), lineOffsetCounter.getOriginalLineOffsets().stream().mapToInt(i -> i).toArray(), lineOffsetCounter.getLastValidOffset());
   }
 
   private static InputStream streamFile(File file) {
@@ -168,51 +325,13 @@ public class FileMetadata {
     }
   }
 
-  private static void read(Reader reader, CharHandler... handlers) throws IOException {
-    char c;
-    var i = reader.read();
-    var afterCR = false;
-    while (i != -1) {
-      c = (char) i;
-      if (afterCR) {
-        for (CharHandler handler : handlers) {
-          if (c == CARRIAGE_RETURN) {
-            handler.newLine();
-            handler.handleAll(c);
-          } else if (c == LINE_FEED) {
-            handler.handleAll(c);
-            handler.newLine();
-          } else {
-            handler.newLine();
-            handler.handleIgnoreEoL(c);
-            handler.handleAll(c);
-          }
-        }
-        afterCR = c == CARRIAGE_RETURN;
-      } else if (c == LINE_FEED) {
-        for (CharHandler handler : handlers) {
-          handler.handleAll(c);
-          handler.newLine();
-        }
-      } else if (c == CARRIAGE_RETURN) {
-        afterCR = true;
-        for (CharHandler handler : handlers) {
-          handler.handleAll(c);
-        }
-      } else {
-        for (CharHandler handler : handlers) {
-          handler.handleIgnoreEoL(c);
-          handler.handleAll(c);
-        }
-      }
-      i = reader.read();
-    }
-    for (CharHandler handler : handlers) {
-      if (afterCR) {
-        handler.newLine();
-      }
-      handler.eof();
+  private static Metadata read(Reader reader, LineScanner scanner) throws IOException {
+    var buffer = new char[BUFFER_SIZE];
+    int read;
+    while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+      scanner.scan(buffer, read);
     }
+    return scanner.eof();
   }
 
   public static class Metadata {
@@ -0,0 +1,235 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata.Metadata;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+
+/**
+ * Keeps the metadata of files of a module between analyses, together with the outcome of the issue exclusions scanning that is done
+ * while reading it. An entry is only reused when the content of the file, its charset and the exclusion patterns did not change.
+ * Changes of the content are detected from the version provided by the client, or from the size and modification time of files read
+ * from the filesystem. Only when neither is available, for example for unsaved editor buffers of clients not providing a version, the
+ * content is read to compute its checksum.
+ * Entries are evicted in least recently used order once the estimated memory held by the cache exceeds a bound, and dropped when
+ * the client notifies a change on the file.
+ */
+public class FileMetadataCache {
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+
+  static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024;
+  private static final int BUFFER_SIZE = 16 * 1024;
+  private static final int ENTRY_BASE_WEIGHT = 128;
+
+  private final long maxWeight;
+  private final Map<URI, Entry> entriesByUri = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hits;
+  private long misses;
+
+  public FileMetadataCache() {
+    this(DEFAULT_MAX_WEIGHT);
+  }
+
+  FileMetadataCache(long maxWeight) {
+    this.maxWeight = maxWeight;
+  }
+
+  Metadata getOrCompute(SonarLintInputFile inputFile, List<String> exclusionPatterns, Function<SonarLintInputFile, Metadata> metadataReader) {
+    var uri = inputFile.uri();
+    var fingerprint = Fingerprint.of(inputFile);
+    var charset = inputFile.charset();
+    var cached = get(uri, fingerprint, charset, exclusionPatterns);
+    if (cached != null) {
+      LOG.debug("Reusing metadata of file {}", uri);
+      inputFile.setIgnoreAllIssues(cached.ignoreAllIssues);
+      if (cached.ignoreIssuesOnLineRanges != null) {
+        inputFile.addIgnoreIssuesOnLineRanges(cached.ignoreIssuesOnLineRanges);
+      }
+      return cached.metadata;
+    }
+    var metadata = metadataReader.apply(inputFile);
+    put(uri, new Entry(fingerprint, charset, exclusionPatterns, metadata, inputFile.ignoreAllIssuesFlag(),
+      inputFile.ignoreIssuesOnLineRanges()));
+    return metadata;
+  }
+
+  @CheckForNull
+  private synchronized Entry get(URI uri, Fingerprint fingerprint, Charset charset, List<String> exclusionPatterns) {
+    var entry = entriesByUri.get(uri);
+    if (entry != null && entry.fingerprint.equals(fingerprint) && entry.charset.equals(charset)
+      && entry.exclusionPatterns.equals(exclusionPatterns)) {
+      hits++;
+      return entry;
+    }
+    misses++;
+    return null;
+  }
+
+  private synchronized void put(URI uri, Entry entry) {
+    var previous = entriesByUri.put(uri, entry);
+    if (previous != null) {
+      weight -= previous.weight;
+    }
+    weight += entry.weight;
+    var iterator = entriesByUri.values().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      weight -= iterator.next().weight;
+      iterator.remove();
+    }
+  }
+
+  public synchronized void invalidate(URI uri) {
+    var previous = entriesByUri.remove(uri);
+    if (previous != null) {
+      weight -= previous.weight;
+    }
+  }
+
+  public synchronized void clear() {
+    entriesByUri.clear();
+    weight = 0;
+  }
+
+  public synchronized int size() {
+    return entriesByUri.size();
+  }
+
+  synchronized long weight() {
+    return weight;
+  }
+
+  public synchronized long hits() {
+    return hits;
+  }
+
+  public synchronized long misses() {
+    return misses;
+  }
+
+  private static class Fingerprint {
+    private enum Kind {
+      CLIENT_VERSION, FILE_ATTRIBUTES, CONTENT_CHECKSUM
+    }
+
+    private final Kind kind;
+    @Nullable
+    private final String version;
+    private final long length;
+    private final long stamp;
+
+    private Fingerprint(Kind kind, @Nullable String version, long length, long stamp) {
+      this.kind = kind;
+      this.version = version;
+      this.length = length;
+      this.stamp = stamp;
+    }
+
+    static Fingerprint of(SonarLintInputFile inputFile) {
+      var clientInputFile = inputFile.getClientInputFile();
+      var version = clientInputFile.contentVersion();
+      if (version != null) {
+        return new Fingerprint(Kind.CLIENT_VERSION, version, 0, 0);
+      }
+      if (clientInputFile.isOnFileSystem() && "file".equals(inputFile.uri().getScheme())) {
+        try {
+          var attributes = Files.readAttributes(Paths.get(inputFile.uri()), BasicFileAttributes.class);
+          return new Fingerprint(Kind.FILE_ATTRIBUTES, null, attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+        } catch (IOException | RuntimeException e) {
+          LOG.debug("Unable to read attributes of file {}: {}", inputFile.uri(), e.getMessage());
+        }
+      }
+      return checksum(inputFile);
+    }
+
+    private static Fingerprint checksum(SonarLintInputFile inputFile) {
+      var crc = new CRC32C();
+      var length = 0L;
+      try (var stream = inputFile.inputStream()) {
+        var buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+          crc.update(buffer, 0, read);
+          length += read;
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to open a stream on file: " + inputFile.uri(), e);
+      }
+      return new Fingerprint(Kind.CONTENT_CHECKSUM, null, length, crc.getValue());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Fingerprint)) {
+        return false;
+      }
+      var that = (Fingerprint) o;
+      return kind == that.kind && Objects.equals(version, that.version) && length == that.length && stamp == that.stamp;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kind, version, length, stamp);
+    }
+  }
+
+  private static class Entry {
+    private final Fingerprint fingerprint;
+    private final Charset charset;
+    private final List<String> exclusionPatterns;
+    private final Metadata metadata;
+    private final boolean ignoreAllIssues;
+    @Nullable
+    private final List<int[]> ignoreIssuesOnLineRanges;
+    private final long weight;
+
+    Entry(Fingerprint fingerprint, Charset charset, List<String> exclusionPatterns, Metadata metadata, boolean ignoreAllIssues,
+      @Nullable Collection<int[]> ignoreIssuesOnLineRanges) {
+      this.fingerprint = fingerprint;
+      this.charset = charset;
+      this.exclusionPatterns = exclusionPatterns;
+      this.metadata = metadata;
+      this.ignoreAllIssues = ignoreAllIssues;
+      this.ignoreIssuesOnLineRanges = ignoreIssuesOnLineRanges != null ? new ArrayList<>(ignoreIssuesOnLineRanges) : null;
+      this.weight = ENTRY_BASE_WEIGHT + 4L * metadata.originalLineOffsets().length
+        + (this.ignoreIssuesOnLineRanges != null ? 24L * this.ignoreIssuesOnLineRanges.size() : 0);
+    }
+  }
+}
@@ -39,4 +39,9 @@ public class FilenamePredicate extends AbstractFilePredicate {
     return index.getFilesByName(filename);
   }
 
+  @Override
+  public int indexedSize(FileSystem.Index index) {
+    return index instanceof InputFileIndex ? ((InputFileIndex) index).getFilesByName(filename).size() : NOT_INDEXED;
+  }
+
 }
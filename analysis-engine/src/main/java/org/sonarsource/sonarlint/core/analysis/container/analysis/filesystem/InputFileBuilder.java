@@ -22,8 +22,11 @@ package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import org.sonar.api.batch.fs.InputFile.Type;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
 import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata.Metadata;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.scanner.IssueExclusionsLoader;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 
@@ -32,11 +35,24 @@ public class InputFileBuilder {
   private final LanguageDetection langDetection;
   private final FileMetadata fileMetadata;
   private final IssueExclusionsLoader exclusionsScanner;
+  private final AnalysisResults analysisResults;
+  private final FileMetadataCache metadataCache;
 
   public InputFileBuilder(LanguageDetection langDetection, FileMetadata fileMetadata, IssueExclusionsLoader exclusionsScanner) {
+    this(langDetection, fileMetadata, exclusionsScanner, new AnalysisResults());
+  }
+
+  public InputFileBuilder(LanguageDetection langDetection, FileMetadata fileMetadata, IssueExclusionsLoader exclusionsScanner, AnalysisResults analysisResults) {
+    this(langDetection, fileMetadata, exclusionsScanner, analysisResults, new FileMetadataCache());
+  }
+
+  public InputFileBuilder(LanguageDetection langDetection, FileMetadata fileMetadata, IssueExclusionsLoader exclusionsScanner, AnalysisResults analysisResults,
+    FileMetadataCache metadataCache) {
     this.langDetection = langDetection;
     this.fileMetadata = fileMetadata;
     this.exclusionsScanner = exclusionsScanner;
+    this.analysisResults = analysisResults;
+    this.metadataCache = metadataCache;
   }
 
   LanguageDetection langDetection() {
@@ -45,15 +61,10 @@ public class InputFileBuilder {
 
   SonarLintInputFile create(ClientInputFile inputFile) {
     var defaultInputFile = new SonarLintInputFile(inputFile, f -> {
-      LOG.debug("Initializing metadata of file {}", f.uri());
-      var charset = f.charset();
-      InputStream stream;
-      try {
-        stream = f.inputStream();
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to open a stream on file: " + f.uri(), e);
-      }
-      return fileMetadata.readMetadata(stream, charset != null ? charset : Charset.defaultCharset(), f.uri(), exclusionsScanner.createCharHandlerFor(f));
+      var start = System.nanoTime();
+      var metadata = metadataCache.getOrCompute(f, exclusionsScanner.exclusionPatterns(), this::readMetadata);
+      analysisResults.timings().recordFileMetadata(inputFile, Duration.ofNanos(System.nanoTime() - start));
+      return metadata;
     });
     defaultInputFile.setType(inputFile.isTest() ? Type.TEST : Type.MAIN);
     var fileLanguage = inputFile.language();
@@ -67,4 +78,27 @@ public class InputFileBuilder {
     return defaultInputFile;
   }
 
+  private Metadata readMetadata(SonarLintInputFile f) {
+    LOG.debug("Initializing metadata of file {}", f.uri());
+    var fileCharset = f.charset();
+    var charset = fileCharset != null ? fileCharset : Charset.defaultCharset();
+    var exclusionsHandler = exclusionsScanner.createCharHandlerFor(f);
+    Metadata metadata = null;
+    if (exclusionsHandler == null && FileMetadata.canReadWithoutDecoding(charset)) {
+      metadata = fileMetadata.readMetadataWithoutDecoding(openStream(f), charset, f.uri());
+    }
+    if (metadata == null) {
+      metadata = fileMetadata.readMetadata(openStream(f), charset, f.uri(), exclusionsHandler);
+    }
+    return metadata;
+  }
+
+  private static InputStream openStream(SonarLintInputFile f) {
+    try {
+      return f.inputStream();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to open a stream on file: " + f.uri(), e);
+    }
+  }
+
 }
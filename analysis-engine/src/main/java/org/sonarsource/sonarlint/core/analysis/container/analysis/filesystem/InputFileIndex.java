@@ -19,8 +19,16 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -33,22 +41,38 @@ import org.sonarsource.api.sonarlint.SonarLintSide;
 public class InputFileIndex implements FileSystem.Index {
 
   private final Set<InputFile> inputFiles = new LinkedHashSet<>();
+  private final Map<InputFile, Integer> positionByFile = new HashMap<>();
   private final Map<String, Set<InputFile>> filesByNameIndex = new LinkedHashMap<>();
   private final Map<String, Set<InputFile>> filesByExtensionIndex = new LinkedHashMap<>();
+  private final Map<String, Set<InputFile>> filesByLanguageIndex = new HashMap<>();
+  private final Map<InputFile.Type, Set<InputFile>> filesByTypeIndex = new EnumMap<>(InputFile.Type.class);
+  private final Map<URI, InputFile> fileByUriIndex = new HashMap<>();
   private final SortedSet<String> languages = new TreeSet<>();
 
   @Override
-  public Iterable<InputFile> inputFiles() {
+  public Collection<InputFile> inputFiles() {
     return inputFiles;
   }
 
   public void doAdd(InputFile inputFile) {
-    if (inputFile.language() != null) {
-      languages.add(inputFile.language());
+    var language = inputFile.language();
+    if (language != null) {
+      languages.add(language);
+      filesByLanguageIndex.computeIfAbsent(language, l -> new LinkedHashSet<>()).add(inputFile);
+    }
+    if (inputFiles.add(inputFile)) {
+      positionByFile.put(inputFile, positionByFile.size());
     }
-    inputFiles.add(inputFile);
     filesByNameIndex.computeIfAbsent(inputFile.filename(), f -> new LinkedHashSet<>()).add(inputFile);
     filesByExtensionIndex.computeIfAbsent(FileExtensionPredicate.getExtension(inputFile), f -> new LinkedHashSet<>()).add(inputFile);
+    var type = inputFile.type();
+    if (type != null) {
+      filesByTypeIndex.computeIfAbsent(type, t -> new LinkedHashSet<>()).add(inputFile);
+    }
+    var uri = inputFile.uri();
+    if (uri != null) {
+      fileByUriIndex.put(uri, inputFile);
+    }
   }
 
   @Override
@@ -57,13 +81,35 @@ public class InputFileIndex implements FileSystem.Index {
   }
 
   @Override
-  public Iterable<InputFile> getFilesByName(String filename) {
-    return filesByNameIndex.get(filename);
+  public Collection<InputFile> getFilesByName(String filename) {
+    return filesByNameIndex.getOrDefault(filename, Collections.emptySet());
   }
 
   @Override
-  public Iterable<InputFile> getFilesByExtension(String extension) {
-    return filesByExtensionIndex.get(extension);
+  public Collection<InputFile> getFilesByExtension(String extension) {
+    return filesByExtensionIndex.getOrDefault(extension, Collections.emptySet());
+  }
+
+  public Collection<InputFile> getFilesByLanguage(String language) {
+    return filesByLanguageIndex.getOrDefault(language, Collections.emptySet());
+  }
+
+  public Collection<InputFile> getFilesByType(InputFile.Type type) {
+    return filesByTypeIndex.getOrDefault(type, Collections.emptySet());
+  }
+
+  public Collection<InputFile> getFilesByUri(URI uri) {
+    var inputFile = fileByUriIndex.get(uri);
+    return inputFile != null ? List.of(inputFile) : Collections.emptyList();
+  }
+
+  /**
+   * Sorts files in the order they were indexed, for results gathered from several indexes to be iterated like the whole index.
+   */
+  List<InputFile> sortInIndexOrder(Collection<InputFile> files) {
+    List<InputFile> sorted = new ArrayList<>(files);
+    sorted.sort(Comparator.comparing(positionByFile::get));
+    return sorted;
   }
 
   protected SortedSet<String> languages() {
@@ -22,9 +22,7 @@ package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import javax.annotation.CheckForNull;
 import org.apache.commons.lang3.StringUtils;
 import org.sonar.api.batch.fs.InputFile;
@@ -46,6 +44,10 @@ public class LanguageDetection {
    * Lower-case extension -> languages
    */
   private final Map<Language, String[]> extensionsByLanguage = new LinkedHashMap<>();
+  /**
+   * Lower-case suffixes (extensions prefixed by a dot) of all languages, indexed from their last character
+   */
+  private final SuffixNode suffixTrie = new SuffixNode();
 
   public LanguageDetection(Configuration config) {
     for (Language language : Language.values()) {
@@ -54,6 +56,7 @@ public class LanguageDetection {
       for (var i = 0; i < extensions.length; i++) {
         var suffix = extensions[i];
         extensions[i] = sanitizeExtension(suffix);
+        suffixTrie.add("." + extensions[i], language);
       }
       extensionsByLanguage.put(language, extensions);
     }
@@ -61,18 +64,30 @@ public class LanguageDetection {
 
   @CheckForNull
   public Language language(InputFile inputFile) {
+    var filename = inputFile.filename();
+    // languages are reported in declaration order, like when checking them one after the other
     Language detectedLanguage = null;
-    for (Entry<Language, String[]> languagePatterns : extensionsByLanguage.entrySet()) {
-      if (isCandidateForLanguage(inputFile, languagePatterns.getValue())) {
-        if (detectedLanguage == null) {
-          detectedLanguage = languagePatterns.getKey();
-        } else {
-          // Language was already forced by another pattern
-          throw MessageException.of(MessageFormat.format("Language of file ''{0}'' can not be decided as the file extension matches both {1} and {2}",
-            inputFile.uri(), getDetails(detectedLanguage), getDetails(languagePatterns.getKey())));
+    Language conflictingLanguage = null;
+    var node = suffixTrie;
+    for (var i = filename.length() - 1; i >= 0; i--) {
+      node = node.child(Character.toLowerCase(filename.charAt(i)));
+      if (node == null) {
+        break;
+      }
+      for (Language language : node.languages) {
+        if (detectedLanguage == null || language.compareTo(detectedLanguage) < 0) {
+          conflictingLanguage = detectedLanguage;
+          detectedLanguage = language;
+        } else if (language != detectedLanguage && (conflictingLanguage == null || language.compareTo(conflictingLanguage) < 0)) {
+          conflictingLanguage = language;
         }
       }
     }
+    if (conflictingLanguage != null) {
+      // Language was already forced by another pattern
+      throw MessageException.of(MessageFormat.format("Language of file ''{0}'' can not be decided as the file extension matches both {1} and {2}",
+        inputFile.uri(), getDetails(detectedLanguage), getDetails(conflictingLanguage)));
+    }
     if (detectedLanguage != null) {
       LOG.debug("Language of file '{}' is detected to be '{}'", inputFile.uri(), detectedLanguage);
       return detectedLanguage;
@@ -80,15 +95,6 @@ public class LanguageDetection {
     return null;
   }
 
-  private static boolean isCandidateForLanguage(InputFile inputFile, String[] extensions) {
-    for (String extension : extensions) {
-      if (inputFile.filename().toLowerCase(Locale.ENGLISH).endsWith("." + extension)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
   private String getDetails(Language detectedLanguage) {
     return detectedLanguage + ": "
       + Arrays.stream(extensionsByLanguage.get(detectedLanguage))
@@ -98,4 +104,51 @@ public class LanguageDetection {
   static String sanitizeExtension(String suffix) {
     return StringUtils.lowerCase(StringUtils.removeStart(suffix, "."));
   }
+
+  /**
+   * Node of a trie of reversed suffixes. Nodes usually have a handful of children, so they are looked up linearly.
+   */
+  private static class SuffixNode {
+    private static final Language[] NO_LANGUAGES = new Language[0];
+
+    private char[] keys = new char[0];
+    private SuffixNode[] children = new SuffixNode[0];
+    /**
+     * Languages having the suffix leading from the root to this node
+     */
+    private Language[] languages = NO_LANGUAGES;
+
+    void add(String suffix, Language language) {
+      var node = this;
+      for (var i = suffix.length() - 1; i >= 0; i--) {
+        node = node.getOrCreateChild(suffix.charAt(i));
+      }
+      if (!Arrays.asList(node.languages).contains(language)) {
+        node.languages = Arrays.copyOf(node.languages, node.languages.length + 1);
+        node.languages[node.languages.length - 1] = language;
+      }
+    }
+
+    @CheckForNull
+    SuffixNode child(char key) {
+      for (var i = 0; i < keys.length; i++) {
+        if (keys[i] == key) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    private SuffixNode getOrCreateChild(char key) {
+      var child = child(key);
+      if (child == null) {
+        child = new SuffixNode();
+        keys = Arrays.copyOf(keys, keys.length + 1);
+        keys[keys.length - 1] = key;
+        children = Arrays.copyOf(children, children.length + 1);
+        children[children.length - 1] = child;
+      }
+      return child;
+    }
+  }
 }
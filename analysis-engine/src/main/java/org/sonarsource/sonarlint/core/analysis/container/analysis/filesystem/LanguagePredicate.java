@@ -19,6 +19,7 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
+import org.sonar.api.batch.fs.FileSystem.Index;
 import org.sonar.api.batch.fs.InputFile;
 
 /**
@@ -35,4 +36,17 @@ class LanguagePredicate extends AbstractFilePredicate {
   public boolean apply(InputFile f) {
     return language.equals(f.language());
   }
+
+  @Override
+  public Iterable<InputFile> get(Index index) {
+    if (index instanceof InputFileIndex) {
+      return ((InputFileIndex) index).getFilesByLanguage(language);
+    }
+    return super.get(index);
+  }
+
+  @Override
+  public int indexedSize(Index index) {
+    return index instanceof InputFileIndex ? ((InputFileIndex) index).getFilesByLanguage(language).size() : NOT_INDEXED;
+  }
 }
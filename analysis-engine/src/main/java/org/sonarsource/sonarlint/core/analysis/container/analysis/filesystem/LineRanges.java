@@ -0,0 +1,92 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable set of line ranges, stored as sorted and merged intervals to answer {@link #contains(int)} with a binary search.
+ */
+class LineRanges {
+
+  private final int[] starts;
+  private final int[] ends;
+
+  private LineRanges(int[] starts, int[] ends) {
+    this.starts = starts;
+    this.ends = ends;
+  }
+
+  /**
+   * @param ranges inclusive ranges, as arrays of 2 elements: the first and the last line
+   */
+  static LineRanges of(Collection<int[]> ranges) {
+    var sorted = ranges.stream()
+      .filter(r -> r[0] <= r[1])
+      .sorted(Comparator.<int[]>comparingInt(r -> r[0]).thenComparingInt(r -> r[1]))
+      .toArray(int[][]::new);
+    var starts = new int[sorted.length];
+    var ends = new int[sorted.length];
+    var count = 0;
+    for (int[] range : sorted) {
+      // merge overlapping and adjacent ranges
+      if (count > 0 && range[0] <= ends[count - 1] + 1L) {
+        ends[count - 1] = Math.max(ends[count - 1], range[1]);
+      } else {
+        starts[count] = range[0];
+        ends[count] = range[1];
+        count++;
+      }
+    }
+    return new LineRanges(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+  }
+
+  LineRanges union(Collection<int[]> ranges) {
+    var all = new ArrayList<>(toList());
+    all.addAll(ranges);
+    return of(all);
+  }
+
+  boolean contains(int line) {
+    var index = Arrays.binarySearch(starts, line);
+    if (index >= 0) {
+      return true;
+    }
+    // index of the last range starting before the line
+    var candidate = -index - 2;
+    return candidate >= 0 && line <= ends[candidate];
+  }
+
+  List<int[]> toList() {
+    var list = new ArrayList<int[]>(starts.length);
+    for (var i = 0; i < starts.length; i++) {
+      list.add(new int[] {starts[i], ends[i]});
+    }
+    return list;
+  }
+
+  int size() {
+    return starts.length;
+  }
+}
@@ -46,4 +46,13 @@ public interface OptimizedFilePredicate extends FilePredicate, Comparable<Optimi
    * {@link RelativePathPredicate} and AbsolutePathPredicate have a high priority since they are using cache index.
    */
   int priority();
+
+  /**
+   * For optimization. Upper bound of the number of files returned by {@link #get(FileSystem.Index)} when it is served by an index of the
+   * file system, or {@link #NOT_INDEXED} when it has to go through all files. When doing p.and(p1, p2, p3), files are first retrieved
+   * using the predicate with the smallest value, then filtered by the other ones.
+   */
+  int indexedSize(FileSystem.Index index);
+
+  int NOT_INDEXED = -1;
 }
@@ -21,7 +21,10 @@ package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem.Index;
 import org.sonar.api.batch.fs.InputFile;
 
 /**
@@ -63,6 +66,37 @@ class OrPredicate extends AbstractFilePredicate {
     return false;
   }
 
+  @Override
+  public Iterable<InputFile> get(Index index) {
+    if (!(index instanceof InputFileIndex) || indexedSize(index) == NOT_INDEXED) {
+      return super.get(index);
+    }
+    Set<InputFile> result = new HashSet<>();
+    for (FilePredicate predicate : predicates) {
+      ((OptimizedFilePredicate) predicate).get(index).forEach(result::add);
+    }
+    return ((InputFileIndex) index).sortInIndexOrder(result);
+  }
+
+  /**
+   * Sum of the sizes of the indexes serving each alternative, provided they are all served by an index
+   */
+  @Override
+  public int indexedSize(Index index) {
+    var size = 0;
+    for (FilePredicate predicate : predicates) {
+      if (!(predicate instanceof OptimizedFilePredicate)) {
+        return NOT_INDEXED;
+      }
+      var predicateSize = ((OptimizedFilePredicate) predicate).indexedSize(index);
+      if (predicateSize == NOT_INDEXED) {
+        return NOT_INDEXED;
+      }
+      size += predicateSize;
+    }
+    return size;
+  }
+
   Collection<FilePredicate> predicates() {
     return predicates;
   }
@@ -20,22 +20,22 @@
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
 import org.sonar.api.batch.fs.InputFile;
-import org.sonarsource.sonarlint.core.analysis.container.analysis.SonarLintPathPattern;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.SonarLintPathPatternSet;
 
 /**
  * @since 4.2
  */
 class PathPatternPredicate extends AbstractFilePredicate {
 
-  private final SonarLintPathPattern pattern;
+  private final SonarLintPathPatternSet patterns;
 
-  PathPatternPredicate(SonarLintPathPattern pattern) {
-    this.pattern = pattern;
+  PathPatternPredicate(SonarLintPathPatternSet patterns) {
+    this.patterns = patterns;
   }
 
   @Override
   public boolean apply(InputFile f) {
-    return pattern.match(f);
+    return patterns.matchAny(f);
   }
 
 }
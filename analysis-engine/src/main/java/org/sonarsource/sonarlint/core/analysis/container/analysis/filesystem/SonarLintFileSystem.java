@@ -39,7 +39,7 @@ public class SonarLintFileSystem implements FileSystem {
 
   private final DefaultFilePredicates filePredicates;
   private final Path baseDir;
-  private Charset encoding;
+  private volatile Charset encoding;
 
   private final InputFileIndex inputFileCache;
 
@@ -26,9 +26,8 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Function;
 import javax.annotation.CheckForNull;
@@ -50,8 +49,11 @@ public class SonarLintInputFile implements InputFile {
   private Metadata metadata;
   private final Function<SonarLintInputFile, Metadata> metadataGenerator;
   private boolean ignoreAllIssues;
-  private final Set<Integer> noSonarLines = new HashSet<>();
-  private Collection<int[]> ignoreIssuesOnlineRanges;
+  /**
+   * Allocated on first NOSONAR line, most of the files have none
+   */
+  private BitSet noSonarLines;
+  private LineRanges ignoreIssuesOnlineRanges;
 
   public SonarLintInputFile(ClientInputFile clientInputFile, Function<SonarLintInputFile, Metadata> metadataGenerator) {
     this.clientInputFile = clientInputFile;
@@ -59,7 +61,10 @@ public class SonarLintInputFile implements InputFile {
     this.relativePath = PathUtils.sanitize(clientInputFile.relativePath());
   }
 
-  public void checkMetadata() {
+  /**
+   * Synchronized since sensors of different languages may be executed concurrently and share some files.
+   */
+  public synchronized void checkMetadata() {
     if (metadata == null) {
       this.metadata = metadataGenerator.apply(this);
     }
@@ -247,12 +252,19 @@ public class SonarLintInputFile implements InputFile {
     return line < this.metadata.lines() ? (metadata.originalLineOffsets()[line] - 1) : metadata.lastValidOffset();
   }
 
-  public void noSonarAt(Set<Integer> noSonarLines) {
-    this.noSonarLines.addAll(noSonarLines);
+  public synchronized void noSonarAt(Set<Integer> noSonarLines) {
+    for (Integer line : noSonarLines) {
+      if (line != null && line >= 0) {
+        if (this.noSonarLines == null) {
+          this.noSonarLines = new BitSet();
+        }
+        this.noSonarLines.set(line);
+      }
+    }
   }
 
-  public boolean hasNoSonarAt(int line) {
-    return this.noSonarLines.contains(line);
+  public synchronized boolean hasNoSonarAt(int line) {
+    return noSonarLines != null && line >= 0 && noSonarLines.get(line);
   }
 
   public boolean isIgnoreAllIssues() {
@@ -264,11 +276,24 @@ public class SonarLintInputFile implements InputFile {
     this.ignoreAllIssues = ignoreAllIssues;
   }
 
+  /**
+   * Unlike {@link #isIgnoreAllIssues()}, doesn't trigger the computation of metadata
+   */
+  boolean ignoreAllIssuesFlag() {
+    return ignoreAllIssues;
+  }
+
+  @CheckForNull
+  Collection<int[]> ignoreIssuesOnLineRanges() {
+    return ignoreIssuesOnlineRanges != null ? ignoreIssuesOnlineRanges.toList() : null;
+  }
+
   public void addIgnoreIssuesOnLineRanges(Collection<int[]> lineRanges) {
     if (this.ignoreIssuesOnlineRanges == null) {
-      this.ignoreIssuesOnlineRanges = new ArrayList<>();
+      this.ignoreIssuesOnlineRanges = LineRanges.of(lineRanges);
+    } else {
+      this.ignoreIssuesOnlineRanges = ignoreIssuesOnlineRanges.union(lineRanges);
     }
-    this.ignoreIssuesOnlineRanges.addAll(lineRanges);
   }
 
   public boolean isIgnoreAllIssuesOnLine(@Nullable Integer line) {
@@ -276,7 +301,7 @@ public class SonarLintInputFile implements InputFile {
     if (line == null || ignoreIssuesOnlineRanges == null) {
       return false;
     }
-    return ignoreIssuesOnlineRanges.stream().anyMatch(r -> r[0] <= line && line <= r[1]);
+    return ignoreIssuesOnlineRanges.contains(line);
   }
 
 }
@@ -37,6 +37,11 @@ class TruePredicate extends AbstractFilePredicate {
     return index.inputFiles();
   }
 
+  @Override
+  public int indexedSize(Index index) {
+    return index instanceof InputFileIndex ? ((InputFileIndex) index).inputFiles().size() : NOT_INDEXED;
+  }
+
   @Override
   public Iterable<InputFile> filter(Iterable<InputFile> target) {
     return target;
@@ -19,6 +19,7 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
+import org.sonar.api.batch.fs.FileSystem.Index;
 import org.sonar.api.batch.fs.InputFile;
 
 /**
@@ -37,4 +38,16 @@ class TypePredicate extends AbstractFilePredicate {
     return type == f.type();
   }
 
+  @Override
+  public Iterable<InputFile> get(Index index) {
+    if (index instanceof InputFileIndex) {
+      return ((InputFileIndex) index).getFilesByType(type);
+    }
+    return super.get(index);
+  }
+
+  @Override
+  public int indexedSize(Index index) {
+    return index instanceof InputFileIndex ? ((InputFileIndex) index).getFilesByType(type).size() : NOT_INDEXED;
+  }
 }
@@ -20,6 +20,7 @@
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
 import java.net.URI;
+import org.sonar.api.batch.fs.FileSystem.Index;
 import org.sonar.api.batch.fs.InputFile;
 
 class URIPredicate extends AbstractFilePredicate {
@@ -34,4 +35,17 @@ class URIPredicate extends AbstractFilePredicate {
   public boolean apply(InputFile f) {
     return uri.equals(f.uri());
   }
+
+  @Override
+  public Iterable<InputFile> get(Index index) {
+    if (index instanceof InputFileIndex) {
+      return ((InputFileIndex) index).getFilesByUri(uri);
+    }
+    return super.get(index);
+  }
+
+  @Override
+  public int indexedSize(Index index) {
+    return index instanceof InputFileIndex ? ((InputFileIndex) index).getFilesByUri(uri).size() : NOT_INDEXED;
+  }
 }
@@ -19,35 +19,42 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.issue;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import javax.annotation.CheckForNull;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilter;
 import org.sonar.api.scan.issue.filter.IssueFilterChain;
 
+/**
+ * Chain passing issues to its filters one after the other. The links of the chain are built once and are immutable, so the same chain can
+ * be shared by all issues and threads of an analysis.
+ */
 public class DefaultIssueFilterChain implements IssueFilterChain {
-  private final List<IssueFilter> filters;
+  @CheckForNull
+  private final IssueFilter filter;
+  @CheckForNull
+  private final DefaultIssueFilterChain next;
 
   public DefaultIssueFilterChain(IssueFilter... filters) {
-    this.filters = Arrays.asList(filters);
+    this(filters, 0);
   }
 
   public DefaultIssueFilterChain() {
-    this.filters = Collections.emptyList();
+    this(new IssueFilter[0]);
   }
 
-  private DefaultIssueFilterChain(List<IssueFilter> filters) {
-    this.filters = filters;
+  private DefaultIssueFilterChain(IssueFilter[] filters, int position) {
+    if (position == filters.length) {
+      this.filter = null;
+      this.next = null;
+    } else {
+      this.filter = filters[position];
+      this.next = new DefaultIssueFilterChain(filters, position + 1);
+    }
   }
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    if (filters.isEmpty()) {
-      return true;
-    } else {
-      return filters.get(0).accept(issue, new DefaultIssueFilterChain(filters.subList(1, filters.size())));
-    }
+    return filter == null || filter.accept(issue, next);
   }
 
 }
@@ -20,9 +20,7 @@
 package org.sonarsource.sonarlint.core.analysis.container.analysis.issue;
 
 import org.sonar.api.batch.fs.InputComponent;
-import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilter;
-import org.sonar.api.scan.issue.filter.IssueFilterChain;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 import org.sonarsource.sonarlint.core.analysis.api.Issue;
 import org.sonarsource.sonarlint.core.analysis.sonarapi.DefaultFilterableIssue;
@@ -30,9 +28,11 @@ import org.sonarsource.sonarlint.core.analysis.sonarapi.DefaultFilterableIssue;
 @SonarLintSide
 public class IssueFilters {
   private final IssueFilter[] filters;
+  private final DefaultIssueFilterChain filterChain;
 
   public IssueFilters(IssueFilter[] exclusionFilters) {
     this.filters = exclusionFilters;
+    this.filterChain = new DefaultIssueFilterChain(filters);
   }
 
   public IssueFilters() {
@@ -40,9 +40,10 @@ public class IssueFilters {
   }
 
   public boolean accept(InputComponent inputComponent, Issue rawIssue) {
-    IssueFilterChain filterChain = new DefaultIssueFilterChain(filters);
-    FilterableIssue fIssue = new DefaultFilterableIssue(rawIssue, inputComponent);
-    return filterChain.accept(fIssue);
+    if (filters.length == 0) {
+      return true;
+    }
+    return filterChain.accept(new DefaultFilterableIssue(rawIssue, inputComponent));
   }
 
 }
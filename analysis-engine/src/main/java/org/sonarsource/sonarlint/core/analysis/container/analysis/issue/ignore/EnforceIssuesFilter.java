@@ -22,6 +22,9 @@ package org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilter;
@@ -36,7 +39,13 @@ public class EnforceIssuesFilter implements IssueFilter {
 
   private static final SonarLintLogger LOG = SonarLintLogger.get();
 
+  /**
+   * Decision for issues of rules not matched by any pattern
+   */
+  private static final Enforcement PASS_TO_CHAIN = new Enforcement(false, null);
+
   private final List<IssuePattern> multicriteriaPatterns;
+  private final Map<InputComponent, Map<String, Enforcement>> enforcementsByComponent = new ConcurrentHashMap<>();
 
   public EnforceIssuesFilter(IssueInclusionPatternInitializer patternInitializer) {
     this.multicriteriaPatterns = Collections.unmodifiableList(new ArrayList<>(patternInitializer.getMulticriteriaPatterns()));
@@ -44,31 +53,50 @@ public class EnforceIssuesFilter implements IssueFilter {
 
   @Override
   public boolean accept(FilterableIssue issue, IssueFilterChain chain) {
+    if (multicriteriaPatterns.isEmpty()) {
+      return chain.accept(issue);
+    }
+    var defaultIssue = (DefaultFilterableIssue) issue;
+    var component = defaultIssue.getComponent();
+    var enforcement = enforcementsByComponent.computeIfAbsent(component, c -> new ConcurrentHashMap<>())
+      .computeIfAbsent(defaultIssue.ruleKeyString(), ruleKey -> resolve(component, ruleKey));
+
+    if (enforcement == PASS_TO_CHAIN) {
+      return chain.accept(issue);
+    }
+    if (enforcement.accepted) {
+      LOG.debug("Issue {} enforced by pattern {}", issue, enforcement.matchingPattern);
+    }
+    return enforcement.accepted;
+  }
+
+  private Enforcement resolve(InputComponent component, String ruleKey) {
     var atLeastOneRuleMatched = false;
-    var atLeastOnePatternFullyMatched = false;
     IssuePattern matchingPattern = null;
 
     for (IssuePattern pattern : multicriteriaPatterns) {
-      if (pattern.matchRule(issue.ruleKey())) {
+      if (pattern.matchRule(ruleKey)) {
         atLeastOneRuleMatched = true;
-        var component = ((DefaultFilterableIssue) issue).getComponent();
-        if (component.isFile()) {
-          var file = (SonarLintInputFile) component;
-          if (pattern.matchFile(file.relativePath())) {
-            atLeastOnePatternFullyMatched = true;
-            matchingPattern = pattern;
-          }
+        if (component.isFile() && pattern.matchFile(((SonarLintInputFile) component).relativePath())) {
+          matchingPattern = pattern;
         }
       }
     }
 
-    if (atLeastOneRuleMatched) {
-      if (atLeastOnePatternFullyMatched) {
-        LOG.debug("Issue {} enforced by pattern {}", issue, matchingPattern);
-      }
-      return atLeastOnePatternFullyMatched;
-    } else {
-      return chain.accept(issue);
+    if (!atLeastOneRuleMatched) {
+      return PASS_TO_CHAIN;
+    }
+    return new Enforcement(matchingPattern != null, matchingPattern);
+  }
+
+  private static final class Enforcement {
+    private final boolean accepted;
+    @Nullable
+    private final IssuePattern matchingPattern;
+
+    private Enforcement(boolean accepted, @Nullable IssuePattern matchingPattern) {
+      this.accepted = accepted;
+      this.matchingPattern = matchingPattern;
     }
   }
 }
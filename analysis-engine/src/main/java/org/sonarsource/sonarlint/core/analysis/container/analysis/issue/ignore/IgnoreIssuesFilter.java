@@ -19,11 +19,11 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilter;
@@ -35,17 +35,18 @@ import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 
 public class IgnoreIssuesFilter implements IssueFilter {
 
-  private final Map<InputComponent, List<WildcardPattern>> rulePatternByComponent = new HashMap<>();
+  private final Map<InputComponent, RuleExclusions> ruleExclusionsByComponent = new ConcurrentHashMap<>();
 
   private static final SonarLintLogger LOG = SonarLintLogger.get();
 
   @Override
   public boolean accept(FilterableIssue issue, IssueFilterChain chain) {
-    var component = ((DefaultFilterableIssue) issue).getComponent();
+    var defaultIssue = (DefaultFilterableIssue) issue;
+    var component = defaultIssue.getComponent();
     if ((component.isFile() && ((SonarLintInputFile) component).isIgnoreAllIssues()) || (component.isFile() && ((SonarLintInputFile) component).isIgnoreAllIssuesOnLine(issue.line()))) {
       return false;
     }
-    if (hasRuleMatchFor(component, issue)) {
+    if (hasRuleMatchFor(component, defaultIssue)) {
       return false;
     }
     return chain.accept(issue);
@@ -55,18 +56,37 @@ public class IgnoreIssuesFilter implements IssueFilter {
     if ("*".equals(rulePattern.toString())) {
       inputFile.setIgnoreAllIssues(true);
     } else {
-      rulePatternByComponent.computeIfAbsent(inputFile, x -> new LinkedList<>()).add(rulePattern);
+      ruleExclusionsByComponent.computeIfAbsent(inputFile, x -> new RuleExclusions()).add(rulePattern);
     }
   }
 
-  private boolean hasRuleMatchFor(InputComponent component, FilterableIssue issue) {
-    for (WildcardPattern pattern : rulePatternByComponent.getOrDefault(component, Collections.emptyList())) {
-      if (pattern.match(issue.ruleKey().toString())) {
-        LOG.debug("Issue {} ignored by exclusion pattern {}", issue, pattern);
-        return true;
-      }
+  private boolean hasRuleMatchFor(InputComponent component, DefaultFilterableIssue issue) {
+    var ruleExclusions = ruleExclusionsByComponent.get(component);
+    if (ruleExclusions == null) {
+      return false;
+    }
+    var matchingPattern = ruleExclusions.matchingPattern(issue.ruleKeyString());
+    if (matchingPattern.isPresent()) {
+      LOG.debug("Issue {} ignored by exclusion pattern {}", issue, matchingPattern.get());
+      return true;
     }
     return false;
+  }
+
+  /**
+   * Rule exclusion patterns of a component, with the pattern matching each rule key once it has been resolved.
+   */
+  private static final class RuleExclusions {
+    private final List<WildcardPattern> patterns = new CopyOnWriteArrayList<>();
+    private final Map<String, Optional<WildcardPattern>> matchingPatternByRuleKey = new ConcurrentHashMap<>();
 
+    void add(WildcardPattern pattern) {
+      patterns.add(pattern);
+      matchingPatternByRuleKey.clear();
+    }
+
+    Optional<WildcardPattern> matchingPattern(String ruleKey) {
+      return matchingPatternByRuleKey.computeIfAbsent(ruleKey, k -> patterns.stream().filter(p -> p.match(k)).findFirst());
+    }
   }
 }
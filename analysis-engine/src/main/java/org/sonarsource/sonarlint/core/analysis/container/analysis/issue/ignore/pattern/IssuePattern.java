@@ -36,12 +36,20 @@ public class IssuePattern {
     this.rulePattern = WildcardPattern.create(rulePattern);
   }
 
+  public SonarLintPathPattern getPathPattern() {
+    return pathPattern;
+  }
+
   public WildcardPattern getRulePattern() {
     return rulePattern;
   }
 
   public boolean matchRule(RuleKey rule) {
-    return rulePattern.match(rule.toString());
+    return matchRule(rule.toString());
+  }
+
+  public boolean matchRule(String ruleKey) {
+    return rulePattern.match(ruleKey);
   }
 
   public boolean matchFile(@Nullable String filePath) {
@@ -21,8 +21,10 @@ package org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import org.apache.commons.lang3.StringUtils;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.SonarLintPathPatternSet;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata.CharHandler;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.SonarLintInputFile;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.IgnoreIssuesFilter;
@@ -34,39 +36,60 @@ public class IssueExclusionsLoader {
 
   private final List<java.util.regex.Pattern> allFilePatterns;
   private final List<DoubleRegexpMatcher> blockMatchers;
+  private final MultiPattern allFileMultiPattern;
+  private final MultiPattern blockStartMultiPattern;
   private final IgnoreIssuesFilter ignoreIssuesFilter;
-  private final IssueExclusionPatternInitializer patternsInitializer;
+  private final List<IssuePattern> multicriteriaPatterns;
+  private final SonarLintPathPatternSet multicriteriaPathPatterns;
   private final boolean enableCharHandler;
+  private final List<String> exclusionPatterns;
 
   public IssueExclusionsLoader(IssueExclusionPatternInitializer patternsInitializer, IgnoreIssuesFilter ignoreIssuesFilter) {
-    this.patternsInitializer = patternsInitializer;
+    this.multicriteriaPatterns = List.copyOf(patternsInitializer.getMulticriteriaPatterns());
+    this.multicriteriaPathPatterns = new SonarLintPathPatternSet(multicriteriaPatterns.stream().map(IssuePattern::getPathPattern).collect(Collectors.toList()));
     this.ignoreIssuesFilter = ignoreIssuesFilter;
     this.allFilePatterns = new ArrayList<>();
     this.blockMatchers = new ArrayList<>();
+    var patterns = new ArrayList<String>();
 
     for (String pattern : patternsInitializer.getAllFilePatterns()) {
       allFilePatterns.add(java.util.regex.Pattern.compile(pattern));
+      patterns.add(pattern);
     }
     for (BlockIssuePattern pattern : patternsInitializer.getBlockPatterns()) {
       blockMatchers.add(new DoubleRegexpMatcher(
         java.util.regex.Pattern.compile(pattern.getBeginBlockRegexp()),
         java.util.regex.Pattern.compile(pattern.getEndBlockRegexp())));
+      patterns.add(pattern.getBeginBlockRegexp());
+      patterns.add(pattern.getEndBlockRegexp());
     }
     enableCharHandler = !allFilePatterns.isEmpty() || !blockMatchers.isEmpty();
+    allFileMultiPattern = MultiPattern.compile(allFilePatterns);
+    blockStartMultiPattern = MultiPattern.compile(blockMatchers.stream().map(DoubleRegexpMatcher::firstPattern).collect(Collectors.toList()));
+    exclusionPatterns = List.copyOf(patterns);
+  }
+
+  /**
+   * Patterns applied by the handler returned by {@link #createCharHandlerFor(SonarLintInputFile)}. The outcome of the scanning of a
+   * file only depends on its content and on these patterns.
+   */
+  public List<String> exclusionPatterns() {
+    return exclusionPatterns;
   }
 
   public void addMulticriteriaPatterns(SonarLintInputFile inputFile) {
-    for (IssuePattern pattern : patternsInitializer.getMulticriteriaPatterns()) {
-      if (pattern.matchFile(inputFile.relativePath())) {
-        ignoreIssuesFilter.addRuleExclusionPatternForComponent(inputFile, pattern.getRulePattern());
-      }
+    if (multicriteriaPathPatterns.isEmpty()) {
+      return;
+    }
+    for (int index : multicriteriaPathPatterns.matchingIndexes(inputFile.relativePath())) {
+      ignoreIssuesFilter.addRuleExclusionPatternForComponent(inputFile, multicriteriaPatterns.get(index).getRulePattern());
     }
   }
 
   @CheckForNull
   public CharHandler createCharHandlerFor(SonarLintInputFile inputFile) {
     if (enableCharHandler) {
-      return new IssueExclusionsRegexpScanner(inputFile, allFilePatterns, blockMatchers);
+      return new IssueExclusionsRegexpScanner(inputFile, allFileMultiPattern, blockMatchers, blockStartMultiPattern);
     }
     return null;
   }
@@ -81,6 +104,14 @@ public class IssueExclusionsLoader {
       this.secondPattern = secondPattern;
     }
 
+    java.util.regex.Pattern firstPattern() {
+      return firstPattern;
+    }
+
+    java.util.regex.Pattern secondPattern() {
+      return secondPattern;
+    }
+
     boolean matchesFirstPattern(String line) {
       return firstPattern.matcher(line).find();
     }
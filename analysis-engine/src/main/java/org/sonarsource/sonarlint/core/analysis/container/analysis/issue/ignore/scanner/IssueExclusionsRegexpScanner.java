@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.SonarLintInputFile;
@@ -34,20 +35,38 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
   private static final SonarLintLogger LOG = SonarLintLogger.get();
 
   private final StringBuilder sb = new StringBuilder();
-  private final List<Pattern> allFilePatterns;
+  private final MultiPattern allFilePatterns;
   private final List<DoubleRegexpMatcher> blockMatchers;
+  private final MultiPattern.LineMatcher allFilePatternsMatcher;
+  private final MultiPattern.LineMatcher blockStartPatternsMatcher;
+  /**
+   * Only the end pattern of the block being excluded is evaluated on a line, one matcher per block is lazily created and reused
+   */
+  private final Matcher[] blockEndMatchers;
   private final SonarLintInputFile inputFile;
 
   private int lineIndex = 1;
   private List<LineExclusion> lineExclusions = new ArrayList<>();
   private LineExclusion currentLineExclusion = null;
   private int fileLength = 0;
-  private DoubleRegexpMatcher currentMatcher;
+  /**
+   * Index of the block matcher whose first pattern started the current exclusion, -1 when outside of an excluded block
+   */
+  private int currentMatcher = -1;
   private boolean ignoreAllIssues;
 
   IssueExclusionsRegexpScanner(SonarLintInputFile inputFile, List<Pattern> allFilePatterns, List<DoubleRegexpMatcher> blockMatchers) {
+    this(inputFile, MultiPattern.compile(allFilePatterns), blockMatchers,
+      MultiPattern.compile(blockMatchers.stream().map(DoubleRegexpMatcher::firstPattern).collect(Collectors.toList())));
+  }
+
+  IssueExclusionsRegexpScanner(SonarLintInputFile inputFile, MultiPattern allFilePatterns, List<DoubleRegexpMatcher> blockMatchers,
+    MultiPattern blockStartPatterns) {
     this.allFilePatterns = allFilePatterns;
     this.blockMatchers = blockMatchers;
+    this.allFilePatternsMatcher = allFilePatterns.matcher();
+    this.blockStartPatternsMatcher = blockStartPatterns.matcher();
+    this.blockEndMatchers = new Matcher[blockMatchers.size()];
     this.inputFile = inputFile;
     LOG.debug("Evaluate issue exclusions for '{}'", inputFile.relativePath());
   }
@@ -61,13 +80,22 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
     sb.append(c);
   }
 
+  @Override
+  public void handleChars(char[] buffer, int offset, int length) {
+    if (ignoreAllIssues) {
+      // Optimization
+      return;
+    }
+    sb.append(buffer, offset, length);
+  }
+
   @Override
   public void newLine() {
     if (ignoreAllIssues) {
       // Optimization
       return;
     }
-    processLine(sb.toString());
+    processLine(sb);
     sb.setLength(0);
     lineIndex++;
   }
@@ -78,9 +106,9 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
       // Optimization
       return;
     }
-    processLine(sb.toString());
+    processLine(sb);
 
-    if (currentMatcher != null && !currentMatcher.hasSecondPattern()) {
+    if (currentMatcher != -1 && !blockMatchers.get(currentMatcher).hasSecondPattern()) {
       // this will happen when there is a start block regexp but no end block regexp
       endExclusion(lineIndex + 1);
     }
@@ -94,26 +122,38 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
     }
   }
 
-  private void processLine(String line) {
-    if (line.trim().length() == 0) {
+  /**
+   * The line is matched in place, it is only valid until the next line starts
+   */
+  private void processLine(CharSequence line) {
+    if (isBlank(line)) {
       return;
     }
 
     // first check the single regexp patterns that can be used to totally exclude a file
-    for (Pattern pattern : allFilePatterns) {
-      if (pattern.matcher(line).find()) {
-        // nothing more to do on this file
-        LOG.debug("  - Exclusion pattern '{}': all issues in this file will be ignored.", pattern);
-        ignoreAllIssues = true;
-        inputFile.setIgnoreAllIssues(true);
-        return;
-      }
+    var allFilePatternIndex = allFilePatternsMatcher.firstFoundIn(line);
+    if (allFilePatternIndex != -1) {
+      // nothing more to do on this file
+      LOG.debug("  - Exclusion pattern '{}': all issues in this file will be ignored.", allFilePatterns.get(allFilePatternIndex));
+      ignoreAllIssues = true;
+      inputFile.setIgnoreAllIssues(true);
+      return;
     }
 
     // then check the double regexps if we're still here
     checkDoubleRegexps(line, lineIndex);
   }
 
+  private static boolean isBlank(CharSequence line) {
+    for (var i = 0; i < line.length(); i++) {
+      // same as String.trim()
+      if (line.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private Set<LineRange> convertLineExclusionsToLineRanges() {
     Set<LineRange> lineRanges = new HashSet<>(lineExclusions.size());
     for (LineExclusion lineExclusion : lineExclusions) {
@@ -122,21 +162,24 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
     return lineRanges;
   }
 
-  private void checkDoubleRegexps(String line, int lineIndex) {
-    if (currentMatcher == null) {
-      for (DoubleRegexpMatcher matcher : blockMatchers) {
-        if (matcher.matchesFirstPattern(line)) {
-          startExclusion(lineIndex);
-          currentMatcher = matcher;
-          break;
-        }
-      }
-    } else {
-      if (currentMatcher.matchesSecondPattern(line)) {
-        endExclusion(lineIndex);
-        currentMatcher = null;
+  private void checkDoubleRegexps(CharSequence line, int lineIndex) {
+    if (currentMatcher == -1) {
+      var blockIndex = blockStartPatternsMatcher.firstFoundIn(line);
+      if (blockIndex != -1) {
+        startExclusion(lineIndex);
+        currentMatcher = blockIndex;
       }
+    } else if (blockMatchers.get(currentMatcher).hasSecondPattern() && blockEndMatcher(currentMatcher).reset(line).find()) {
+      endExclusion(lineIndex);
+      currentMatcher = -1;
+    }
+  }
+
+  private Matcher blockEndMatcher(int index) {
+    if (blockEndMatchers[index] == null) {
+      blockEndMatchers[index] = blockMatchers.get(index).secondPattern().matcher("");
     }
+    return blockEndMatchers[index];
   }
 
   private void startExclusion(int lineIndex) {
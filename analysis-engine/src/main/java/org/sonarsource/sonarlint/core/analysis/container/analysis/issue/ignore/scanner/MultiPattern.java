@@ -0,0 +1,195 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.scanner;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Ordered list of patterns compiled once to tell, in a single pass over a line, which is the first one found in it.
+ * <ul>
+ *   <li>When all patterns are plain literals, the line is scanned once for the first characters of the literals, and no regular
+ *   expression is involved.</li>
+ *   <li>Otherwise the patterns are combined into one alternation, used to skip lines where none of them can be found. The patterns are
+ *   only evaluated one by one on the remaining lines, to respect their order.</li>
+ * </ul>
+ * Immutable, {@link #matcher()} has to be called to get a matcher for each scanned file.
+ */
+class MultiPattern {
+
+  private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+  private final List<Pattern> patterns;
+  @Nullable
+  private final String[] literals;
+  private final BitSet literalFirstChars = new BitSet();
+  @Nullable
+  private final Pattern combined;
+
+  private MultiPattern(List<Pattern> patterns) {
+    this.patterns = List.copyOf(patterns);
+    if (patterns.stream().allMatch(MultiPattern::isLiteral)) {
+      literals = patterns.stream().map(Pattern::pattern).toArray(String[]::new);
+      for (String literal : literals) {
+        literalFirstChars.set(literal.charAt(0));
+      }
+      combined = null;
+    } else {
+      literals = null;
+      combined = combine(patterns);
+    }
+  }
+
+  static MultiPattern compile(List<Pattern> patterns) {
+    return new MultiPattern(patterns);
+  }
+
+  Pattern get(int index) {
+    return patterns.get(index);
+  }
+
+  boolean isEmpty() {
+    return patterns.isEmpty();
+  }
+
+  LineMatcher matcher() {
+    return new LineMatcher();
+  }
+
+  private static boolean isLiteral(Pattern pattern) {
+    var regex = pattern.pattern();
+    if (pattern.flags() != 0 || regex.isEmpty()) {
+      return false;
+    }
+    for (var i = 0; i < regex.length(); i++) {
+      if (REGEX_METACHARACTERS.indexOf(regex.charAt(i)) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return null if the patterns can't be safely combined: flags would be lost, and numbered back references would refer to the groups
+   * of other patterns
+   */
+  @CheckForNull
+  private static Pattern combine(List<Pattern> patterns) {
+    if (patterns.size() < 2 || patterns.stream().anyMatch(p -> p.flags() != 0 || hasNumberedBackReference(p.pattern()))) {
+      return null;
+    }
+    try {
+      return Pattern.compile(patterns.stream().map(p -> "(?:" + p.pattern() + ")").collect(Collectors.joining("|")));
+    } catch (PatternSyntaxException e) {
+      // for example the same named group defined in several patterns
+      return null;
+    }
+  }
+
+  private static boolean hasNumberedBackReference(String regex) {
+    for (var i = 0; i < regex.length() - 1; i++) {
+      if (regex.charAt(i) == '\\') {
+        var next = regex.charAt(i + 1);
+        if (next >= '1' && next <= '9') {
+          return true;
+        }
+        // skip the escaped character
+        i++;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reuses the underlying regular expression matchers from one line to the other. Not thread safe.
+   */
+  class LineMatcher {
+    private final Matcher[] matchers = new Matcher[patterns.size()];
+    @Nullable
+    private final Matcher combinedMatcher = combined != null ? combined.matcher("") : null;
+
+    /**
+     * @return the index of the first pattern, in declaration order, that is found in the line, or -1 if none is found
+     */
+    int firstFoundIn(CharSequence line) {
+      if (patterns.isEmpty()) {
+        return -1;
+      }
+      if (literals != null) {
+        return firstLiteralFoundIn(line);
+      }
+      if (combinedMatcher != null && !combinedMatcher.reset(line).find()) {
+        return -1;
+      }
+      for (var i = 0; i < patterns.size(); i++) {
+        if (matcher(i).reset(line).find()) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private Matcher matcher(int index) {
+      if (matchers[index] == null) {
+        matchers[index] = patterns.get(index).matcher("");
+      }
+      return matchers[index];
+    }
+
+    private int firstLiteralFoundIn(CharSequence line) {
+      var first = -1;
+      for (var pos = 0; pos < line.length(); pos++) {
+        if (!literalFirstChars.get(line.charAt(pos))) {
+          continue;
+        }
+        // only literals declared before the one already found are worth checking
+        var candidates = first == -1 ? literals.length : first;
+        for (var i = 0; i < candidates; i++) {
+          if (regionMatches(line, pos, literals[i])) {
+            first = i;
+            break;
+          }
+        }
+        if (first == 0) {
+          return 0;
+        }
+      }
+      return first;
+    }
+
+    private boolean regionMatches(CharSequence line, int pos, String literal) {
+      if (pos + literal.length() > line.length()) {
+        return false;
+      }
+      for (var i = 0; i < literal.length(); i++) {
+        if (line.charAt(pos + i) != literal.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.sensor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.sonar.api.batch.sensor.code.NewSignificantCode;
+import org.sonar.api.batch.sensor.coverage.NewCoverage;
+import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
+import org.sonar.api.batch.sensor.error.AnalysisError;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
+import org.sonar.api.batch.sensor.internal.SensorStorage;
+import org.sonar.api.batch.sensor.issue.ExternalIssue;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.batch.sensor.measure.Measure;
+import org.sonar.api.batch.sensor.rule.AdHocRule;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+
+/**
+ * Storage given to a single sensor through its own sensor context. Counts the issues this sensor reported, whatever the thread saving
+ * them, and delegates everything to the storage of the analysis.
+ */
+class SensorIssueCountingStorage implements SensorStorage {
+
+  private final SensorStorage delegate;
+  private final AtomicInteger issueCount = new AtomicInteger();
+
+  SensorIssueCountingStorage(SensorStorage delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Issues that were not filtered out
+   */
+  int issueCount() {
+    return issueCount.get();
+  }
+
+  @Override
+  public void store(Issue issue) {
+    if (delegate instanceof SonarLintSensorStorage) {
+      if (((SonarLintSensorStorage) delegate).storeAndCheckReported(issue)) {
+        issueCount.incrementAndGet();
+      }
+    } else {
+      delegate.store(issue);
+      issueCount.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void store(Measure measure) {
+    delegate.store(measure);
+  }
+
+  @Override
+  public void store(ExternalIssue issue) {
+    delegate.store(issue);
+  }
+
+  @Override
+  public void store(AdHocRule adHocRule) {
+    delegate.store(adHocRule);
+  }
+
+  @Override
+  public void store(NewHighlighting highlighting) {
+    delegate.store(highlighting);
+  }
+
+  @Override
+  public void store(NewCoverage coverage) {
+    delegate.store(coverage);
+  }
+
+  @Override
+  public void store(NewCpdTokens cpdTokens) {
+    delegate.store(cpdTokens);
+  }
+
+  @Override
+  public void store(NewSymbolTable symbolTable) {
+    delegate.store(symbolTable);
+  }
+
+  @Override
+  public void store(AnalysisError analysisError) {
+    delegate.store(analysisError);
+  }
+
+  @Override
+  public void storeProperty(String key, String value) {
+    delegate.storeProperty(key, value);
+  }
+
+  @Override
+  public void store(NewSignificantCode significantCode) {
+    delegate.store(significantCode);
+  }
+}
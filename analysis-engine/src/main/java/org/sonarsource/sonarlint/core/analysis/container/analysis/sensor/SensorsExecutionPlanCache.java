@@ -0,0 +1,44 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.sensor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.sonar.api.batch.sensor.Sensor;
+
+/**
+ * Keeps the sensor execution order and descriptors computed by {@link SensorsExecutor} for a module. Sorting sensors relies on reflection
+ * over their class hierarchy, and the result only depends on the sensor classes, which don't change as long as plugins are not reloaded.
+ */
+public class SensorsExecutionPlanCache {
+
+  private final Map<List<Class<?>>, SensorsExecutor.ExecutionPlan> plansBySensorClasses = new ConcurrentHashMap<>();
+
+  SensorsExecutor.ExecutionPlan get(Sensor[] sensors, Function<Sensor[], SensorsExecutor.ExecutionPlan> planner) {
+    List<Class<?>> sensorClasses = new ArrayList<>(sensors.length);
+    for (Sensor sensor : sensors) {
+      sensorClasses.add(sensor.getClass());
+    }
+    return plansBySensorClasses.computeIfAbsent(sensorClasses, k -> planner.apply(sensors));
+  }
+}
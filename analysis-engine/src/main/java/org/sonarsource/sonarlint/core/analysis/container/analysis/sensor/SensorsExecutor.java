@@ -20,25 +20,33 @@
 package org.sonarsource.sonarlint.core.analysis.container.analysis.sensor;
 
 import java.lang.annotation.Annotation;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.sonar.api.batch.DependedUpon;
 import org.sonar.api.batch.DependsUpon;
 import org.sonar.api.batch.Phase;
 import org.sonar.api.batch.sensor.Sensor;
-import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.api.utils.dag.DirectAcyclicGraph;
+import org.sonar.api.utils.dag.Node;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.AnalysisThreadPool;
 import org.sonarsource.sonarlint.core.analysis.sonarapi.DefaultSensorContext;
 import org.sonarsource.sonarlint.core.analysis.sonarapi.DefaultSensorDescriptor;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
 
-import static java.util.Arrays.asList;
-
 /**
  * Execute Sensors.
  */
@@ -50,6 +58,9 @@ public class SensorsExecutor {
   private final ProgressMonitor progress;
   private final Sensor[] sensors;
   private final DefaultSensorContext context;
+  private final SensorsExecutionPlanCache executionPlanCache;
+  private final SensorsExecutionPool executionPool;
+  private final AnalysisResults analysisResults;
 
   // constructor used when no sensor is found
   public SensorsExecutor(DefaultSensorContext context, SensorOptimizer sensorOptimizer, ProgressMonitor progress) {
@@ -57,31 +68,179 @@ public class SensorsExecutor {
   }
 
   public SensorsExecutor(DefaultSensorContext context, SensorOptimizer sensorOptimizer, ProgressMonitor progress, Sensor[] sensors) {
+    this(context, sensorOptimizer, progress, new SensorsExecutionPlanCache(), new SensorsExecutionPool(1), new AnalysisResults(), sensors);
+  }
+
+  // constructor used when no sensor is found
+  public SensorsExecutor(DefaultSensorContext context, SensorOptimizer sensorOptimizer, ProgressMonitor progress, SensorsExecutionPlanCache executionPlanCache,
+    SensorsExecutionPool executionPool, AnalysisResults analysisResults) {
+    this(context, sensorOptimizer, progress, executionPlanCache, executionPool, analysisResults, new Sensor[0]);
+  }
+
+  public SensorsExecutor(DefaultSensorContext context, SensorOptimizer sensorOptimizer, ProgressMonitor progress, SensorsExecutionPlanCache executionPlanCache,
+    SensorsExecutionPool executionPool, AnalysisResults analysisResults, Sensor[] sensors) {
     this.context = context;
     this.sensors = sensors;
     this.sensorOptimizer = sensorOptimizer;
     this.progress = progress;
+    this.executionPlanCache = executionPlanCache;
+    this.executionPool = executionPool;
+    this.analysisResults = analysisResults;
   }
 
   public void execute() {
-    for (Sensor sensor : sort(asList(sensors))) {
+    var plan = executionPlanCache.get(sensors, SensorsExecutor::plan);
+    if (executionPool.isConcurrent() && plan.size() > 1) {
+      executeConcurrently(plan);
+      return;
+    }
+    for (var i = 0; i < plan.size(); i++) {
       progress.checkCancel();
-      var descriptor = new DefaultSensorDescriptor();
-      sensor.describe(descriptor);
+      var sensor = sensors[plan.sensorIndex(i)];
+      var descriptor = plan.descriptor(i);
+      if (sensorOptimizer.shouldExecute(descriptor)) {
+        executeSensor(sensor, descriptor);
+      }
+    }
+  }
+
+  /**
+   * Each sensor is started as soon as the sensors it depends on, directly or through phases, are done. Sensors skipped by the optimizer
+   * don't delay the others.
+   */
+  private void executeConcurrently(ExecutionPlan plan) {
+    var done = new CompletableFuture<?>[plan.size()];
+    for (var i = 0; i < plan.size(); i++) {
+      var predecessors = plan.predecessors(i);
+      var ready = predecessors.length == 0 ? CompletableFuture.completedFuture(null) : CompletableFuture.allOf(select(done, predecessors));
+      var sensor = sensors[plan.sensorIndex(i)];
+      var descriptor = plan.descriptor(i);
       if (sensorOptimizer.shouldExecute(descriptor)) {
-        executeSensor(context, sensor, descriptor);
+        done[i] = executionPool.submitAfter(ready, () -> {
+          progress.checkCancel();
+          executeSensor(sensor, descriptor);
+        });
+      } else {
+        done[i] = ready;
+      }
+    }
+    AnalysisThreadPool.join(CompletableFuture.allOf(done));
+  }
+
+  private static CompletableFuture<?>[] select(CompletableFuture<?>[] futures, int[] positions) {
+    var selected = new CompletableFuture<?>[positions.length];
+    for (var i = 0; i < positions.length; i++) {
+      selected[i] = futures[positions[i]];
+    }
+    return selected;
+  }
+
+  static ExecutionPlan plan(Sensor[] sensors) {
+    var dag = new DirectAcyclicGraph();
+    Map<Object, Node> nodesBySensor = new IdentityHashMap<>();
+    for (Sensor sensor : sensors) {
+      nodesBySensor.put(sensor, addToGraph(dag, sensor));
+    }
+    List<?> sortedNodes = dag.sort();
+    List<Sensor> sortedSensors = sortedNodes.stream()
+      .filter(nodesBySensor::containsKey)
+      .map(Sensor.class::cast)
+      .collect(Collectors.toList());
+    Map<Object, Integer> positionsBySensor = new IdentityHashMap<>();
+    for (var i = 0; i < sortedSensors.size(); i++) {
+      positionsBySensor.put(sortedSensors.get(i), i);
+    }
+    var sensorIndexes = new int[sortedSensors.size()];
+    var descriptors = new DefaultSensorDescriptor[sortedSensors.size()];
+    var predecessors = new int[sortedSensors.size()][];
+    for (var i = 0; i < sortedSensors.size(); i++) {
+      var sensor = sortedSensors.get(i);
+      sensorIndexes[i] = indexOf(sensors, sensor);
+      descriptors[i] = new DefaultSensorDescriptor();
+      sensor.describe(descriptors[i]);
+      predecessors[i] = predecessorPositions(nodesBySensor.get(sensor), positionsBySensor);
+    }
+    return new ExecutionPlan(sensorIndexes, descriptors, predecessors);
+  }
+
+  /**
+   * Positions of the sensors that must be executed before the one of the given node, ignoring the ones that are already implied by others
+   * being sensors themselves.
+   */
+  private static int[] predecessorPositions(Node sensorNode, Map<Object, Integer> positionsBySensor) {
+    Set<Integer> positions = new TreeSet<>();
+    Set<Node> visited = new HashSet<>();
+    Deque<Node> toVisit = new ArrayDeque<>(sensorNode.getDependencies());
+    while (!toVisit.isEmpty()) {
+      var node = toVisit.pop();
+      if (!visited.add(node)) {
+        continue;
+      }
+      var position = positionsBySensor.get(node.getObject());
+      if (position != null) {
+        positions.add(position);
+      } else {
+        toVisit.addAll(node.getDependencies());
+      }
+    }
+    return positions.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static int indexOf(Sensor[] sensors, Sensor sensor) {
+    for (var i = 0; i < sensors.length; i++) {
+      if (sensors[i] == sensor) {
+        return i;
       }
     }
+    throw new IllegalStateException("Unknown sensor " + describe(sensor));
+  }
+
+  /**
+   * Execution order of the sensors of an analysis, with their descriptors. Sensors are referenced by their index in the array injected in
+   * the executor, so that the plan can be reused by the following analyses, which get new instances of the same sensor classes.
+   */
+  static final class ExecutionPlan {
+    private final int[] sensorIndexes;
+    private final DefaultSensorDescriptor[] descriptors;
+    private final int[][] predecessors;
+
+    private ExecutionPlan(int[] sensorIndexes, DefaultSensorDescriptor[] descriptors, int[][] predecessors) {
+      this.sensorIndexes = sensorIndexes;
+      this.descriptors = descriptors;
+      this.predecessors = predecessors;
+    }
+
+    int size() {
+      return sensorIndexes.length;
+    }
+
+    int sensorIndex(int position) {
+      return sensorIndexes[position];
+    }
+
+    DefaultSensorDescriptor descriptor(int position) {
+      return descriptors[position];
+    }
+
+    /**
+     * Positions of the sensors that must be executed before the sensor at the given position
+     */
+    int[] predecessors(int position) {
+      return predecessors[position];
+    }
   }
 
-  private static void executeSensor(SensorContext context, Sensor sensor, DefaultSensorDescriptor descriptor) {
+  private void executeSensor(Sensor sensor, DefaultSensorDescriptor descriptor) {
     var sensorName = descriptor.name() != null ? descriptor.name() : describe(sensor);
     LOG.debug("Execute Sensor: {}", sensorName);
+    var start = System.nanoTime();
+    var storage = new SensorIssueCountingStorage(context.sensorStorage());
     try {
-      sensor.execute(context);
+      sensor.execute(context.withSensorStorage(storage));
     } catch (Throwable t) {
       LOG.error("Error executing sensor: '{}'", sensorName, t);
     }
+    analysisResults.timings().recordSensor(sensorName, Duration.ofNanos(System.nanoTime() - start), storage.issueCount());
   }
 
   static String describe(Object o) {
@@ -99,24 +258,16 @@ public class SensorsExecutor {
     return o.getClass().getName();
   }
 
-  private static <T> Collection<T> sort(Collection<T> extensions) {
-    var dag = new DirectAcyclicGraph();
-
-    for (T extension : extensions) {
-      dag.add(extension);
-      for (Object dependency : getDependencies(extension)) {
-        dag.add(extension, dependency);
-      }
-      for (Object generates : getDependents(extension)) {
-        dag.add(generates, extension);
-      }
-      completePhaseDependencies(dag, extension);
+  private static Node addToGraph(DirectAcyclicGraph dag, Object extension) {
+    var node = dag.add(extension);
+    for (Object dependency : getDependencies(extension)) {
+      dag.add(extension, dependency);
     }
-    List<?> sortedList = dag.sort();
-
-    return (Collection<T>) sortedList.stream()
-      .filter(extensions::contains)
-      .collect(Collectors.toList());
+    for (Object generates : getDependents(extension)) {
+      dag.add(generates, extension);
+    }
+    completePhaseDependencies(dag, extension);
+    return node;
   }
 
   /**
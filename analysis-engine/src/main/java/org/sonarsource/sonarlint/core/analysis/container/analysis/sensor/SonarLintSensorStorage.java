@@ -66,6 +66,22 @@ public class SonarLintSensorStorage implements SensorStorage {
 
   @Override
   public void store(Issue issue) {
+    storeAndCheckReported(issue);
+  }
+
+  /**
+   * @return true if the issue was handed to the issue listener, false if it was dropped or filtered out
+   */
+  boolean storeAndCheckReported(Issue issue) {
+    var start = System.nanoTime();
+    try {
+      return storeIssue(issue);
+    } finally {
+      analysisResult.timings().recordIssueStorage(System.nanoTime() - start);
+    }
+  }
+
+  private boolean storeIssue(Issue issue) {
     if (!(issue instanceof DefaultSonarLintIssue)) {
       throw new IllegalArgumentException("Trying to store a non-SonarLint issue?");
     }
@@ -74,7 +90,7 @@ public class SonarLintSensorStorage implements SensorStorage {
 
     var activeRule = (ActiveRuleAdapter) activeRules.find(sonarLintIssue.ruleKey());
     if ((activeRule == null) || noSonar(inputComponent, sonarLintIssue)) {
-      return;
+      return false;
     }
 
     var primaryMessage = sonarLintIssue.primaryLocation().message();
@@ -86,7 +102,9 @@ public class SonarLintSensorStorage implements SensorStorage {
       inputComponent.isFile() ? ((SonarLintInputFile) inputComponent).getClientInputFile() : null, flows, quickFixes);
     if (filters.accept(inputComponent, newIssue)) {
       issueListener.handle(newIssue);
+      return true;
     }
+    return false;
   }
 
   private static boolean noSonar(InputComponent inputComponent, Issue issue) {
@@ -19,7 +19,11 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.global;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.sonar.api.Plugin;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.AnnotationUtils;
@@ -43,6 +47,8 @@ public class AnalysisExtensionInstaller extends ExtensionInstaller {
 
   private final PluginInstancesRepository pluginRepository;
 
+  private final Map<ContainerLifespan, Map<String, List<Object>>> extensionsByLifespan = new ConcurrentHashMap<>();
+
   public AnalysisExtensionInstaller(SonarLintRuntime sonarRuntime, PluginInstancesRepository pluginRepository, Configuration bootConfiguration,
     AnalysisEngineConfiguration analysisEngineConfig) {
     super(sonarRuntime, bootConfiguration);
@@ -51,11 +57,28 @@ public class AnalysisExtensionInstaller extends ExtensionInstaller {
   }
 
   public AnalysisExtensionInstaller install(ComponentContainer container, ContainerLifespan lifespan) {
-    super.install(container, pluginRepository.getPluginInstancesByKeys(),
-      (pluginKey, extension) -> lifespan.equals(getSonarLintSideLifespan(extension)) && onlySonarSourceSensor(pluginKey, extension));
+    var extensionsByPluginKey = extensionsByLifespan.get(lifespan);
+    if (extensionsByPluginKey == null) {
+      var pluginInstancesByKey = pluginRepository.getPluginInstancesByKeys();
+      extensionsByPluginKey = loadExtensions(pluginInstancesByKey,
+        (pluginKey, extension) -> lifespan.equals(getSonarLintSideLifespan(extension)) && onlySonarSourceSensor(pluginKey, extension));
+      if (isReusable(pluginInstancesByKey, extensionsByPluginKey)) {
+        extensionsByLifespan.put(lifespan, extensionsByPluginKey);
+      }
+    }
+    install(container, extensionsByPluginKey);
     return this;
   }
 
+  /**
+   * Extensions declared as classes are instantiated by each container, so they can be installed again without asking plugins to define
+   * them. Extensions declared as instances would be shared between containers, and plugins that failed should be reported each time.
+   */
+  private static boolean isReusable(Map<String, Plugin> pluginInstancesByKey, Map<String, List<Object>> extensionsByPluginKey) {
+    return extensionsByPluginKey.size() == pluginInstancesByKey.size()
+      && extensionsByPluginKey.values().stream().flatMap(List::stream).allMatch(Class.class::isInstance);
+  }
+
   private static ContainerLifespan getSonarLintSideLifespan(Object extension) {
     var annotation = AnnotationUtils.getAnnotation(extension, SonarLintSide.class);
     if (annotation != null) {
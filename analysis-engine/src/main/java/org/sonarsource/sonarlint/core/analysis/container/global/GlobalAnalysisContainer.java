@@ -24,6 +24,8 @@ import org.sonar.api.SonarQubeVersion;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.UriReader;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisEngineConfiguration;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileIndexingPool;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.sensor.SensorsExecutionPool;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.core.plugin.commons.ApiVersions;
 import org.sonarsource.sonarlint.core.plugin.commons.PluginInstancesRepository;
@@ -54,6 +56,8 @@ public class GlobalAnalysisContainer extends ComponentContainer {
       GlobalSettings.class,
       new GlobalConfigurationProvider(),
       AnalysisExtensionInstaller.class,
+      SensorsExecutionPool.class,
+      FileIndexingPool.class,
       new SonarQubeVersion(sonarPluginApiVersion),
       new SonarLintRuntimeImpl(sonarPluginApiVersion, sonarlintPluginApiVersion, analysisGlobalConfig.getClientPid()),
 
@@ -68,7 +72,8 @@ public class GlobalAnalysisContainer extends ComponentContainer {
     declarePluginProperties();
     globalExtensionContainer = new GlobalExtensionContainer(this);
     globalExtensionContainer.startComponents();
-    this.moduleRegistry = new ModuleRegistry(globalExtensionContainer, analysisGlobalConfig.getModulesProvider());
+    this.moduleRegistry = new ModuleRegistry(globalExtensionContainer, analysisGlobalConfig.getModulesProvider(),
+      analysisGlobalConfig.getTransientModuleContainerPoolSize());
   }
 
   @Override
@@ -35,9 +35,15 @@ public class ModuleRegistry {
 
   private final ConcurrentHashMap<Object, ModuleContainer> moduleContainersByKey = new ConcurrentHashMap<>();
   private final ComponentContainer parent;
+  private final TransientModuleContainerPool transientContainerPool;
 
   public ModuleRegistry(ComponentContainer parent, @Nullable ClientModulesProvider modulesProvider) {
+    this(parent, modulesProvider, 0);
+  }
+
+  public ModuleRegistry(ComponentContainer parent, @Nullable ClientModulesProvider modulesProvider, int transientContainerPoolSize) {
     this.parent = parent;
+    this.transientContainerPool = new TransientModuleContainerPool(parent, transientContainerPoolSize);
     if (modulesProvider != null) {
       modulesProvider.getModules().forEach(this::registerModule);
     }
@@ -57,12 +63,15 @@ public class ModuleRegistry {
     return moduleContainer;
   }
 
+  /**
+   * The returned container must be given back with {@link #releaseTransientContainer(ModuleContainer, boolean)} after use
+   */
   public ModuleContainer createTransientContainer(Iterable<ClientInputFile> filesToAnalyze) {
-    LOG.debug("Creating transient module container");
-    var moduleContainer = new ModuleContainer(parent, true);
-    moduleContainer.add(new TransientModuleFileSystem(filesToAnalyze));
-    moduleContainer.startComponents();
-    return moduleContainer;
+    return transientContainerPool.acquire(filesToAnalyze);
+  }
+
+  public void releaseTransientContainer(ModuleContainer moduleContainer, boolean reusable) {
+    transientContainerPool.release(moduleContainer, reusable);
   }
 
   public void unregisterModule(Object moduleKey) {
@@ -75,6 +84,7 @@ public class ModuleRegistry {
   }
 
   public void stopAll() {
+    transientContainerPool.stopAll();
     moduleContainersByKey.values().forEach(ComponentContainer::stopComponents);
     moduleContainersByKey.clear();
   }
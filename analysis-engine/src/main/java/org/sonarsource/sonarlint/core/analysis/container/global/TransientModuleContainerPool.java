@@ -0,0 +1,186 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.global;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.analysis.container.module.ModuleContainer;
+import org.sonarsource.sonarlint.core.analysis.container.module.ModuleInputFileCache;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.core.plugin.commons.pico.ComponentContainer;
+
+/**
+ * Keep started transient module containers between analyses of files outside of any module, to save the cost of creating and
+ * starting them. Only the {@link TransientModuleFileSystem} and the input file cache of a container are reset when it is reused, so
+ * containers in which plugins installed module-lifespan components are never kept: these components could carry state from one
+ * analysis to an unrelated one. With such plugins, which include analyzers contributing module file listeners, the pool stays empty and
+ * each analysis still pays for the creation of its container.
+ * At most {@code maxIdleContainers} containers are kept, the most recently used first. Containers idle for longer than the idle
+ * timeout are stopped, by a background timer if no other container is acquired or released in the meantime.
+ */
+class TransientModuleContainerPool {
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+  private final ComponentContainer parent;
+  private final int maxIdleContainers;
+  private final long idleTimeoutNanos;
+  private final LongSupplier nanoClock;
+  private final Deque<IdleContainer> idleContainers = new ArrayDeque<>();
+  private final Map<ModuleContainer, TransientModuleFileSystem> fileSystemsByContainer = new IdentityHashMap<>();
+  private boolean stopped;
+  private ScheduledExecutorService evictionTimer;
+
+  TransientModuleContainerPool(ComponentContainer parent, int maxIdleContainers) {
+    this(parent, maxIdleContainers, DEFAULT_IDLE_TIMEOUT, System::nanoTime);
+  }
+
+  TransientModuleContainerPool(ComponentContainer parent, int maxIdleContainers, Duration idleTimeout, LongSupplier nanoClock) {
+    this.parent = parent;
+    this.maxIdleContainers = maxIdleContainers;
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  ModuleContainer acquire(Iterable<ClientInputFile> filesToAnalyze) {
+    IdleContainer idleContainer;
+    List<ModuleContainer> expired;
+    synchronized (this) {
+      expired = evictExpiredContainers();
+      idleContainer = idleContainers.pollFirst();
+    }
+    expired.forEach(ComponentContainer::stopComponents);
+    if (idleContainer != null) {
+      LOG.debug("Reusing transient module container");
+      idleContainer.fileSystem.setFiles(filesToAnalyze);
+      // no file event is received for the files of transient modules
+      idleContainer.container.getComponentByType(ModuleInputFileCache.class).clear();
+      return idleContainer.container;
+    }
+    LOG.debug("Creating transient module container");
+    var fileSystem = new TransientModuleFileSystem(filesToAnalyze);
+    var moduleContainer = new ModuleContainer(parent, true);
+    moduleContainer.add(fileSystem);
+    moduleContainer.startComponents();
+    synchronized (this) {
+      fileSystemsByContainer.put(moduleContainer, fileSystem);
+    }
+    return moduleContainer;
+  }
+
+  /**
+   * Give back a container obtained from {@link #acquire(Iterable)}. Containers used by a failed analysis are not reused.
+   */
+  void release(ModuleContainer moduleContainer, boolean reusable) {
+    List<ModuleContainer> toStop = new ArrayList<>();
+    synchronized (this) {
+      var fileSystem = fileSystemsByContainer.get(moduleContainer);
+      if (reusable && !stopped && fileSystem != null && maxIdleContainers > 0 && !moduleContainer.hasPluginComponents()) {
+        fileSystem.setFiles(List.of());
+        idleContainers.addFirst(new IdleContainer(moduleContainer, fileSystem, nanoClock.getAsLong()));
+        startEvictionTimer();
+        while (idleContainers.size() > maxIdleContainers) {
+          toStop.add(idleContainers.removeLast().container);
+        }
+      } else {
+        if (moduleContainer.hasPluginComponents()) {
+          LOG.debug("Not keeping transient module container with module-lifespan plugin components");
+        }
+        toStop.add(moduleContainer);
+      }
+      toStop.addAll(evictExpiredContainers());
+      toStop.forEach(fileSystemsByContainer::remove);
+    }
+    toStop.forEach(ComponentContainer::stopComponents);
+  }
+
+  private void startEvictionTimer() {
+    if (evictionTimer == null) {
+      evictionTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        var thread = new Thread(r, "sonarlint-transient-container-eviction");
+        thread.setDaemon(true);
+        return thread;
+      });
+      // containers are stopped at most half a timeout after they expired
+      var periodNanos = Math.max(1, idleTimeoutNanos / 2);
+      evictionTimer.scheduleWithFixedDelay(this::stopExpiredContainers, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  void stopExpiredContainers() {
+    List<ModuleContainer> expired;
+    synchronized (this) {
+      expired = evictExpiredContainers();
+    }
+    expired.forEach(ComponentContainer::stopComponents);
+  }
+
+  private List<ModuleContainer> evictExpiredContainers() {
+    List<ModuleContainer> expired = new ArrayList<>();
+    var now = nanoClock.getAsLong();
+    while (!idleContainers.isEmpty() && now - idleContainers.peekLast().releaseTime >= idleTimeoutNanos) {
+      var container = idleContainers.removeLast().container;
+      fileSystemsByContainer.remove(container);
+      expired.add(container);
+    }
+    return expired;
+  }
+
+  synchronized int idleCount() {
+    return idleContainers.size();
+  }
+
+  void stopAll() {
+    List<ModuleContainer> toStop;
+    synchronized (this) {
+      stopped = true;
+      if (evictionTimer != null) {
+        evictionTimer.shutdownNow();
+      }
+      toStop = new ArrayList<>();
+      idleContainers.forEach(c -> toStop.add(c.container));
+      idleContainers.clear();
+      toStop.forEach(fileSystemsByContainer::remove);
+    }
+    toStop.forEach(ComponentContainer::stopComponents);
+  }
+
+  private static class IdleContainer {
+    private final ModuleContainer container;
+    private final TransientModuleFileSystem fileSystem;
+    private final long releaseTime;
+
+    private IdleContainer(ModuleContainer container, TransientModuleFileSystem fileSystem, long releaseTime) {
+      this.container = container;
+      this.fileSystem = fileSystem;
+      this.releaseTime = releaseTime;
+    }
+  }
+}
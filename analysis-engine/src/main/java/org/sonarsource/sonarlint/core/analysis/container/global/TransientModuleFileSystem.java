@@ -27,12 +27,19 @@ import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileSystem;
 
 class TransientModuleFileSystem implements ClientModuleFileSystem {
 
-  private final Iterable<ClientInputFile> filesToAnalyze;
+  private volatile Iterable<ClientInputFile> filesToAnalyze;
 
   TransientModuleFileSystem(Iterable<ClientInputFile> filesToAnalyze) {
     this.filesToAnalyze = filesToAnalyze;
   }
 
+  /**
+   * Reset the file system when the transient module container is reused for another analysis
+   */
+  void setFiles(Iterable<ClientInputFile> filesToAnalyze) {
+    this.filesToAnalyze = filesToAnalyze;
+  }
+
   @Override
   public Stream<ClientInputFile> files(String suffix, InputFile.Type type) {
     return files()
@@ -28,17 +28,26 @@ import org.sonarsource.sonarlint.core.analysis.container.ContainerLifespan;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.AnalysisContainer;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.IssueListenerHolder;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadataCache;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.LanguageDetection;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.sensor.SensorsExecutionPlanCache;
 import org.sonarsource.sonarlint.core.analysis.container.global.AnalysisExtensionInstaller;
 import org.sonarsource.sonarlint.core.analysis.sonarapi.ActiveRuleAdapter;
 import org.sonarsource.sonarlint.core.analysis.sonarapi.ActiveRulesAdapter;
 import org.sonarsource.sonarlint.core.analysis.sonarapi.SonarLintModuleFileSystem;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
 import org.sonarsource.sonarlint.core.plugin.commons.pico.ComponentContainer;
+import org.sonarsource.sonarlint.core.plugin.commons.pico.ConstructorCache;
 
 public class ModuleContainer extends ComponentContainer {
 
   private final boolean isTransient;
+  /**
+   * Analysis containers of a module are all built from the same components, so the constructors chosen for the first one are valid for the
+   * following ones.
+   */
+  private final ConstructorCache analysisConstructorCache = new ConstructorCache();
+  private boolean hasPluginComponents;
 
   public ModuleContainer(ComponentContainer parent, boolean isTransient) {
     super(parent);
@@ -50,11 +59,23 @@ public class ModuleContainer extends ComponentContainer {
     add(
       SonarLintModuleFileSystem.class,
       ModuleInputFileBuilder.class,
+      ModuleInputFileCache.class,
       FileMetadata.class,
+      FileMetadataCache.class,
       LanguageDetection.class,
+      SensorsExecutionPlanCache.class,
 
       ModuleFileEventNotifier.class);
+    var componentCount = getPicoContainer().getComponentAdapters().size();
     getComponentByType(AnalysisExtensionInstaller.class).install(this, ContainerLifespan.MODULE);
+    hasPluginComponents = getPicoContainer().getComponentAdapters().size() > componentCount;
+  }
+
+  /**
+   * Whether plugins installed components living as long as this container. Such components can keep state from one analysis to the next.
+   */
+  public boolean hasPluginComponents() {
+    return hasPluginComponents;
   }
 
   public boolean isTransient() {
@@ -62,7 +83,7 @@ public class ModuleContainer extends ComponentContainer {
   }
 
   public AnalysisResults analyze(AnalysisConfiguration configuration, Consumer<Issue> issueListener, ProgressMonitor progress) {
-    var analysisContainer = new AnalysisContainer(this, progress);
+    var analysisContainer = new AnalysisContainer(this, analysisConstructorCache, progress);
     analysisContainer.add(configuration);
     analysisContainer.add(new IssueListenerHolder(issueListener));
     analysisContainer.add(new ActiveRulesAdapter(configuration.activeRules().stream().map(ActiveRuleAdapter::new).collect(Collectors.toList())));
@@ -0,0 +1,81 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.module;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileEvent;
+import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent;
+
+/**
+ * Ordered batch of file events, keeping at most one event per file. Successive events on the same file are collapsed into the event
+ * describing the overall change:
+ * <ul>
+ *   <li>created then modified: created</li>
+ *   <li>created then deleted: no event</li>
+ *   <li>deleted then created: modified</li>
+ *   <li>modified then deleted: deleted</li>
+ * </ul>
+ * The target of the collapsed event is the one of the latest event. Not thread safe.
+ */
+public class ModuleFileEventBatch {
+  private final Map<URI, ClientModuleFileEvent> eventsByUri = new LinkedHashMap<>();
+
+  public void add(ClientModuleFileEvent event) {
+    var uri = event.target().uri();
+    var previous = eventsByUri.get(uri);
+    if (previous == null) {
+      eventsByUri.put(uri, event);
+      return;
+    }
+    var collapsedType = collapse(previous.type(), event.type());
+    if (collapsedType == null) {
+      eventsByUri.remove(uri);
+    } else {
+      eventsByUri.put(uri, ClientModuleFileEvent.of(event.target(), collapsedType));
+    }
+  }
+
+  public void addAll(ModuleFileEventBatch other) {
+    other.eventsByUri.values().forEach(this::add);
+  }
+
+  private static ModuleFileEvent.Type collapse(ModuleFileEvent.Type previous, ModuleFileEvent.Type next) {
+    switch (previous) {
+      case CREATED:
+        return next == ModuleFileEvent.Type.DELETED ? null : ModuleFileEvent.Type.CREATED;
+      case DELETED:
+        return next == ModuleFileEvent.Type.DELETED ? ModuleFileEvent.Type.DELETED : ModuleFileEvent.Type.MODIFIED;
+      default:
+        return next == ModuleFileEvent.Type.DELETED ? ModuleFileEvent.Type.DELETED : ModuleFileEvent.Type.MODIFIED;
+    }
+  }
+
+  public List<ClientModuleFileEvent> events() {
+    return new ArrayList<>(eventsByUri.values());
+  }
+
+  public int size() {
+    return eventsByUri.size();
+  }
+}
@@ -22,6 +22,7 @@ package org.sonarsource.sonarlint.core.analysis.container.module;
 import java.util.Arrays;
 import java.util.List;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileEvent;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadataCache;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent;
 import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileListener;
@@ -31,19 +32,40 @@ public class ModuleFileEventNotifier {
 
   private final List<ModuleFileListener> listeners;
   private final ModuleInputFileBuilder inputFileBuilder;
+  private final FileMetadataCache metadataCache;
+  private final ModuleInputFileCache inputFileCache;
 
-  public ModuleFileEventNotifier(ModuleInputFileBuilder inputFileBuilder) {
-    this(new ModuleFileListener[0], inputFileBuilder);
+  public ModuleFileEventNotifier(ModuleInputFileBuilder inputFileBuilder, FileMetadataCache metadataCache, ModuleInputFileCache inputFileCache) {
+    this(new ModuleFileListener[0], inputFileBuilder, metadataCache, inputFileCache);
   }
 
-  public ModuleFileEventNotifier(ModuleFileListener[] listeners, ModuleInputFileBuilder inputFileBuilder) {
+  public ModuleFileEventNotifier(ModuleFileListener[] listeners, ModuleInputFileBuilder inputFileBuilder, FileMetadataCache metadataCache,
+    ModuleInputFileCache inputFileCache) {
     this.listeners = Arrays.asList(listeners);
     this.inputFileBuilder = inputFileBuilder;
+    this.metadataCache = metadataCache;
+    this.inputFileCache = inputFileCache;
   }
 
   public void fireModuleFileEvent(ClientModuleFileEvent event) {
-    ModuleFileEvent apiEvent = DefaultModuleFileEvent.of(inputFileBuilder.create(event.target()), event.type());
-    listeners.forEach(l -> tryFireModuleFileEvent(l, apiEvent));
+    fireModuleFileEvents(List.of(event));
+  }
+
+  /**
+   * Cached input files and metadata of the target files are dropped first. Events are delivered in order, each one to all listeners before moving to the next one
+   */
+  public void fireModuleFileEvents(List<ClientModuleFileEvent> events) {
+    events.forEach(e -> {
+      metadataCache.invalidate(e.target().uri());
+      inputFileCache.invalidate(e.target().uri());
+    });
+    if (listeners.isEmpty()) {
+      return;
+    }
+    for (ClientModuleFileEvent event : events) {
+      ModuleFileEvent apiEvent = DefaultModuleFileEvent.of(inputFileBuilder.create(event.target()), event.type());
+      listeners.forEach(l -> tryFireModuleFileEvent(l, apiEvent));
+    }
   }
 
   private static void tryFireModuleFileEvent(ModuleFileListener listener, ModuleFileEvent event) {
@@ -0,0 +1,110 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.module;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.SonarLintInputFile;
+
+/**
+ * Input files of the module file system, kept between queries of the plugins so that the language detection and the lazily computed
+ * metadata are reused. An entry is dropped when a file event is received for its URI, and is only reused for a {@link ClientInputFile}
+ * describing the same content: unsaved editor changes do not raise file events, so files not on the filesystem are only reused for the
+ * same instance or the same content version. The least recently used entries are evicted once the cache holds too many files.
+ */
+public class ModuleInputFileCache {
+
+  static final int DEFAULT_MAX_SIZE = 10_000;
+
+  private final ModuleInputFileBuilder inputFileBuilder;
+  private final Map<URI, CachedInputFile> inputFilesByUri;
+
+  public ModuleInputFileCache(ModuleInputFileBuilder inputFileBuilder) {
+    this(inputFileBuilder, DEFAULT_MAX_SIZE);
+  }
+
+  ModuleInputFileCache(ModuleInputFileBuilder inputFileBuilder, int maxSize) {
+    this.inputFileBuilder = inputFileBuilder;
+    this.inputFilesByUri = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<URI, CachedInputFile> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  public SonarLintInputFile getOrCreate(ClientInputFile clientInputFile) {
+    var uri = clientInputFile.uri();
+    var version = clientInputFile.contentVersion();
+    synchronized (this) {
+      var cached = inputFilesByUri.get(uri);
+      if (cached != null && cached.canBeReusedFor(clientInputFile, version)) {
+        return cached.inputFile;
+      }
+    }
+    var inputFile = inputFileBuilder.create(clientInputFile);
+    synchronized (this) {
+      inputFilesByUri.put(uri, new CachedInputFile(inputFile, version));
+    }
+    return inputFile;
+  }
+
+  public synchronized void invalidate(URI uri) {
+    inputFilesByUri.remove(uri);
+  }
+
+  public synchronized void clear() {
+    inputFilesByUri.clear();
+  }
+
+  synchronized int size() {
+    return inputFilesByUri.size();
+  }
+
+  private static class CachedInputFile {
+    private final SonarLintInputFile inputFile;
+    @Nullable
+    private final String version;
+
+    CachedInputFile(SonarLintInputFile inputFile, @Nullable String version) {
+      this.inputFile = inputFile;
+      this.version = version;
+    }
+
+    boolean canBeReusedFor(ClientInputFile clientInputFile, @Nullable String clientVersion) {
+      var cached = inputFile.getClientInputFile();
+      return hasSameContent(cached, clientInputFile, clientVersion)
+        && cached.isTest() == clientInputFile.isTest()
+        && Objects.equals(cached.getCharset(), clientInputFile.getCharset())
+        && cached.language() == clientInputFile.language();
+    }
+
+    private boolean hasSameContent(ClientInputFile cached, ClientInputFile clientInputFile, @Nullable String clientVersion) {
+      if (version != null || clientVersion != null) {
+        return Objects.equals(version, clientVersion);
+      }
+      return cached == clientInputFile || (cached.isOnFileSystem() && clientInputFile.isOnFileSystem());
+    }
+  }
+}
@@ -32,12 +32,20 @@ import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.Def
 public class DefaultFilterableIssue implements FilterableIssue {
   private final Issue rawIssue;
   private final InputComponent component;
+  private RuleKey ruleKey;
 
   public DefaultFilterableIssue(Issue rawIssue, InputComponent component) {
     this.rawIssue = rawIssue;
     this.component = component;
   }
 
+  /**
+   * Rule key in its string form, to match patterns without parsing and formatting it again
+   */
+  public String ruleKeyString() {
+    return rawIssue.getRuleKey();
+  }
+
   @Override
   public String componentKey() {
     return component.key();
@@ -45,7 +53,10 @@ public class DefaultFilterableIssue implements FilterableIssue {
 
   @Override
   public RuleKey ruleKey() {
-    return RuleKey.parse(rawIssue.getRuleKey());
+    if (ruleKey == null) {
+      ruleKey = RuleKey.parse(rawIssue.getRuleKey());
+    }
+    return ruleKey;
   }
 
   @Override
@@ -81,6 +81,18 @@ public class DefaultSensorContext implements SensorContext {
     this.progress = progress;
   }
 
+  /**
+   * Context identical to this one, except that issues and other data are stored in the given storage. Each sensor is executed with its own
+   * context, so that what it reports can be attributed to it.
+   */
+  public DefaultSensorContext withSensorStorage(SensorStorage sensorStorage) {
+    return new DefaultSensorContext(project, settings, config, fs, activeRules, sensorStorage, sqRuntime, progress);
+  }
+
+  public SensorStorage sensorStorage() {
+    return sensorStorage;
+  }
+
   @Override
   public Settings settings() {
     return settings;
@@ -22,28 +22,28 @@ package org.sonarsource.sonarlint.core.analysis.sonarapi;
 import java.util.stream.Stream;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileSystem;
-import org.sonarsource.sonarlint.core.analysis.container.module.ModuleInputFileBuilder;
+import org.sonarsource.sonarlint.core.analysis.container.module.ModuleInputFileCache;
 import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileSystem;
 
 public class SonarLintModuleFileSystem implements ModuleFileSystem {
 
   private final ClientModuleFileSystem clientFileSystem;
-  private final ModuleInputFileBuilder inputFileBuilder;
+  private final ModuleInputFileCache inputFileCache;
 
-  public SonarLintModuleFileSystem(ClientModuleFileSystem clientFileSystem, ModuleInputFileBuilder inputFileBuilder) {
+  public SonarLintModuleFileSystem(ClientModuleFileSystem clientFileSystem, ModuleInputFileCache inputFileCache) {
     this.clientFileSystem = clientFileSystem;
-    this.inputFileBuilder = inputFileBuilder;
+    this.inputFileCache = inputFileCache;
   }
 
   @Override
   public Stream<InputFile> files(String suffix, InputFile.Type type) {
     return clientFileSystem.files(suffix, type)
-      .map(inputFileBuilder::create);
+      .map(inputFileCache::getOrCreate);
   }
 
   @Override
   public Stream<InputFile> files() {
     return clientFileSystem.files()
-      .map(inputFileBuilder::create);
+      .map(inputFileCache::getOrCreate);
   }
 }
@@ -0,0 +1,376 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.analysis.AnalysisEngine.AsyncCommand;
+import org.sonarsource.sonarlint.core.analysis.api.ActiveRule;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisConfiguration;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
+import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileEvent;
+import org.sonarsource.sonarlint.core.analysis.command.AnalyzeCommand;
+import org.sonarsource.sonarlint.core.analysis.command.Command;
+import org.sonarsource.sonarlint.core.analysis.command.CommandPriority;
+import org.sonarsource.sonarlint.core.analysis.command.CommandSupersededException;
+import org.sonarsource.sonarlint.core.analysis.command.NotifyModuleEventCommand;
+import org.sonarsource.sonarlint.core.analysis.container.global.ModuleRegistry;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
+import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent;
+import testutils.InMemoryTestClientInputFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AnalysisQueueTests {
+
+  private final AtomicLong now = new AtomicLong();
+  private final AnalysisQueue queue = new AnalysisQueue(null, Duration.ZERO, Duration.ofSeconds(5), now::get);
+  private final AnalysisQueue coalescingQueue = new AnalysisQueue(Duration.ofMillis(500), Duration.ZERO, Duration.ofSeconds(5), now::get);
+  private final AnalysisQueue batchingQueue = new AnalysisQueue(null, Duration.ofMillis(200), Duration.ofSeconds(5), now::get);
+
+  @Test
+  void should_hand_out_commands_of_same_priority_in_posting_order() throws InterruptedException {
+    var first = post("module1", CommandPriority.BACKGROUND);
+    var second = post("module2", CommandPriority.BACKGROUND);
+
+    assertThat(queue.takeNextCommand()).isSameAs(first);
+    assertThat(queue.takeNextCommand()).isSameAs(second);
+  }
+
+  @Test
+  void should_hand_out_interactive_commands_before_background_ones() throws InterruptedException {
+    var background = post("module1", CommandPriority.BACKGROUND);
+    var maintenance = post("module2", CommandPriority.MAINTENANCE);
+    var interactive = post("module3", CommandPriority.INTERACTIVE);
+
+    assertThat(queue.takeNextCommand()).isSameAs(interactive);
+    assertThat(queue.takeNextCommand()).isSameAs(background);
+    assertThat(queue.takeNextCommand()).isSameAs(maintenance);
+  }
+
+  @Test
+  void should_let_interactive_command_overtake_background_command_of_the_same_module() throws InterruptedException {
+    var background = post("module", CommandPriority.BACKGROUND);
+    var interactive = post("module", CommandPriority.INTERACTIVE);
+
+    assertThat(queue.takeNextCommand()).isSameAs(interactive);
+    queue.done(interactive);
+    assertThat(queue.takeNextCommand()).isSameAs(background);
+  }
+
+  @Test
+  void should_not_reorder_commands_of_the_same_module_across_maintenance_commands() throws InterruptedException {
+    var otherModule = post("other", CommandPriority.BACKGROUND);
+    var register = post("module", CommandPriority.MAINTENANCE);
+    var interactive = post("module", CommandPriority.INTERACTIVE);
+
+    // the registration inherits the priority of the analysis waiting for it
+    assertThat(queue.takeNextCommand()).isSameAs(register);
+    assertThat(queue.takeNextCommand()).isSameAs(otherModule);
+    queue.done(register);
+    assertThat(queue.takeNextCommand()).isSameAs(interactive);
+  }
+
+  @Test
+  void should_not_hand_out_command_of_a_busy_module() throws InterruptedException {
+    var first = post("module", CommandPriority.INTERACTIVE);
+    post("module", CommandPriority.INTERACTIVE);
+    var otherModule = post("other", CommandPriority.BACKGROUND);
+    var noModule = post(null, CommandPriority.BACKGROUND);
+
+    assertThat(queue.takeNextCommand()).isSameAs(first);
+    assertThat(queue.takeNextCommand()).isSameAs(otherModule);
+    assertThat(queue.takeNextCommand()).isSameAs(noModule);
+  }
+
+  @Test
+  void should_promote_starving_commands() throws InterruptedException {
+    var background = post("module1", CommandPriority.BACKGROUND);
+    now.addAndGet(Duration.ofSeconds(6).toNanos());
+    var interactive = post("module2", CommandPriority.INTERACTIVE);
+
+    assertThat(queue.takeNextCommand()).isSameAs(background);
+    assertThat(queue.takeNextCommand()).isSameAs(interactive);
+  }
+
+  @Test
+  void should_return_null_when_closed_and_empty() throws InterruptedException {
+    var command = post(null, CommandPriority.BACKGROUND);
+    queue.close();
+
+    assertThat(queue.takeNextCommand()).isSameAs(command);
+    assertThat(queue.takeNextCommand()).isNull();
+  }
+
+  @Test
+  void should_record_wait_time_per_priority() throws InterruptedException {
+    post("module1", CommandPriority.BACKGROUND);
+    post("module2", CommandPriority.INTERACTIVE);
+    now.addAndGet(Duration.ofMillis(100).toNanos());
+    queue.takeNextCommand();
+    now.addAndGet(Duration.ofMillis(200).toNanos());
+    queue.takeNextCommand();
+
+    var statistics = queue.getWaitStatistics();
+    assertThat(statistics.get(CommandPriority.INTERACTIVE).getCommandCount()).isEqualTo(1);
+    assertThat(statistics.get(CommandPriority.INTERACTIVE).getMaxWait()).isEqualTo(Duration.ofMillis(100));
+    assertThat(statistics.get(CommandPriority.BACKGROUND).getCommandCount()).isEqualTo(1);
+    assertThat(statistics.get(CommandPriority.BACKGROUND).getAverageWait()).isEqualTo(Duration.ofMillis(300));
+    assertThat(statistics.get(CommandPriority.MAINTENANCE).getCommandCount()).isZero();
+  }
+
+  @Test
+  void should_supersede_queued_analysis_of_the_same_files() throws InterruptedException {
+    var first = postAnalysis("module", "A.py", "B.py");
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    var second = postAnalysis("module", "A.py", "B.py");
+
+    assertThat(first.getFuture()).isCompletedExceptionally().isCancelled();
+    assertThatThrownBy(() -> first.getFuture().get()).isInstanceOf(CommandSupersededException.class);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(second);
+  }
+
+  @Test
+  void should_not_supersede_analysis_of_other_files_or_modules() throws InterruptedException {
+    var first = postAnalysis("module", "A.py", "B.py");
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    var otherFiles = postAnalysis("module", "A.py");
+    var otherModule = postAnalysis("other", "A.py", "B.py");
+
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(first);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(otherModule);
+    coalescingQueue.done(first);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(otherFiles);
+  }
+
+  @Test
+  void should_cancel_running_analysis_of_the_same_files() throws InterruptedException {
+    var running = postAnalysis("module", "A.py");
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(running);
+
+    postAnalysis("module", "A.py");
+
+    assertThat(running.getProgressMonitor().isCanceled()).isTrue();
+    assertThat(running.getFuture()).isCancelled();
+  }
+
+  @Test
+  void should_merge_analyses_of_the_same_module_posted_within_the_window() throws InterruptedException {
+    var first = postAnalysis("module", "A.py");
+    now.addAndGet(Duration.ofMillis(100).toNanos());
+    var second = postAnalysis("module", "B.py");
+
+    var merged = coalescingQueue.takeNextCommand();
+    assertThat(merged).isNotSameAs(first).isNotSameAs(second);
+    assertThat(((AnalyzeCommand) merged.getCommand()).fileUris()).containsOnly(URI.create("file://A.py"), URI.create("file://B.py"));
+    assertThat(coalescingQueue.getExecutingCommands()).containsOnly(merged);
+
+    var results = new AnalysisResults();
+    var fileA = new InMemoryTestClientInputFile("", "A.py", null, false, null);
+    var fileB = new InMemoryTestClientInputFile("", "B.py", null, false, null);
+    results.setLanguageForFile(fileA, Language.PYTHON);
+    results.setLanguageForFile(fileB, Language.PYTHON);
+    results.setIndexedFileCount(2);
+    results.addFailedAnalysisFile(fileB);
+    ((AsyncCommand<AnalysisResults>) merged).getFuture().complete(results);
+    var firstResults = first.getFuture().join();
+    var secondResults = second.getFuture().join();
+    assertThat(firstResults.indexedFileCount()).isEqualTo(1);
+    assertThat(firstResults.languagePerFile()).containsOnlyKeys(fileA);
+    assertThat(firstResults.failedAnalysisFiles()).isEmpty();
+    assertThat(secondResults.indexedFileCount()).isEqualTo(1);
+    assertThat(secondResults.failedAnalysisFiles()).containsExactly(fileB);
+    assertThat(secondResults.timings()).isSameAs(results.timings());
+  }
+
+  @Test
+  void should_not_merge_analyses_outside_of_the_window_or_across_maintenance_commands() throws InterruptedException {
+    var first = postAnalysis("module", "A.py");
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    var second = postAnalysis("module", "B.py");
+    var maintenance = post(coalescingQueue, "module", CommandPriority.MAINTENANCE);
+    var third = postAnalysis("module", "C.py");
+
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(first);
+    coalescingQueue.done(first);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(second);
+    coalescingQueue.done(second);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(maintenance);
+    coalescingQueue.done(maintenance);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(third);
+  }
+
+  @Test
+  void should_not_supersede_analysis_with_a_different_configuration() throws InterruptedException {
+    var first = postAnalysis("module", "A.py");
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    var configuration = AnalysisConfiguration.builder()
+      .addInputFile(new InMemoryTestClientInputFile("", "A.py", null, false, null))
+      .putExtraProperty("sonar.python.version", "3.9")
+      .build();
+    var second = new AsyncCommand<>(new AnalyzeCommand("module", configuration, i -> {
+    }, null), new ProgressMonitor(null));
+    coalescingQueue.post(second);
+
+    assertThat(first.getFuture()).isNotDone();
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(first);
+    coalescingQueue.done(first);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(second);
+  }
+
+  @Test
+  void should_not_supersede_nor_merge_analyses_outside_of_modules() throws InterruptedException {
+    var first = postAnalysis(null, "A.py");
+    var second = postAnalysis(null, "A.py");
+
+    assertThat(first.getFuture()).isNotDone();
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(first);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(second);
+  }
+
+  @Test
+  void should_cancel_merged_analysis_only_when_all_callers_canceled() throws InterruptedException {
+    var first = postAnalysis("module", "A.py");
+    var second = postAnalysis("module", "B.py");
+    var merged = coalescingQueue.takeNextCommand();
+
+    first.getProgressMonitor().cancel();
+    assertThat(merged.getProgressMonitor().isCanceled()).isFalse();
+
+    second.getProgressMonitor().cancel();
+    assertThat(merged.getProgressMonitor().isCanceled()).isTrue();
+  }
+
+  @Test
+  void should_not_merge_analyses_with_different_rules() throws InterruptedException {
+    var first = postAnalysis("module", "A.py");
+    var configuration = AnalysisConfiguration.builder()
+      .addInputFile(new InMemoryTestClientInputFile("", "B.py", null, false, null))
+      .addActiveRule(new ActiveRule("python:S139", "py"))
+      .build();
+    var second = new AsyncCommand<>(new AnalyzeCommand("module", configuration, i -> {
+    }, null), new ProgressMonitor(null));
+    coalescingQueue.post(second);
+
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(first);
+    coalescingQueue.done(first);
+    assertThat(coalescingQueue.takeNextCommand()).isSameAs(second);
+  }
+
+  @Test
+  void should_merge_file_events_into_the_last_queued_batch_of_the_module() throws InterruptedException {
+    var first = postFileEvent(batchingQueue, "module", "A.py", ModuleFileEvent.Type.CREATED);
+    var second = postFileEvent(batchingQueue, "module", "B.py", ModuleFileEvent.Type.MODIFIED);
+    var third = postFileEvent(batchingQueue, "module", "A.py", ModuleFileEvent.Type.MODIFIED);
+    var otherModule = postFileEvent(batchingQueue, "other", "A.py", ModuleFileEvent.Type.DELETED);
+    now.addAndGet(Duration.ofMillis(200).toNanos());
+
+    var batch = batchingQueue.takeNextCommand();
+    assertThat(batch).isSameAs(first);
+    assertThat(((NotifyModuleEventCommand) batch.getCommand()).events())
+      .extracting(e -> e.target().relativePath(), ClientModuleFileEvent::type)
+      .containsExactly(tuple("A.py", ModuleFileEvent.Type.CREATED), tuple("B.py", ModuleFileEvent.Type.MODIFIED));
+    assertThat(batchingQueue.takeNextCommand()).isSameAs(otherModule);
+
+    ((AsyncCommand<Void>) batch).getFuture().complete(null);
+    assertThat(second.getFuture()).isCompleted();
+    assertThat(third.getFuture()).isCompleted();
+  }
+
+  @Test
+  void should_not_merge_file_events_across_other_commands_of_the_module() throws InterruptedException {
+    var first = postFileEvent(batchingQueue, "module", "A.py", ModuleFileEvent.Type.CREATED);
+    var analysis = post(batchingQueue, "module", CommandPriority.INTERACTIVE);
+    var second = postFileEvent(batchingQueue, "module", "A.py", ModuleFileEvent.Type.MODIFIED);
+
+    // the first batch is released early as the analysis is waiting for it
+    assertThat(batchingQueue.takeNextCommand()).isSameAs(first);
+    batchingQueue.done(first);
+    assertThat(batchingQueue.takeNextCommand()).isSameAs(analysis);
+    batchingQueue.done(analysis);
+    now.addAndGet(Duration.ofMillis(200).toNanos());
+    assertThat(batchingQueue.takeNextCommand()).isSameAs(second);
+  }
+
+  @Test
+  void should_hold_file_events_during_the_batching_window() throws InterruptedException {
+    postFileEvent(batchingQueue, "module", "A.py", ModuleFileEvent.Type.CREATED);
+    var other = post(batchingQueue, "other", CommandPriority.MAINTENANCE);
+
+    assertThat(batchingQueue.takeNextCommand()).isSameAs(other);
+  }
+
+  @Test
+  void should_release_held_file_events_when_closed() throws InterruptedException {
+    var events = postFileEvent(batchingQueue, "module", "A.py", ModuleFileEvent.Type.CREATED);
+    batchingQueue.close();
+
+    assertThat(batchingQueue.takeNextCommand()).isSameAs(events);
+    assertThat(batchingQueue.takeNextCommand()).isNull();
+  }
+
+  private static AsyncCommand<Void> postFileEvent(AnalysisQueue queue, Object moduleKey, String relativePath, ModuleFileEvent.Type type) {
+    var event = ClientModuleFileEvent.of(new InMemoryTestClientInputFile("", relativePath, null, false, null), type);
+    var command = new AsyncCommand<>(new NotifyModuleEventCommand(moduleKey, event), new ProgressMonitor(null));
+    queue.post(command);
+    return command;
+  }
+
+  private AsyncCommand<AnalysisResults> postAnalysis(Object moduleKey, String... relativePaths) {
+    var configuration = AnalysisConfiguration.builder();
+    for (String relativePath : relativePaths) {
+      configuration.addInputFile(new InMemoryTestClientInputFile("", relativePath, null, false, null));
+    }
+    var command = new AsyncCommand<>(new AnalyzeCommand(moduleKey, configuration.build(), i -> {
+    }, null), new ProgressMonitor(null));
+    coalescingQueue.post(command);
+    return command;
+  }
+
+  private AsyncCommand<?> post(Object moduleKey, CommandPriority priority) {
+    return post(queue, moduleKey, priority);
+  }
+
+  private static AsyncCommand<?> post(AnalysisQueue queue, Object moduleKey, CommandPriority priority) {
+    var command = new AsyncCommand<>(new Command<Void>() {
+      @Override
+      public Void execute(ModuleRegistry moduleRegistry, ProgressMonitor progressMonitor) {
+        return null;
+      }
+
+      @Override
+      public Object moduleKey() {
+        return moduleKey;
+      }
+
+      @Override
+      public CommandPriority priority() {
+        return priority;
+      }
+    }, new ProgressMonitor(null));
+    queue.post(command);
+    return command;
+  }
+}
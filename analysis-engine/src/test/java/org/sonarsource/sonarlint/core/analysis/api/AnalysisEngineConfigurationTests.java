@@ -21,6 +21,7 @@ package org.sonarsource.sonarlint.core.analysis.api;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -41,6 +42,11 @@ class AnalysisEngineConfigurationTests {
     assertThat(config.getEffectiveSettings()).isEmpty();
     assertThat(config.getEnabledLanguages()).isEmpty();
     assertThat(config.getClientPid()).isZero();
+    assertThat(config.getWorkerCount()).isEqualTo(1);
+    assertThat(config.getAnalysisCoalescingWindow()).isNull();
+    assertThat(config.getFileEventBatchingWindow()).isZero();
+    assertThat(config.getTransientModuleContainerPoolSize()).isEqualTo(1);
+    assertThat(config.getSensorThreadCount()).isEqualTo(1);
   }
 
   @Test
@@ -87,4 +93,41 @@ class AnalysisEngineConfigurationTests {
     var config = AnalysisEngineConfiguration.builder().setClientPid(123).build();
     assertThat(config.getClientPid()).isEqualTo(123);
   }
+
+  @Test
+  void provideWorkerCount() {
+    var config = AnalysisEngineConfiguration.builder().setWorkerCount(4).build();
+    assertThat(config.getWorkerCount()).isEqualTo(4);
+  }
+
+  @Test
+  void provideAnalysisCoalescingWindow() {
+    var config = AnalysisEngineConfiguration.builder().setAnalysisCoalescingWindow(Duration.ofMillis(300)).build();
+    assertThat(config.getAnalysisCoalescingWindow()).isEqualTo(Duration.ofMillis(300));
+  }
+
+  @Test
+  void provideFileEventBatchingWindow() {
+    var config = AnalysisEngineConfiguration.builder().setFileEventBatchingWindow(Duration.ofMillis(200)).build();
+    assertThat(config.getFileEventBatchingWindow()).isEqualTo(Duration.ofMillis(200));
+  }
+
+  @Test
+  void provideTransientModuleContainerPoolSize() {
+    var config = AnalysisEngineConfiguration.builder().setTransientModuleContainerPoolSize(3).build();
+    assertThat(config.getTransientModuleContainerPoolSize()).isEqualTo(3);
+  }
+
+  @Test
+  void provideSensorThreadCount() {
+    var config = AnalysisEngineConfiguration.builder().setSensorThreadCount(4).build();
+    assertThat(config.getSensorThreadCount()).isEqualTo(4);
+  }
+
+  @Test
+  void provideIndexingThreadCount() {
+    var config = AnalysisEngineConfiguration.builder().setIndexingThreadCount(4).build();
+    assertThat(config.getIndexingThreadCount()).isEqualTo(4);
+    assertThat(AnalysisEngineConfiguration.builder().build().getIndexingThreadCount()).isEqualTo(1);
+  }
 }
@@ -0,0 +1,73 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.api;
+
+import java.net.URI;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.commons.Language;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnalysisResultsTests {
+
+  @Test
+  void failed_analysis_files_should_be_a_snapshot() {
+    var results = new AnalysisResults();
+    var first = mock(ClientInputFile.class);
+    results.addFailedAnalysisFile(first);
+
+    var failedFiles = results.failedAnalysisFiles();
+    results.addFailedAnalysisFile(mock(ClientInputFile.class));
+
+    assertThat(failedFiles).containsExactly(first);
+    assertThat(results.failedAnalysisFiles()).hasSize(2);
+    assertThatThrownBy(() -> failedFiles.clear()).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void should_restrict_results_to_given_files() {
+    var results = new AnalysisResults();
+    var foo = file("file://foo.py");
+    var bar = file("file://bar.py");
+    results.setLanguageForFile(foo, Language.PYTHON);
+    results.setLanguageForFile(bar, null);
+    results.setIndexedFileCount(2);
+    results.addFailedAnalysisFile(foo);
+    results.addFailedAnalysisFile(bar);
+
+    var fooResults = results.forFiles(Set.of(URI.create("file://foo.py")));
+
+    assertThat(fooResults.indexedFileCount()).isEqualTo(1);
+    assertThat(fooResults.languagePerFile()).containsOnlyKeys(foo);
+    assertThat(fooResults.failedAnalysisFiles()).containsExactly(foo);
+    assertThat(fooResults.timings()).isSameAs(results.timings());
+    assertThat(results.forFiles(Set.of()).indexedFileCount()).isZero();
+  }
+
+  private static ClientInputFile file(String uri) {
+    var file = mock(ClientInputFile.class);
+    when(file.uri()).thenReturn(URI.create(uri));
+    return file;
+  }
+}
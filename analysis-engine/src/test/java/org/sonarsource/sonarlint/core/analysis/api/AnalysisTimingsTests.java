@@ -0,0 +1,78 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AnalysisTimingsTests {
+
+  private final AnalysisTimings underTest = new AnalysisTimings();
+
+  @Test
+  void should_default_to_zero_for_phases_not_reached() {
+    assertThat(underTest.phaseDuration(AnalysisTimings.Phase.SENSORS_EXECUTION)).isZero();
+    assertThat(underTest.metadataDuration()).isZero();
+    assertThat(underTest.issueStorageDuration()).isZero();
+    assertThat(underTest.sensorTimings()).isEmpty();
+    assertThat(underTest.slowestFilesByMetadata()).isEmpty();
+  }
+
+  @Test
+  void should_keep_slowest_files_by_metadata_time() {
+    List<ClientInputFile> files = new ArrayList<>();
+    for (var i = 0; i < AnalysisTimings.SLOWEST_FILES_COUNT + 5; i++) {
+      var file = mock(ClientInputFile.class);
+      files.add(file);
+      underTest.recordFileMetadata(file, Duration.ofMillis(i));
+    }
+
+    var slowestFiles = underTest.slowestFilesByMetadata();
+
+    assertThat(slowestFiles).hasSize(AnalysisTimings.SLOWEST_FILES_COUNT);
+    assertThat(slowestFiles.get(0).getFile()).isSameAs(files.get(files.size() - 1));
+    assertThat(slowestFiles.get(0).getMetadataDuration()).isEqualTo(Duration.ofMillis(14));
+    assertThat(slowestFiles.get(AnalysisTimings.SLOWEST_FILES_COUNT - 1).getMetadataDuration()).isEqualTo(Duration.ofMillis(5));
+    assertThat(underTest.metadataDuration()).isEqualTo(Duration.ofMillis(105));
+  }
+
+  @Test
+  void should_record_phases_sensors_and_issue_storage() {
+    underTest.recordPhase(AnalysisTimings.Phase.FILE_INDEXING, Duration.ofMillis(3));
+    underTest.recordSensor("sensor", Duration.ofMillis(7), 2);
+    underTest.recordIssueStorage(Duration.ofMillis(1).toNanos());
+    underTest.recordIssueStorage(Duration.ofMillis(1).toNanos());
+
+    assertThat(underTest.phaseDuration(AnalysisTimings.Phase.FILE_INDEXING)).isEqualTo(Duration.ofMillis(3));
+    assertThat(underTest.sensorTimings()).singleElement()
+      .satisfies(t -> {
+        assertThat(t.getSensorName()).isEqualTo("sensor");
+        assertThat(t.getDuration()).isEqualTo(Duration.ofMillis(7));
+        assertThat(t.getIssueCount()).isEqualTo(2);
+      });
+    assertThat(underTest.issueStorageDuration()).isEqualTo(Duration.ofMillis(2));
+    assertThat(underTest).hasToString("FILE_INDEXING=3ms, metadata=0ms, issue storage=2ms");
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisEngineConfiguration;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileIndexingPool;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.sensor.SensorsExecutionPool;
+import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.core.plugin.commons.pico.ComponentContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AnalysisThreadPoolTests {
+
+  private final AnalysisThreadPool pool = new AnalysisThreadPool("test-", 2) {
+  };
+
+  @AfterEach
+  void stop() {
+    pool.stop();
+    SonarLintLogger.setTarget(null);
+  }
+
+  @Test
+  void should_not_start_threads_for_a_single_thread() {
+    var sequential = new AnalysisThreadPool("test-", 1) {
+    };
+
+    assertThat(sequential.isConcurrent()).isFalse();
+  }
+
+  @Test
+  void should_execute_tasks_with_the_log_output_of_the_caller() {
+    var logOutput = mock(ClientLogOutput.class);
+    SonarLintLogger.setTarget(logOutput);
+
+    var target = pool.submit(SonarLintLogger::getTarget);
+    var targetAfter = new CompletableFuture<ClientLogOutput>();
+    AnalysisThreadPool.join(pool.submitAfter(target, () -> targetAfter.complete(SonarLintLogger.getTarget())));
+
+    assertThat(pool.isConcurrent()).isTrue();
+    assertThat(AnalysisThreadPool.join(target)).isSameAs(logOutput);
+    assertThat(targetAfter).isCompletedWithValue(logOutput);
+  }
+
+  @Test
+  void should_rethrow_failure_of_the_task() {
+    var future = pool.submit(() -> {
+      throw new IllegalStateException("failure");
+    });
+
+    assertThatThrownBy(() -> AnalysisThreadPool.join(future)).isInstanceOf(IllegalStateException.class).hasMessage("failure");
+  }
+
+  @Test
+  void should_be_stopped_with_the_container() {
+    var container = new ComponentContainer();
+    container.add(AnalysisEngineConfiguration.builder().setSensorThreadCount(2).setIndexingThreadCount(2).build(), SensorsExecutionPool.class, FileIndexingPool.class);
+    container.startComponents();
+    AnalysisThreadPool sensorsPool = container.getComponentByType(SensorsExecutionPool.class);
+    AnalysisThreadPool indexingPool = container.getComponentByType(FileIndexingPool.class);
+    assertThat(sensorsPool.isStopped()).isFalse();
+    assertThat(indexingPool.isStopped()).isFalse();
+
+    container.stopComponents();
+
+    assertThat(sensorsPool.isStopped()).isTrue();
+    assertThat(indexingPool.isStopped()).isTrue();
+  }
+}
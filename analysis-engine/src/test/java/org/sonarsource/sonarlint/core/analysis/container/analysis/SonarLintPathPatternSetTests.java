@@ -0,0 +1,66 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SonarLintPathPatternSetTests {
+
+  private static final String[] PATTERNS = {"**/*.java", "src/**", "**/test/*.JS", "Foo.*", "*.", "**/.git", "gen/**/*.java", "file:**/*.py"};
+  private static final String[] PATHS = {"src/Foo.java", "Foo.java", "other/Foo.java", "gen/a/b/Bar.java", "src/Foo.js", "test/Foo.JS", "test/Foo.js",
+    "a/test/Foo.Js", "Makefile", "foo.", "repo/.git", "repo/.git/", "main.py", "c:\\dir\\Foo.java", "Foo"};
+
+  @Test
+  void should_match_like_each_pattern() {
+    var set = SonarLintPathPatternSet.create(PATTERNS);
+    var patterns = SonarLintPathPattern.create(PATTERNS);
+
+    for (String path : PATHS) {
+      var expected = IntStream.range(0, patterns.length).filter(i -> patterns[i].match(path)).toArray();
+      assertThat(set.matchingIndexes(path)).as(path).containsExactly(expected);
+      assertThat(set.matchAny(path, true)).as(path).isEqualTo(expected.length > 0);
+      var expectedIgnoringCase = IntStream.range(0, patterns.length).anyMatch(i -> patterns[i].match(path, false));
+      assertThat(set.matchAny(path, false)).as(path).isEqualTo(expectedIgnoringCase);
+    }
+  }
+
+  @Test
+  void should_bucket_patterns_by_literal_extension() {
+    assertThat(new SonarLintPathPattern("**/*.java").literalExtension()).isEqualTo("java");
+    assertThat(new SonarLintPathPattern("**/*.tar.gz").literalExtension()).isEqualTo("gz");
+    assertThat(new SonarLintPathPattern("*.").literalExtension()).isEmpty();
+    assertThat(new SonarLintPathPattern("**/*.j?").literalExtension()).isNull();
+    assertThat(new SonarLintPathPattern("**/*.java/**").literalExtension()).isNull();
+    assertThat(new SonarLintPathPattern("src/**").literalExtension()).isNull();
+  }
+
+  @Test
+  void should_match_nothing_when_empty() {
+    var set = new SonarLintPathPatternSet(List.of());
+
+    assertThat(set.isEmpty()).isTrue();
+    assertThat(set.matchAny("Foo.java", true)).isFalse();
+    assertThat(set.matchingIndexes("Foo.java")).isEmpty();
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.InputFileFilter;
+import org.sonar.api.utils.MessageException;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisConfiguration;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.scanner.IssueExclusionsLoader;
+import org.sonarsource.sonarlint.core.commons.Language;
+import testutils.TestClientInputFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileIndexerTests {
+
+  private final LanguageDetection langDetection = mock(LanguageDetection.class);
+  private final IssueExclusionsLoader issueExclusionsLoader = mock(IssueExclusionsLoader.class);
+  private final InputFileBuilder inputFileBuilder = new InputFileBuilder(langDetection, new FileMetadata(), issueExclusionsLoader);
+  private final InputFileIndex inputFileIndex = new InputFileIndex();
+  private final AnalysisResults analysisResults = new AnalysisResults();
+  private final FileIndexingPool indexingPool = new FileIndexingPool(4);
+
+  @TempDir
+  private Path baseDir;
+
+  @AfterEach
+  void stopPool() {
+    indexingPool.stop();
+  }
+
+  @Test
+  void should_index_files_in_provided_order_when_concurrent() {
+    when(langDetection.language(any(InputFile.class))).thenReturn(Language.JAVA);
+    var files = IntStream.range(0, 500).mapToObj(i -> inputFile("File" + i + ".java")).collect(Collectors.toList());
+
+    new FileIndexer(inputFileIndex, inputFileBuilder, config(files), analysisResults, issueExclusionsLoader, indexingPool).index();
+
+    List<String> indexed = new ArrayList<>();
+    inputFileIndex.inputFiles().forEach(f -> indexed.add(f.filename()));
+    assertThat(indexed).containsExactlyElementsOf(files.stream().map(f -> Path.of(f.getPath()).getFileName().toString()).collect(Collectors.toList()));
+    assertThat(analysisResults.indexedFileCount()).isEqualTo(500);
+    assertThat(analysisResults.languagePerFile()).containsOnlyKeys(files);
+    assertThat(inputFileIndex.languages()).containsExactly("java");
+  }
+
+  @Test
+  void should_apply_filters_and_exclusions_when_concurrent() {
+    InputFileFilter filter = f -> !f.filename().startsWith("Excluded");
+    var included = inputFile("Included.java");
+    var excluded = inputFile("Excluded.java");
+
+    new FileIndexer(inputFileIndex, inputFileBuilder, config(List.of(included, excluded)), analysisResults, issueExclusionsLoader,
+      new InputFileFilter[] {filter}, indexingPool).index();
+
+    assertThat(inputFileIndex.inputFiles()).extracting(InputFile::filename).containsExactly("Included.java");
+    assertThat(analysisResults.indexedFileCount()).isEqualTo(1);
+    verify(issueExclusionsLoader).addMulticriteriaPatterns(any());
+  }
+
+  @Test
+  void should_apply_filters_on_calling_thread_when_concurrent() {
+    Set<Thread> filteringThreads = new HashSet<>();
+    InputFileFilter filter = f -> {
+      filteringThreads.add(Thread.currentThread());
+      return true;
+    };
+    var files = IntStream.range(0, 500).mapToObj(i -> inputFile("File" + i + ".java")).collect(Collectors.toList());
+
+    new FileIndexer(inputFileIndex, inputFileBuilder, config(files), analysisResults, issueExclusionsLoader, new InputFileFilter[] {filter},
+      indexingPool).index();
+
+    assertThat(filteringThreads).containsExactly(Thread.currentThread());
+    assertThat(analysisResults.indexedFileCount()).isEqualTo(500);
+  }
+
+  @Test
+  void should_only_read_content_of_accepted_files_when_concurrent() {
+    Set<String> readFiles = ConcurrentHashMap.newKeySet();
+    InputFileFilter filter = f -> !f.filename().startsWith("Excluded");
+    var files = IntStream.range(0, 200)
+      .mapToObj(i -> readRecordingInputFile((i % 2 == 0 ? "Excluded" : "File") + i + ".java", readFiles))
+      .collect(Collectors.toList());
+
+    new FileIndexer(inputFileIndex, inputFileBuilder, config(files), analysisResults, issueExclusionsLoader, new InputFileFilter[] {filter},
+      indexingPool).index();
+
+    assertThat(readFiles).hasSize(100).allMatch(name -> name.startsWith("File"));
+  }
+
+  @Test
+  void should_not_index_twice_the_same_file_when_concurrent() {
+    var file = inputFile("Foo.java");
+    var indexer = new FileIndexer(inputFileIndex, inputFileBuilder, config(List.of(file, file)), analysisResults, issueExclusionsLoader, indexingPool);
+
+    assertThatThrownBy(indexer::index)
+      .isInstanceOf(MessageException.class)
+      .hasMessageContaining("can't be indexed twice");
+  }
+
+  @Test
+  void should_propagate_errors_of_indexing_threads() {
+    when(langDetection.language(any(InputFile.class))).thenThrow(MessageException.of("Language can not be decided"));
+    var indexer = new FileIndexer(inputFileIndex, inputFileBuilder, config(List.of(inputFile("Foo.java"))), analysisResults, issueExclusionsLoader,
+      indexingPool);
+
+    assertThatThrownBy(indexer::index)
+      .isInstanceOf(MessageException.class)
+      .hasMessage("Language can not be decided");
+  }
+
+  @Test
+  void should_index_sequentially_by_default() {
+    var files = List.of(inputFile("Foo.java"), inputFile("Bar.java"));
+
+    new FileIndexer(inputFileIndex, inputFileBuilder, config(files), analysisResults, issueExclusionsLoader).index();
+
+    assertThat(inputFileIndex.inputFiles()).extracting(InputFile::filename).containsExactly("Foo.java", "Bar.java");
+  }
+
+  private ClientInputFile inputFile(String name) {
+    return new TestClientInputFile(baseDir, baseDir.resolve(name), false, StandardCharsets.UTF_8, null);
+  }
+
+  private ClientInputFile readRecordingInputFile(String name, Set<String> readFiles) {
+    return new TestClientInputFile(baseDir, baseDir.resolve(name), false, StandardCharsets.UTF_8, null) {
+      @Override
+      public InputStream inputStream() {
+        readFiles.add(name);
+        return new ByteArrayInputStream(new byte[0]);
+      }
+    };
+  }
+
+  private AnalysisConfiguration config(List<ClientInputFile> files) {
+    return AnalysisConfiguration.builder().setBaseDir(baseDir).addInputFiles(files).build();
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata.Metadata;
+import testutils.OnDiskTestClientInputFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileMetadataCacheTests {
+
+  private final FileMetadata fileMetadata = new FileMetadata();
+  private final AtomicInteger readCount = new AtomicInteger();
+  private final Function<SonarLintInputFile, Metadata> reader = f -> {
+    readCount.incrementAndGet();
+    try {
+      return fileMetadata.readMetadata(f.inputStream(), StandardCharsets.UTF_8, f.uri(), null);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  };
+
+  @TempDir
+  private Path tempDir;
+  private long lastModified = System.currentTimeMillis();
+
+  @Test
+  void should_reuse_metadata_of_unchanged_file() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = write("foo.txt", "foo\nbar");
+
+    var metadata = cache.getOrCompute(inputFile(path), List.of(), reader);
+    var reused = cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    assertThat(reused).isSameAs(metadata);
+    assertThat(readCount).hasValue(1);
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void should_read_again_when_content_changed() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = write("foo.txt", "foo\nbar");
+    cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    write("foo.txt", "foo\nbaz");
+    var metadata = cache.getOrCompute(inputFile(path), List.of(), reader);
+    write("foo.txt", "foo\nbar\n");
+    var otherMetadata = cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    assertThat(readCount).hasValue(3);
+    assertThat(metadata.lines()).isEqualTo(2);
+    assertThat(otherMetadata.lines()).isEqualTo(3);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void should_not_read_file_on_filesystem_to_detect_changes() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = write("foo.txt", "foo\nbar");
+    var metadata = cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    // same size and modification time
+    var lastModified = Files.getLastModifiedTime(path);
+    Files.writeString(path, "foo bar", StandardCharsets.UTF_8);
+    Files.setLastModifiedTime(path, lastModified);
+    var reused = cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    assertThat(reused).isSameAs(metadata);
+    assertThat(readCount).hasValue(1);
+  }
+
+  @Test
+  void should_detect_changes_from_client_version() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = tempDir.resolve("foo.txt");
+    var metadata = cache.getOrCompute(bufferInputFile(path, "foo\nbar", "1"), List.of(), reader);
+
+    var reused = cache.getOrCompute(bufferInputFile(path, "foo\nbar", "1"), List.of(), reader);
+    var changed = cache.getOrCompute(bufferInputFile(path, "foo\nbar\nbaz", "2"), List.of(), reader);
+
+    assertThat(reused).isSameAs(metadata);
+    assertThat(changed.lines()).isEqualTo(3);
+    assertThat(readCount).hasValue(2);
+  }
+
+  @Test
+  void should_detect_changes_from_content_when_no_version() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = tempDir.resolve("foo.txt");
+    var metadata = cache.getOrCompute(bufferInputFile(path, "foo\nbar", null), List.of(), reader);
+
+    var reused = cache.getOrCompute(bufferInputFile(path, "foo\nbar", null), List.of(), reader);
+    var changed = cache.getOrCompute(bufferInputFile(path, "foo\nbaz", null), List.of(), reader);
+
+    assertThat(reused).isSameAs(metadata);
+    assertThat(changed).isNotSameAs(metadata);
+    assertThat(readCount).hasValue(2);
+  }
+
+  @Test
+  void should_read_again_when_charset_changed() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = write("foo.txt", "foo\nbar");
+    var metadata = cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    var clientInputFile = new OnDiskTestClientInputFile(path, path.getFileName().toString(), false, StandardCharsets.UTF_16);
+    var otherMetadata = cache.getOrCompute(new SonarLintInputFile(clientInputFile, reader), List.of(), reader);
+
+    assertThat(otherMetadata).isNotSameAs(metadata);
+    assertThat(readCount).hasValue(2);
+  }
+
+  @Test
+  void should_read_again_when_exclusion_patterns_changed() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = write("foo.txt", "foo\nbar");
+    cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    cache.getOrCompute(inputFile(path), List.of("pattern"), reader);
+
+    assertThat(readCount).hasValue(2);
+  }
+
+  @Test
+  void should_restore_issue_exclusions() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = write("foo.txt", "foo\nbar\nbaz");
+    var exclusionsReader = (Function<SonarLintInputFile, Metadata>) f -> {
+      f.setIgnoreAllIssues(true);
+      f.addIgnoreIssuesOnLineRanges(List.of(new int[] {2, 3}));
+      return reader.apply(f);
+    };
+    cache.getOrCompute(inputFile(path), List.of("pattern"), exclusionsReader);
+
+    var inputFile = inputFile(path, f -> cache.getOrCompute(f, List.of("pattern"), exclusionsReader));
+    inputFile.checkMetadata();
+
+    assertThat(readCount).hasValue(1);
+    assertThat(inputFile.isIgnoreAllIssues()).isTrue();
+    assertThat(inputFile.isIgnoreAllIssuesOnLine(1)).isFalse();
+    assertThat(inputFile.isIgnoreAllIssuesOnLine(2)).isTrue();
+  }
+
+  @Test
+  void should_read_again_after_invalidation() throws IOException {
+    var cache = new FileMetadataCache();
+    var path = write("foo.txt", "foo\nbar");
+    var inputFile = inputFile(path);
+    cache.getOrCompute(inputFile, List.of(), reader);
+
+    cache.invalidate(inputFile.uri());
+    cache.getOrCompute(inputFile(path), List.of(), reader);
+
+    assertThat(readCount).hasValue(2);
+  }
+
+  @Test
+  void should_evict_least_recently_used_entries_when_exceeding_max_weight() throws IOException {
+    var first = write("first.txt", "foo\nbar");
+    var second = write("second.txt", "foo\nbar");
+    var third = write("third.txt", "foo\nbar");
+    var probe = new FileMetadataCache();
+    probe.getOrCompute(inputFile(first), List.of(), reader);
+    var cache = new FileMetadataCache(2 * probe.weight());
+
+    cache.getOrCompute(inputFile(first), List.of(), reader);
+    cache.getOrCompute(inputFile(second), List.of(), reader);
+    // touch first so that second is the least recently used
+    cache.getOrCompute(inputFile(first), List.of(), reader);
+    cache.getOrCompute(inputFile(third), List.of(), reader);
+    readCount.set(0);
+
+    cache.getOrCompute(inputFile(first), List.of(), reader);
+    cache.getOrCompute(inputFile(third), List.of(), reader);
+    assertThat(readCount).hasValue(0);
+    cache.getOrCompute(inputFile(second), List.of(), reader);
+    assertThat(readCount).hasValue(1);
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.weight()).isLessThanOrEqualTo(2 * probe.weight());
+  }
+
+  @Test
+  void should_clear() throws IOException {
+    var cache = new FileMetadataCache();
+    cache.getOrCompute(inputFile(write("foo.txt", "foo")), List.of(), reader);
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+    assertThat(cache.weight()).isZero();
+  }
+
+  private Path write(String name, String content) throws IOException {
+    var path = Files.writeString(tempDir.resolve(name), content, StandardCharsets.UTF_8);
+    // the resolution of modification times depends on the filesystem, make sure each write is detected
+    Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified += 1000));
+    return path;
+  }
+
+  private SonarLintInputFile inputFile(Path path) {
+    return inputFile(path, reader);
+  }
+
+  private static SonarLintInputFile inputFile(Path path, Function<SonarLintInputFile, Metadata> metadataGenerator) {
+    var clientInputFile = new OnDiskTestClientInputFile(path, path.getFileName().toString(), false, StandardCharsets.UTF_8);
+    return new SonarLintInputFile(clientInputFile, metadataGenerator);
+  }
+
+  private SonarLintInputFile bufferInputFile(Path path, String content, @Nullable String version) {
+    var clientInputFile = new OnDiskTestClientInputFile(path, path.getFileName().toString(), false, StandardCharsets.UTF_8) {
+      @Override
+      public boolean isOnFileSystem() {
+        return false;
+      }
+
+      @Override
+      public String contentVersion() {
+        return version;
+      }
+
+      @Override
+      public InputStream inputStream() {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+      }
+    };
+    return new SonarLintInputFile(clientInputFile, reader);
+  }
+}
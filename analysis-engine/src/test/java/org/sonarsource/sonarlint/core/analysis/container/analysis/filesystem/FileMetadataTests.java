@@ -19,11 +19,14 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -206,4 +209,141 @@ class FileMetadataTests {
       "glyphicons-halflings-regular.woff' at line 1 for encoding UTF-8. Please fix file content or configure the encoding.");
   }
 
+  @Test
+  void crlf_across_read_blocks(@TempDir Path temp) throws Exception {
+    var tempFile = temp.resolve("tmpFile").toFile();
+    var firstLine = "a".repeat(16 * 1024 - 1);
+    FileUtils.write(tempFile, firstLine + "\r\nfoo\r\rbar", StandardCharsets.UTF_8, true);
+
+    var metadata = underTest.readMetadata(tempFile, StandardCharsets.UTF_8);
+    assertThat(metadata.lines()).isEqualTo(4);
+    assertThat(metadata.originalLineOffsets()).containsExactly(0, firstLine.length() + 2, firstLine.length() + 6, firstLine.length() + 7);
+    assertThat(metadata.lastValidOffset()).isEqualTo(firstLine.length() + 10);
+  }
+
+  @Test
+  void many_lines(@TempDir Path temp) throws Exception {
+    var tempFile = temp.resolve("tmpFile").toFile();
+    FileUtils.write(tempFile, "foo\n".repeat(10_000), StandardCharsets.UTF_8, true);
+
+    var metadata = underTest.readMetadata(tempFile, StandardCharsets.UTF_8);
+    assertThat(metadata.lines()).isEqualTo(10_001);
+    assertThat(metadata.originalLineOffsets()).hasSize(10_001);
+    assertThat(metadata.originalLineOffsets()[10_000]).isEqualTo(40_000);
+    assertThat(metadata.lastValidOffset()).isEqualTo(40_000);
+  }
+
+  @Test
+  void should_notify_other_handler_line_by_line(@TempDir Path temp) throws Exception {
+    var handler = new RecordingCharHandler();
+
+    underTest.readMetadata(new ByteArrayInputStream("foo\r\nbar\r\rbaz\n".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, temp.toUri(), handler);
+
+    assertThat(handler.lines).containsExactly("foo", "bar", "", "baz", "");
+    assertThat(handler.eolChars).isEqualTo("\r\n\r\r\n");
+  }
+
+  @Test
+  void should_log_invalid_character_line_once(@TempDir Path temp) throws Exception {
+    var tempFile = temp.resolve("tmpFile").toFile();
+    FileUtils.write(tempFile, "foo\r\nb\ufffdr\n\ufffd", StandardCharsets.UTF_8, true);
+
+    underTest.readMetadata(tempFile, StandardCharsets.UTF_8);
+
+    assertThat(logTester.logs(Level.WARN)).hasSize(1);
+    assertThat(logTester.logs(Level.WARN).get(0)).contains("' at line 2 for encoding UTF-8.");
+  }
+
+  @Test
+  void should_compute_same_metadata_without_decoding(@TempDir Path temp) {
+    var contents = new String[] {
+      "",
+      "foo\r\nbar\r\nbaz",
+      "foo\rbar\rbaz\r",
+      "\nfoo\n\n\r\r\nbar\r",
+      "\uFEFFfoo\nbar",
+      "föo\r\nbàr\r\n\u1D11Ebaßz\r\n",
+      "\uD834\uDD1E clef\n\uD834\uDD1E",
+      "a".repeat(16 * 1024 - 1) + "\r\nfoo",
+      "a".repeat(16 * 1024 - 2) + "\u1D11E\u1D11E\nfoo",
+      "a".repeat(16 * 1024 - 2) + "\uD834\uDD1E\nfoo"
+    };
+    for (var content : contents) {
+      var bytes = content.getBytes(StandardCharsets.UTF_8);
+
+      var expected = underTest.readMetadata(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, temp.toUri(), null);
+      var metadata = underTest.readMetadataWithoutDecoding(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, temp.toUri());
+
+      assertThat(metadata).isNotNull();
+      assertThat(metadata.lines()).isEqualTo(expected.lines());
+      assertThat(metadata.originalLineOffsets()).containsExactly(expected.originalLineOffsets());
+      assertThat(metadata.lastValidOffset()).isEqualTo(expected.lastValidOffset());
+    }
+  }
+
+  @Test
+  void should_not_read_invalid_content_without_decoding(@TempDir Path temp) {
+    var invalidContents = new byte[][] {
+      "marker´s\n".getBytes(Charset.forName("cp1252")),
+      "foo\ufffd".getBytes(StandardCharsets.UTF_8),
+      {'a', (byte) 0xE2, (byte) 0x82},
+      {(byte) 0xC0, (byte) 0x80},
+      {(byte) 0xED, (byte) 0xA0, (byte) 0x80},
+      {(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80}
+    };
+    for (var bytes : invalidContents) {
+      assertThat(underTest.readMetadataWithoutDecoding(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, temp.toUri())).isNull();
+    }
+    assertThat(underTest.readMetadataWithoutDecoding(new ByteArrayInputStream("föo".getBytes(StandardCharsets.UTF_8)), StandardCharsets.US_ASCII, temp.toUri()))
+      .isNull();
+    assertThat(logTester.logs()).isEmpty();
+  }
+
+  @Test
+  void should_read_ascii_without_decoding(@TempDir Path temp) {
+    var metadata = underTest.readMetadataWithoutDecoding(new ByteArrayInputStream("foo\r\nbar\n".getBytes(StandardCharsets.US_ASCII)), StandardCharsets.US_ASCII,
+      temp.toUri());
+
+    assertThat(metadata.lines()).isEqualTo(3);
+    assertThat(metadata.originalLineOffsets()).containsExactly(0, 5, 9);
+    assertThat(metadata.lastValidOffset()).isEqualTo(9);
+  }
+
+  @Test
+  void should_only_read_utf8_and_ascii_without_decoding() {
+    assertThat(FileMetadata.canReadWithoutDecoding(StandardCharsets.UTF_8)).isTrue();
+    assertThat(FileMetadata.canReadWithoutDecoding(StandardCharsets.US_ASCII)).isTrue();
+    assertThat(FileMetadata.canReadWithoutDecoding(StandardCharsets.UTF_16)).isFalse();
+    assertThat(FileMetadata.canReadWithoutDecoding(StandardCharsets.ISO_8859_1)).isFalse();
+  }
+
+  private static class RecordingCharHandler extends FileMetadata.CharHandler {
+    private final List<String> lines = new ArrayList<>();
+    private final StringBuilder currentLine = new StringBuilder();
+    private String eolChars = "";
+
+    @Override
+    protected void handleAll(char c) {
+      if (c == '\r' || c == '\n') {
+        eolChars += c;
+      }
+    }
+
+    @Override
+    protected void handleIgnoreEoL(char c) {
+      currentLine.append(c);
+    }
+
+    @Override
+    protected void newLine() {
+      lines.add(currentLine.toString());
+      currentLine.setLength(0);
+    }
+
+    @Override
+    protected void eof() {
+      lines.add(currentLine.toString());
+    }
+  }
+
 }
@@ -25,11 +25,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.api.io.TempDir;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.scanner.IssueExclusionsLoader;
 import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput.Level;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogTester;
 import testutils.FileUtils;
 import testutils.OnDiskTestClientInputFile;
 
@@ -50,6 +53,9 @@ class InputFileBuilderTests {
   @TempDir
   private Path tempDir;
 
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
   @Test
   void testCreate() throws IOException {
     when(langDetection.language(any(InputFile.class))).thenReturn(Language.JAVA);
@@ -86,6 +92,19 @@ class InputFileBuilderTests {
     verifyNoInteractions(langDetection);
   }
 
+  @Test
+  void should_fall_back_to_decoding_invalid_utf8_content() throws IOException {
+    when(langDetection.language(any(InputFile.class))).thenReturn(Language.JAVA);
+    var path = tempDir.resolve("file");
+    Files.write(path, "marker´s\nfoo".getBytes(StandardCharsets.ISO_8859_1));
+    ClientInputFile file = new OnDiskTestClientInputFile(path, "file", false, StandardCharsets.UTF_8);
+
+    var inputFile = new InputFileBuilder(langDetection, metadata, issueExclusionsLoader).create(file);
+
+    assertThat(inputFile.lines()).isEqualTo(2);
+    assertThat(logTester.logs(Level.WARN)).singleElement().asString().contains("Invalid character encountered in file");
+  }
+
   @Test
   void testCreate_lazy_error() throws IOException {
     when(langDetection.language(any(InputFile.class))).thenReturn(Language.JAVA);
@@ -19,6 +19,8 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 
+import java.net.URI;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sonar.api.batch.fs.InputFile;
@@ -58,4 +60,34 @@ class InputFileCacheTests {
     assertThat(cache.languages()).containsExactly("lang1", "lang2");
 
   }
+
+  @Test
+  void testSecondaryIndexes() {
+    var file1 = mock(InputFile.class);
+    when(file1.filename()).thenReturn("file1.java");
+    when(file1.language()).thenReturn("lang1");
+    when(file1.type()).thenReturn(InputFile.Type.MAIN);
+    when(file1.uri()).thenReturn(URI.create("file:///file1.java"));
+    var file2 = mock(InputFile.class);
+    when(file2.filename()).thenReturn("file2");
+    when(file2.type()).thenReturn(InputFile.Type.TEST);
+    var file3 = mock(InputFile.class);
+    when(file3.filename()).thenReturn("file3.java");
+    when(file3.language()).thenReturn("lang1");
+    when(file3.type()).thenReturn(InputFile.Type.MAIN);
+
+    cache.doAdd(file1);
+    cache.doAdd(file2);
+    cache.doAdd(file3);
+
+    assertThat(cache.getFilesByLanguage("lang1")).containsExactly(file1, file3);
+    assertThat(cache.getFilesByLanguage("lang2")).isEmpty();
+    assertThat(cache.getFilesByType(InputFile.Type.MAIN)).containsExactly(file1, file3);
+    assertThat(cache.getFilesByType(InputFile.Type.TEST)).containsExactly(file2);
+    assertThat(cache.getFilesByUri(URI.create("file:///file1.java"))).containsExactly(file1);
+    assertThat(cache.getFilesByUri(URI.create("file:///file2"))).isEmpty();
+    assertThat(cache.getFilesByName("unknown")).isEmpty();
+    assertThat(cache.getFilesByExtension("php")).isEmpty();
+    assertThat(cache.sortInIndexOrder(List.of(file3, file2, file1))).containsExactly(file1, file2, file3);
+  }
 }
@@ -83,6 +83,31 @@ class LanguageDetectionTests {
       .contains("XML: xhtml");
   }
 
+  @Test
+  void search_by_multi_part_suffix() throws Exception {
+    var settings = new MapSettings(Map.of(org.sonarsource.sonarlint.core.commons.Language.JAVA.getFileSuffixesPropKey(), "java,.TMPL.java"));
+    var detection = new LanguageDetection(settings.asConfig());
+
+    assertThat(detection.language(newInputFile("Foo.tmpl.java"))).isEqualTo(org.sonarsource.sonarlint.core.commons.Language.JAVA);
+    assertThat(detection.language(newInputFile("Foo.Tmpl.JAVA"))).isEqualTo(org.sonarsource.sonarlint.core.commons.Language.JAVA);
+    assertThat(detection.language(newInputFile("Footmpl.java"))).isEqualTo(org.sonarsource.sonarlint.core.commons.Language.JAVA);
+    assertThat(detection.language(newInputFile("java"))).isNull();
+    assertThat(detection.language(newInputFile(".java"))).isEqualTo(org.sonarsource.sonarlint.core.commons.Language.JAVA);
+  }
+
+  @Test
+  void fail_if_conflicting_nested_language_suffixes() throws Exception {
+    var settings = new MapSettings(Map.of(org.sonarsource.sonarlint.core.commons.Language.XML.getFileSuffixesPropKey(), "xml",
+      org.sonarsource.sonarlint.core.commons.Language.HTML.getFileSuffixesPropKey(), "page.xml"));
+    var detection = new LanguageDetection(settings.asConfig());
+
+    assertThat(detection.language(newInputFile("abc.xml"))).isEqualTo(org.sonarsource.sonarlint.core.commons.Language.XML);
+    var inputFile = newInputFile("abc.page.xml");
+    var e = assertThrows(MessageException.class, () -> detection.language(inputFile));
+    assertThat(e.getMessage())
+      .contains("abc.page.xml' can not be decided as the file extension matches both HTML: page.xml and XML: xml");
+  }
+
   private InputFile newInputFile(String path) throws IOException {
     return new TestInputFileBuilder(path).setBaseDir(basedir).build();
   }
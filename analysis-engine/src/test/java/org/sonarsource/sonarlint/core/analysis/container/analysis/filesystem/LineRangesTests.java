@@ -0,0 +1,68 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineRangesTests {
+
+  @Test
+  void should_merge_overlapping_and_adjacent_ranges() {
+    var ranges = LineRanges.of(List.of(new int[] {10, 12}, new int[] {1, 3}, new int[] {4, 5}, new int[] {11, 20}, new int[] {30, 30}, new int[] {8, 7}));
+
+    assertThat(ranges.toList()).containsExactly(new int[] {1, 5}, new int[] {10, 20}, new int[] {30, 30});
+    assertThat(ranges.contains(0)).isFalse();
+    assertThat(ranges.contains(1)).isTrue();
+    assertThat(ranges.contains(5)).isTrue();
+    assertThat(ranges.contains(6)).isFalse();
+    assertThat(ranges.contains(15)).isTrue();
+    assertThat(ranges.contains(30)).isTrue();
+    assertThat(ranges.contains(31)).isFalse();
+  }
+
+  @Test
+  void should_add_ranges() {
+    var ranges = LineRanges.of(List.of(new int[] {1, 2})).union(List.of(new int[] {3, 4}, new int[] {10, 11}));
+
+    assertThat(ranges.size()).isEqualTo(2);
+    assertThat(ranges.toList()).containsExactly(new int[] {1, 4}, new int[] {10, 11});
+  }
+
+  @Test
+  void should_answer_like_a_linear_scan_for_many_ranges_and_lines() {
+    var random = new Random(42);
+    var raw = new ArrayList<int[]>();
+    for (var i = 0; i < 2_000; i++) {
+      var start = random.nextInt(100_000);
+      raw.add(new int[] {start, start + random.nextInt(20)});
+    }
+    var ranges = LineRanges.of(raw);
+
+    for (var line = 0; line < 100_050; line++) {
+      var l = line;
+      assertThat(ranges.contains(line)).as("line %d", line).isEqualTo(raw.stream().anyMatch(r -> r[0] <= l && l <= r[1]));
+    }
+  }
+}
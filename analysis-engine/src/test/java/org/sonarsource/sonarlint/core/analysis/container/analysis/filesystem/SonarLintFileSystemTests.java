@@ -22,15 +22,20 @@ package org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisConfiguration;
 import org.sonarsource.sonarlint.core.commons.Language;
 import testutils.TestInputFileBuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class SonarLintFileSystemTests {
 
@@ -94,6 +99,41 @@ class SonarLintFileSystemTests {
     assertThat(fs.languages()).containsOnly("java", "php");
   }
 
+  @Test
+  void should_query_files_through_indexes_in_index_order() {
+    var foo = new TestInputFileBuilder("src/Foo.php").setBaseDir(basedir).setLanguage(Language.PHP).build();
+    var bar = new TestInputFileBuilder("src/Bar.java").setBaseDir(basedir).setLanguage(Language.JAVA).build();
+    var barTest = new TestInputFileBuilder("test/BarTest.java").setBaseDir(basedir).setLanguage(Language.JAVA).setType(InputFile.Type.TEST).build();
+    var baz = new TestInputFileBuilder("src/Baz.php").setBaseDir(basedir).setLanguage(Language.PHP).build();
+    var readme = new TestInputFileBuilder("src/readme.txt").setBaseDir(basedir).build();
+    for (InputFile inputFile : List.of(foo, bar, barTest, baz, readme)) {
+      inputFileCache.doAdd(inputFile);
+    }
+    var p = fs.predicates();
+
+    assertThat(fs.inputFiles(p.hasLanguages("php", "java"))).containsExactly(foo, bar, barTest, baz);
+    assertThat(fs.inputFiles(p.and(p.hasLanguages("php", "java"), p.hasType(InputFile.Type.MAIN)))).containsExactly(foo, bar, baz);
+    assertThat(fs.inputFiles(p.and(p.hasType(InputFile.Type.TEST), p.hasLanguage("java")))).containsExactly(barTest);
+    assertThat(fs.inputFiles(p.and(p.hasLanguage("php"), p.not(p.hasFilename("Foo.php"))))).containsExactly(baz);
+    assertThat(fs.inputFiles(p.or(p.hasLanguage("java"), p.not(p.hasType(InputFile.Type.MAIN))))).containsExactly(bar, barTest);
+    assertThat(fs.inputFiles(p.hasFilename("Unknown.java"))).isEmpty();
+    assertThat(fs.inputFiles(p.and(p.hasExtension("txt"), p.hasLanguage("java")))).isEmpty();
+  }
+
+  @Test
+  void should_only_filter_files_of_the_most_selective_index() {
+    var javaFile = spy(new TestInputFileBuilder("src/Bar.java").setBaseDir(basedir).setLanguage(Language.JAVA).build());
+    var phpFile = spy(new TestInputFileBuilder("src/Foo.php").setBaseDir(basedir).setLanguage(Language.PHP).build());
+    inputFileCache.doAdd(javaFile);
+    inputFileCache.doAdd(phpFile);
+    var p = fs.predicates();
+
+    assertThat(fs.inputFiles(p.and(p.hasType(InputFile.Type.MAIN), p.hasLanguage("php")))).containsExactly(phpFile);
+
+    // only called when indexing the file
+    verify(javaFile, times(1)).type();
+  }
+
   @Test
   void input_file_returns_null_if_file_not_found() {
     assertThat(fs.inputFile(fs.predicates().hasLanguage("cobol"))).isNull();
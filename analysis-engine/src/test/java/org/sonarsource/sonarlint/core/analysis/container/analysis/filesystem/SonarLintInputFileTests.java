@@ -28,6 +28,8 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -111,4 +113,26 @@ class SonarLintInputFileTests {
     assertThat(file.newRange(file.newPointer(1, 0), file.newPointer(1, 1)).overlap(file.newRange(file.newPointer(1, 1), file.newPointer(1, 2)))).isFalse();
     assertThat(file.newRange(file.newPointer(1, 2), file.newPointer(1, 3)).overlap(file.newRange(file.newPointer(1, 0), file.newPointer(1, 2)))).isFalse();
   }
+  @Test
+  void should_track_nosonar_lines_and_ignored_line_ranges() {
+    ClientInputFile inputFile = new InMemoryTestClientInputFile("foo", "src/Foo.php", null, false, null);
+    var file = new SonarLintInputFile(inputFile, f -> mock(FileMetadata.Metadata.class));
+
+    assertThat(file.hasNoSonarAt(1)).isFalse();
+    file.noSonarAt(Set.of(3, 70_000));
+    assertThat(file.hasNoSonarAt(3)).isTrue();
+    assertThat(file.hasNoSonarAt(70_000)).isTrue();
+    assertThat(file.hasNoSonarAt(4)).isFalse();
+    assertThat(file.hasNoSonarAt(-1)).isFalse();
+
+    assertThat(file.isIgnoreAllIssuesOnLine(2)).isFalse();
+    file.addIgnoreIssuesOnLineRanges(List.of(new int[] {2, 4}));
+    file.addIgnoreIssuesOnLineRanges(List.of(new int[] {10, 12}, new int[] {5, 6}));
+    assertThat(file.isIgnoreAllIssuesOnLine(null)).isFalse();
+    assertThat(file.isIgnoreAllIssuesOnLine(1)).isFalse();
+    assertThat(file.isIgnoreAllIssuesOnLine(6)).isTrue();
+    assertThat(file.isIgnoreAllIssuesOnLine(7)).isFalse();
+    assertThat(file.isIgnoreAllIssuesOnLine(12)).isTrue();
+    assertThat(file.ignoreIssuesOnLineRanges()).containsExactly(new int[] {2, 6}, new int[] {10, 12});
+  }
 }
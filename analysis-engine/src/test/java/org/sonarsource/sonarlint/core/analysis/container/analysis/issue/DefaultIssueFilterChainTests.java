@@ -0,0 +1,117 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.issue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.scan.issue.filter.FilterableIssue;
+import org.sonar.api.scan.issue.filter.IssueFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultIssueFilterChainTests {
+
+  private final FilterableIssue issue = mock(FilterableIssue.class);
+  private final List<String> calls = new ArrayList<>();
+
+  @Test
+  void should_accept_when_no_filters() {
+    assertThat(new DefaultIssueFilterChain().accept(issue)).isTrue();
+  }
+
+  @Test
+  void should_call_filters_in_order_until_one_rejects() {
+    var chain = new DefaultIssueFilterChain(passing("first"), rejecting("second"), passing("third"));
+
+    assertThat(chain.accept(issue)).isFalse();
+    assertThat(chain.accept(issue)).isFalse();
+
+    assertThat(calls).containsExactly("first", "second", "first", "second");
+  }
+
+  @Test
+  void should_let_filters_call_the_rest_of_the_chain_several_times() {
+    IssueFilter callingTwice = (i, chain) -> chain.accept(i) && chain.accept(i);
+    var chain = new DefaultIssueFilterChain(callingTwice, passing("last"));
+
+    assertThat(chain.accept(issue)).isTrue();
+
+    assertThat(calls).containsExactly("last", "last");
+  }
+
+  @Test
+  void should_start_from_first_filter_when_called_from_a_filter() {
+    var nested = new DefaultIssueFilterChain[1];
+    IssueFilter reentrant = (i, chain) -> {
+      if (calls.isEmpty()) {
+        calls.add("reentrant");
+        nested[0].accept(i);
+      }
+      return chain.accept(i);
+    };
+    nested[0] = new DefaultIssueFilterChain(reentrant, passing("last"));
+
+    assertThat(nested[0].accept(issue)).isTrue();
+
+    assertThat(calls).containsExactly("reentrant", "last", "last");
+  }
+
+  @Test
+  void should_be_shareable_between_threads() throws Exception {
+    IssueFilter yielding = (i, chain) -> {
+      Thread.yield();
+      return chain.accept(i);
+    };
+    var chain = new DefaultIssueFilterChain(yielding, yielding, (i, c) -> i.line() % 2 == 0);
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (var line = 0; line < 1000; line++) {
+        var lineIssue = mock(FilterableIssue.class);
+        when(lineIssue.line()).thenReturn(line);
+        results.add(executor.submit(() -> chain.accept(lineIssue)));
+      }
+      for (var line = 0; line < results.size(); line++) {
+        assertThat(results.get(line).get()).isEqualTo(line % 2 == 0);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private IssueFilter passing(String name) {
+    return (i, chain) -> {
+      calls.add(name);
+      return chain.accept(i);
+    };
+  }
+
+  private IssueFilter rejecting(String name) {
+    return (i, chain) -> {
+      calls.add(name);
+      return false;
+    };
+  }
+}
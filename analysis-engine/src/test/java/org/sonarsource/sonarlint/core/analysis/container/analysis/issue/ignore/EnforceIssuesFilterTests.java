@@ -38,6 +38,7 @@ import testutils.OnDiskTestClientInputFile;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -70,10 +71,12 @@ class EnforceIssuesFilterTests {
     var ruleKey = mock(RuleKey.class);
     when(ruleKey.toString()).thenReturn(rule);
     when(issue.ruleKey()).thenReturn(ruleKey);
+    when(issue.ruleKeyString()).thenReturn(rule);
 
     var matching = mock(IssuePattern.class);
-    when(matching.matchRule(ruleKey)).thenReturn(false);
+    when(matching.matchRule(rule)).thenReturn(false);
     when(exclusionPatternInitializer.getMulticriteriaPatterns()).thenReturn(List.of(matching));
+    when(issue.getComponent()).thenReturn(createComponentWithPath("org/sonar/api/Issue.java"));
 
     ignoreFilter = new EnforceIssuesFilter(exclusionPatternInitializer);
     assertThat(ignoreFilter.accept(issue, chain)).isTrue();
@@ -87,9 +90,10 @@ class EnforceIssuesFilterTests {
     var ruleKey = mock(RuleKey.class);
     when(ruleKey.toString()).thenReturn(rule);
     when(issue.ruleKey()).thenReturn(ruleKey);
+    when(issue.ruleKeyString()).thenReturn(rule);
 
     var matching = mock(IssuePattern.class);
-    when(matching.matchRule(ruleKey)).thenReturn(true);
+    when(matching.matchRule(rule)).thenReturn(true);
     when(matching.matchFile(path)).thenReturn(true);
     when(exclusionPatternInitializer.getMulticriteriaPatterns()).thenReturn(List.of(matching));
     when(issue.getComponent()).thenReturn(createComponentWithPath(path));
@@ -112,10 +116,11 @@ class EnforceIssuesFilterTests {
     var ruleKey = mock(RuleKey.class);
     when(ruleKey.toString()).thenReturn(rule);
     when(issue.ruleKey()).thenReturn(ruleKey);
+    when(issue.ruleKeyString()).thenReturn(rule);
     when(issue.componentKey()).thenReturn(componentKey);
 
     var matching = mock(IssuePattern.class);
-    when(matching.matchRule(ruleKey)).thenReturn(true);
+    when(matching.matchRule(rule)).thenReturn(true);
     when(matching.matchFile(path)).thenReturn(false);
     when(exclusionPatternInitializer.getMulticriteriaPatterns()).thenReturn(List.of(matching));
     when(issue.getComponent()).thenReturn(createComponentWithPath(path));
@@ -133,9 +138,10 @@ class EnforceIssuesFilterTests {
     var ruleKey = mock(RuleKey.class);
     when(ruleKey.toString()).thenReturn(rule);
     when(issue.ruleKey()).thenReturn(ruleKey);
+    when(issue.ruleKeyString()).thenReturn(rule);
 
     var matching = mock(IssuePattern.class);
-    when(matching.matchRule(ruleKey)).thenReturn(true);
+    when(matching.matchRule(rule)).thenReturn(true);
     when(matching.matchFile(path)).thenReturn(true);
     when(exclusionPatternInitializer.getMulticriteriaPatterns()).thenReturn(List.of(matching));
     when(issue.getComponent()).thenReturn(new SonarLintInputProject());
@@ -144,4 +150,24 @@ class EnforceIssuesFilterTests {
     assertThat(ignoreFilter.accept(issue, chain)).isFalse();
     verifyNoInteractions(chain);
   }
+
+  @Test
+  void shouldResolvePatternsOncePerFileAndRule() {
+    var rule = "rule";
+    var path = "org/sonar/api/Issue.java";
+    when(issue.ruleKeyString()).thenReturn(rule);
+
+    var matching = mock(IssuePattern.class);
+    when(matching.matchRule(rule)).thenReturn(true);
+    when(matching.matchFile(path)).thenReturn(true);
+    when(exclusionPatternInitializer.getMulticriteriaPatterns()).thenReturn(List.of(matching));
+    when(issue.getComponent()).thenReturn(createComponentWithPath(path));
+
+    ignoreFilter = new EnforceIssuesFilter(exclusionPatternInitializer);
+    assertThat(ignoreFilter.accept(issue, chain)).isTrue();
+    assertThat(ignoreFilter.accept(issue, chain)).isTrue();
+
+    verify(matching, times(1)).matchRule(rule);
+    verify(matching, times(1)).matchFile(path);
+  }
 }
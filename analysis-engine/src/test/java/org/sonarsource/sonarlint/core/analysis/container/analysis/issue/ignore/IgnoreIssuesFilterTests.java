@@ -30,6 +30,7 @@ import org.sonarsource.sonarlint.core.analysis.sonarapi.DefaultFilterableIssue;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -46,6 +47,7 @@ import static org.mockito.Mockito.when;
     component = mock(SonarLintInputFile.class);
     when(issue.getComponent()).thenReturn(component);
     when(issue.ruleKey()).thenReturn(ruleKey);
+    when(issue.ruleKeyString()).thenReturn(ruleKey.toString());
   }
 
   @Test
@@ -72,4 +74,16 @@ import static org.mockito.Mockito.when;
 
     assertThat(underTest.accept(issue, chain)).isFalse();
   }
+
+  @Test
+  void shouldMatchRulePatternsOncePerFileAndRule() {
+    var pattern = mock(WildcardPattern.class);
+    when(pattern.match(ruleKey.toString())).thenReturn(true);
+    underTest.addRuleExclusionPatternForComponent(component, pattern);
+
+    assertThat(underTest.accept(issue, chain)).isFalse();
+    assertThat(underTest.accept(issue, chain)).isFalse();
+
+    verify(pattern, times(1)).match(ruleKey.toString());
+  }
 }
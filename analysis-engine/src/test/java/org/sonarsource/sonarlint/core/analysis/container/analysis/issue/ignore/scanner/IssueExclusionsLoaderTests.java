@@ -28,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata.Metadata;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.SonarLintInputFile;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.IgnoreIssuesFilter;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.pattern.BlockIssuePattern;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.pattern.IssueExclusionPatternInitializer;
 import org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.pattern.IssuePattern;
 import testutils.OnDiskTestClientInputFile;
@@ -72,6 +73,16 @@ class IssueExclusionsLoaderTests {
 
   }
 
+  @Test
+  void exclusionPatterns() {
+    assertThat(scanner.exclusionPatterns()).isEmpty();
+
+    when(exclusionPatternInitializer.getAllFilePatterns()).thenReturn(Collections.singletonList("pattern"));
+    when(exclusionPatternInitializer.getBlockPatterns()).thenReturn(Collections.singletonList(new BlockIssuePattern("begin", "end")));
+    scanner = new IssueExclusionsLoader(exclusionPatternInitializer, ignoreIssuesFilter);
+    assertThat(scanner.exclusionPatterns()).containsExactly("pattern", "begin", "end");
+  }
+
   @Test
   void populateRuleExclusionPatterns() {
     var pattern1 = new IssuePattern("org/foo/Bar*.java", "*");
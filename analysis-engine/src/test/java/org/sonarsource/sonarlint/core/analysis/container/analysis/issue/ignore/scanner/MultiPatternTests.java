@@ -0,0 +1,83 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.analysis.issue.ignore.scanner;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiPatternTests {
+
+  @Test
+  void should_find_nothing_without_patterns() {
+    var multiPattern = compile();
+
+    assertThat(multiPattern.isEmpty()).isTrue();
+    assertThat(multiPattern.matcher().firstFoundIn("anything")).isEqualTo(-1);
+  }
+
+  @Test
+  void should_find_first_declared_literal() {
+    var matcher = compile("@generated", "NOSONAR", "gen").matcher();
+
+    assertThat(matcher.firstFoundIn("// code NOSONAR @generated")).isZero();
+    assertThat(matcher.firstFoundIn("// gen NOSONAR")).isEqualTo(1);
+    assertThat(matcher.firstFoundIn("// gen")).isEqualTo(2);
+    assertThat(matcher.firstFoundIn("// NOSONA")).isEqualTo(-1);
+    assertThat(matcher.firstFoundIn("")).isEqualTo(-1);
+  }
+
+  @Test
+  void should_find_first_declared_regexp() {
+    var multiPattern = compile("@SONAR-IGNORE-ALL", "gen[a-z]+ted", "foo.*bar");
+    var matcher = multiPattern.matcher();
+
+    assertThat(matcher.firstFoundIn("foo generated bar")).isEqualTo(1);
+    assertThat(matcher.firstFoundIn(new StringBuilder("foo - bar"))).isEqualTo(2);
+    assertThat(matcher.firstFoundIn("nothing to see")).isEqualTo(-1);
+    assertThat(multiPattern.get(1).pattern()).isEqualTo("gen[a-z]+ted");
+  }
+
+  @Test
+  void should_evaluate_patterns_that_cant_be_combined() {
+    var matcher = compile("(a)\\1", "(?<name>b)c", "(?<name>d)e", "(?i)CASE").matcher();
+
+    assertThat(matcher.firstFoundIn("xaax")).isZero();
+    assertThat(matcher.firstFoundIn("xabx")).isEqualTo(-1);
+    assertThat(matcher.firstFoundIn("de")).isEqualTo(2);
+    assertThat(matcher.firstFoundIn("case")).isEqualTo(3);
+  }
+
+  @Test
+  void should_keep_flags_of_patterns() {
+    var matcher = MultiPattern.compile(List.of(Pattern.compile("foo"), Pattern.compile("bar", Pattern.CASE_INSENSITIVE))).matcher();
+
+    assertThat(matcher.firstFoundIn("BAR")).isEqualTo(1);
+    assertThat(matcher.firstFoundIn("FOO")).isEqualTo(-1);
+  }
+
+  private static MultiPattern compile(String... regexps) {
+    return MultiPattern.compile(Stream.of(regexps).map(Pattern::compile).collect(Collectors.toList()));
+  }
+}
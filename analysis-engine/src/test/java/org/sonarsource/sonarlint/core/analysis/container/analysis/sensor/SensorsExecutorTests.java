@@ -19,16 +19,35 @@
  */
 package org.sonarsource.sonarlint.core.analysis.container.analysis.sensor;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.sonar.api.SonarRuntime;
+import org.sonar.api.batch.Phase;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorStorage;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.config.Settings;
+import org.sonar.api.rule.RuleKey;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisTimings;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.SonarLintInputProject;
+import org.sonarsource.sonarlint.core.analysis.sonarapi.DefaultSensorContext;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogTester;
 import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -38,6 +57,9 @@ class SensorsExecutorTests {
   @RegisterExtension
   SonarLintLogTester logTester = new SonarLintLogTester();
 
+  private final SonarLintSensorStorage sensorStorage = mock(SonarLintSensorStorage.class);
+  private final DefaultSensorContext context = newContext(sensorStorage);
+
   private static class MyClass {
     @Override
     public String toString() {
@@ -65,13 +87,220 @@ class SensorsExecutorTests {
   void testThrowingSensorShouldBeLogged() {
     var sensorOptimizer = mock(SensorOptimizer.class);
     when(sensorOptimizer.shouldExecute(any())).thenReturn(true);
-    var executor = new SensorsExecutor(null, sensorOptimizer, new ProgressMonitor(null), new Sensor[] {new ThrowingSensor()});
+    var executor = new SensorsExecutor(context, sensorOptimizer, new ProgressMonitor(null), new Sensor[] {new ThrowingSensor()});
 
     executor.execute();
 
     assertThat(logTester.logs(ClientLogOutput.Level.ERROR)).contains("Error executing sensor: 'Throwing sensor'");
   }
 
+  @Test
+  void should_record_sensor_timings() {
+    var sensorOptimizer = mock(SensorOptimizer.class);
+    when(sensorOptimizer.shouldExecute(any())).thenReturn(true);
+    when(sensorStorage.storeAndCheckReported(any())).thenReturn(true, false, true, true, true);
+    var analysisResults = new AnalysisResults();
+
+    new SensorsExecutor(context, sensorOptimizer, new ProgressMonitor(null), new SensorsExecutionPlanCache(), new SensorsExecutionPool(1), analysisResults,
+      new Sensor[] {new ThrowingSensor(), new IssueReportingSensor(5)}).execute();
+
+    // one of the issues was filtered out
+    assertThat(analysisResults.timings().sensorTimings())
+      .extracting(AnalysisTimings.SensorTiming::getSensorName, AnalysisTimings.SensorTiming::getIssueCount)
+      .containsExactly(tuple("Throwing sensor", 0), tuple("Issue reporting sensor", 4));
+  }
+
+  @Test
+  void should_reuse_execution_plan_for_new_instances_of_same_sensors() {
+    var sensorOptimizer = mock(SensorOptimizer.class);
+    when(sensorOptimizer.shouldExecute(any())).thenReturn(true);
+    var planCache = new SensorsExecutionPlanCache();
+    var first = new CountingSensor();
+    var second = new CountingSensor();
+
+    new SensorsExecutor(context, sensorOptimizer, new ProgressMonitor(null), planCache, new SensorsExecutionPool(1), new AnalysisResults(), new Sensor[] {first}).execute();
+    new SensorsExecutor(context, sensorOptimizer, new ProgressMonitor(null), planCache, new SensorsExecutionPool(1), new AnalysisResults(), new Sensor[] {second}).execute();
+
+    assertThat(first.describeCount).isEqualTo(1);
+    assertThat(first.executeCount).isEqualTo(1);
+    assertThat(second.describeCount).isZero();
+    assertThat(second.executeCount).isEqualTo(1);
+  }
+
+  @Test
+  void should_execute_sensors_in_phase_order() {
+    var sensorOptimizer = mock(SensorOptimizer.class);
+    when(sensorOptimizer.shouldExecute(any())).thenReturn(true);
+    List<String> executed = new ArrayList<>();
+    var planCache = new SensorsExecutionPlanCache();
+
+    for (var i = 0; i < 2; i++) {
+      new SensorsExecutor(context, sensorOptimizer, new ProgressMonitor(null), planCache, new SensorsExecutionPool(1), new AnalysisResults(),
+        new Sensor[] {new PostSensor(executed), new PreSensor(executed)}).execute();
+    }
+
+    assertThat(executed).containsExactly("pre", "post", "pre", "post");
+  }
+
+  @Test
+  void should_execute_independent_sensors_concurrently_and_respect_phases() throws Exception {
+    var sensorOptimizer = mock(SensorOptimizer.class);
+    when(sensorOptimizer.shouldExecute(any())).thenReturn(true);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    var bothStarted = new CountDownLatch(2);
+    var pool = new SensorsExecutionPool(2);
+    try {
+      new SensorsExecutor(context, sensorOptimizer, new ProgressMonitor(null), new SensorsExecutionPlanCache(), pool, new AnalysisResults(),
+        new Sensor[] {new PostSensor(executed), new WaitingSensor("a", bothStarted, executed), new WaitingSensor("b", bothStarted, executed), new PreSensor(executed)})
+          .execute();
+    } finally {
+      pool.stop();
+    }
+
+    assertThat(executed).hasSize(4);
+    assertThat(executed.get(0)).isEqualTo("pre");
+    assertThat(executed.subList(1, 3)).containsExactlyInAnyOrder("a", "b");
+    assertThat(executed.get(3)).isEqualTo("post");
+  }
+
+  @Test
+  void should_isolate_errors_of_concurrent_sensors() {
+    var sensorOptimizer = mock(SensorOptimizer.class);
+    when(sensorOptimizer.shouldExecute(any())).thenReturn(true);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    var pool = new SensorsExecutionPool(2);
+    try {
+      new SensorsExecutor(context, sensorOptimizer, new ProgressMonitor(null), new SensorsExecutionPlanCache(), pool, new AnalysisResults(),
+        new Sensor[] {new ThrowingSensor(), new PostSensor(executed)}).execute();
+    } finally {
+      pool.stop();
+    }
+
+    assertThat(executed).containsExactly("post");
+    assertThat(logTester.logs(ClientLogOutput.Level.ERROR)).contains("Error executing sensor: 'Throwing sensor'");
+  }
+
+  private static DefaultSensorContext newContext(SensorStorage sensorStorage) {
+    var fileSystem = mock(FileSystem.class);
+    when(fileSystem.baseDir()).thenReturn(new File("."));
+    return new DefaultSensorContext(mock(SonarLintInputProject.class), mock(Settings.class), mock(Configuration.class), fileSystem, mock(ActiveRules.class),
+      sensorStorage, mock(SonarRuntime.class), new ProgressMonitor(null));
+  }
+
+  private static class WaitingSensor implements Sensor {
+    private final String name;
+    private final CountDownLatch bothStarted;
+    private final List<String> executed;
+
+    private WaitingSensor(String name, CountDownLatch bothStarted, List<String> executed) {
+      this.name = name;
+      this.bothStarted = bothStarted;
+      this.executed = executed;
+    }
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor.name(name);
+    }
+
+    @Override
+    public void execute(SensorContext context) {
+      bothStarted.countDown();
+      try {
+        // only succeeds if the other sensor is executed at the same time
+        assertThat(bothStarted.await(10, TimeUnit.SECONDS)).isTrue();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      executed.add(name);
+    }
+  }
+
+  private static class IssueReportingSensor implements Sensor {
+    private final int issueCount;
+
+    private IssueReportingSensor(int issueCount) {
+      this.issueCount = issueCount;
+    }
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor.name("Issue reporting sensor");
+    }
+
+    @Override
+    public void execute(SensorContext context) {
+      // issues reported by threads of the sensor are attributed to it as well
+      var worker = new Thread(() -> reportIssues(context, issueCount / 2));
+      worker.start();
+      reportIssues(context, issueCount - issueCount / 2);
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private static void reportIssues(SensorContext context, int count) {
+      for (var i = 0; i < count; i++) {
+        context.newIssue().forRule(RuleKey.of("repo", "rule")).save();
+      }
+    }
+  }
+
+  private static class CountingSensor implements Sensor {
+    private int describeCount;
+    private int executeCount;
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      describeCount++;
+    }
+
+    @Override
+    public void execute(SensorContext context) {
+      executeCount++;
+    }
+  }
+
+  @Phase(name = Phase.Name.PRE)
+  private static class PreSensor implements Sensor {
+    private final List<String> executed;
+
+    private PreSensor(List<String> executed) {
+      this.executed = executed;
+    }
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor.name("pre");
+    }
+
+    @Override
+    public void execute(SensorContext context) {
+      executed.add("pre");
+    }
+  }
+
+  @Phase(name = Phase.Name.POST)
+  private static class PostSensor implements Sensor {
+    private final List<String> executed;
+
+    private PostSensor(List<String> executed) {
+      this.executed = executed;
+    }
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor.name("post");
+    }
+
+    @Override
+    public void execute(SensorContext context) {
+      executed.add("post");
+    }
+  }
+
   private static class ThrowingSensor implements Sensor {
     @Override
     public void describe(SensorDescriptor descriptor) {
@@ -44,6 +44,7 @@ import org.sonarsource.sonarlint.plugin.api.SonarLintRuntime;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -135,6 +136,30 @@ class AnalysisExtensionInstallerTests {
     verify(container).addExtension(FAKE_PLUGIN_KEY, FakeSonarLintModuleLifespanComponent.class);
   }
 
+  @Test
+  void define_plugin_extensions_only_once_per_lifespan() {
+    var plugin = new FakePlugin();
+    when(pluginRepository.getPluginInstancesByKeys()).thenReturn(Map.of(FAKE_PLUGIN_KEY, plugin));
+
+    underTest.install(container, ContainerLifespan.ANALYSIS);
+    underTest.install(container, ContainerLifespan.ANALYSIS);
+    underTest.install(container, ContainerLifespan.MODULE);
+
+    verify(container, times(2)).addExtension(FAKE_PLUGIN_KEY, FakeSonarLintDefaultLifespanComponent.class);
+    assertThat(plugin.defineCount).isEqualTo(2);
+  }
+
+  @Test
+  void define_plugin_extensions_again_when_plugin_provides_instances() {
+    var plugin = new FakePlugin(new FakeSonarLintDefaultLifespanComponent());
+    when(pluginRepository.getPluginInstancesByKeys()).thenReturn(Map.of(FAKE_PLUGIN_KEY, plugin));
+
+    underTest.install(container, ContainerLifespan.ANALYSIS);
+    underTest.install(container, ContainerLifespan.ANALYSIS);
+
+    assertThat(plugin.defineCount).isEqualTo(2);
+  }
+
   @Test
   void install_sensors_for_sonarsource_plugins() {
     when(pluginRepository.getPluginInstancesByKeys()).thenReturn(Map.of(JAVA_PLUGIN_KEY, new FakePlugin()));
@@ -217,6 +242,7 @@ class AnalysisExtensionInstallerTests {
 
   private static class FakePlugin implements Plugin {
     private final Object component;
+    private int defineCount;
 
     private FakePlugin() {
       this(FakeSonarLintDefaultLifespanComponent.class);
@@ -228,6 +254,7 @@ class AnalysisExtensionInstallerTests {
 
     @Override
     public void define(Context context) {
+      defineCount++;
       context.addExtension(component);
       context.addExtension(FakeSensor.class);
       context.addExtension(TypeScriptSensor.class);
@@ -0,0 +1,117 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.global;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.Plugin;
+import org.sonar.api.utils.Version;
+import org.sonarsource.api.sonarlint.SonarLintSide;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisEngineConfiguration;
+import org.sonarsource.sonarlint.core.analysis.sonarapi.MapSettings;
+import org.sonarsource.sonarlint.core.plugin.commons.PluginInstancesRepository;
+import org.sonarsource.sonarlint.core.plugin.commons.pico.ComponentContainer;
+import org.sonarsource.sonarlint.core.plugin.commons.sonarapi.SonarLintRuntimeImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransientModuleContainerPoolTests {
+
+  private final AtomicLong now = new AtomicLong();
+  private ComponentContainer parent;
+  private TransientModuleContainerPool pool;
+
+  @AfterEach
+  void stop() {
+    if (pool != null) {
+      pool.stopAll();
+    }
+    parent.stopComponents();
+  }
+
+  @Test
+  void should_reuse_released_container() {
+    pool = newPool(Map.of());
+
+    var container = pool.acquire(List.of());
+    pool.release(container, true);
+
+    assertThat(pool.idleCount()).isEqualTo(1);
+    assertThat(pool.acquire(List.of())).isSameAs(container);
+  }
+
+  @Test
+  void should_not_keep_containers_with_module_lifespan_plugin_components() {
+    pool = newPool(Map.of("foo", new ModuleComponentPlugin()));
+
+    var container = pool.acquire(List.of());
+    assertThat(container.hasPluginComponents()).isTrue();
+    pool.release(container, true);
+
+    assertThat(pool.idleCount()).isZero();
+    var other = pool.acquire(List.of());
+    assertThat(other).isNotSameAs(container);
+    assertThat(other.getComponentByType(ModuleComponent.class)).isNotSameAs(container.getComponentByType(ModuleComponent.class));
+    pool.release(other, true);
+    assertThat(pool.idleCount()).isZero();
+  }
+
+  @Test
+  void should_stop_expired_containers_without_further_use_of_the_pool() {
+    pool = newPool(Map.of());
+    pool.release(pool.acquire(List.of()), true);
+
+    now.addAndGet(Duration.ofMinutes(1).toNanos());
+    pool.stopExpiredContainers();
+    assertThat(pool.idleCount()).isEqualTo(1);
+
+    now.addAndGet(Duration.ofMinutes(1).toNanos());
+    pool.stopExpiredContainers();
+    assertThat(pool.idleCount()).isZero();
+  }
+
+  private TransientModuleContainerPool newPool(Map<String, Plugin> plugins) {
+    var pluginRepository = mock(PluginInstancesRepository.class);
+    when(pluginRepository.getPluginInstancesByKeys()).thenReturn(plugins);
+    var runtime = new SonarLintRuntimeImpl(Version.create(8, 0), Version.create(5, 4, 0), 123L);
+    var configuration = new MapSettings(Map.of()).asConfig();
+    parent = new ComponentContainer();
+    parent.add(configuration, new AnalysisExtensionInstaller(runtime, pluginRepository, configuration, AnalysisEngineConfiguration.builder().build()));
+    parent.startComponents();
+    return new TransientModuleContainerPool(parent, 2, Duration.ofMinutes(2), now::get);
+  }
+
+  private static class ModuleComponentPlugin implements Plugin {
+    @Override
+    public void define(Context context) {
+      context.addExtension(ModuleComponent.class);
+    }
+  }
+
+  @SonarLintSide(lifespan = "MODULE")
+  public static class ModuleComponent {
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.module;
+
+import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileEvent;
+import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent;
+import testutils.InMemoryTestClientInputFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent.Type.CREATED;
+import static org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent.Type.DELETED;
+import static org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent.Type.MODIFIED;
+
+class ModuleFileEventBatchTests {
+
+  private final ModuleFileEventBatch batch = new ModuleFileEventBatch();
+
+  @Test
+  void should_keep_events_on_different_files_in_order() {
+    batch.add(event("B.py", MODIFIED));
+    batch.add(event("A.py", CREATED));
+    batch.add(event("C.py", DELETED));
+
+    assertThat(batch.events())
+      .extracting(e -> e.target().relativePath(), ClientModuleFileEvent::type)
+      .containsExactly(tuple("B.py", MODIFIED), tuple("A.py", CREATED), tuple("C.py", DELETED));
+  }
+
+  @Test
+  void should_collapse_successive_events_on_the_same_file() {
+    assertThat(collapse(CREATED, MODIFIED)).isEqualTo(CREATED);
+    assertThat(collapse(CREATED, CREATED)).isEqualTo(CREATED);
+    assertThat(collapse(MODIFIED, MODIFIED)).isEqualTo(MODIFIED);
+    assertThat(collapse(MODIFIED, CREATED)).isEqualTo(MODIFIED);
+    assertThat(collapse(MODIFIED, DELETED)).isEqualTo(DELETED);
+    assertThat(collapse(DELETED, CREATED)).isEqualTo(MODIFIED);
+    assertThat(collapse(DELETED, DELETED)).isEqualTo(DELETED);
+    assertThat(collapse(CREATED, MODIFIED, DELETED)).isNull();
+  }
+
+  @Test
+  void should_keep_the_latest_target() {
+    var latest = event("A.py", MODIFIED);
+    batch.add(event("A.py", CREATED));
+    batch.add(latest);
+
+    assertThat(batch.events()).extracting(ClientModuleFileEvent::target).containsExactly(latest.target());
+  }
+
+  @Test
+  void should_merge_batches() {
+    batch.add(event("A.py", CREATED));
+    var other = new ModuleFileEventBatch();
+    other.add(event("A.py", DELETED));
+    other.add(event("B.py", CREATED));
+
+    batch.addAll(other);
+
+    assertThat(batch.size()).isEqualTo(1);
+    assertThat(batch.events()).extracting(e -> e.target().relativePath(), ClientModuleFileEvent::type).containsExactly(tuple("B.py", CREATED));
+  }
+
+  private static ModuleFileEvent.Type collapse(ModuleFileEvent.Type... types) {
+    var collapsingBatch = new ModuleFileEventBatch();
+    for (ModuleFileEvent.Type type : types) {
+      collapsingBatch.add(event("A.py", type));
+    }
+    return collapsingBatch.events().isEmpty() ? null : collapsingBatch.events().get(0).type();
+  }
+
+  private static ClientModuleFileEvent event(String relativePath, ModuleFileEvent.Type type) {
+    return ClientModuleFileEvent.of(new InMemoryTestClientInputFile("", relativePath, null, false, null), type);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * SonarLint Core - Analysis Engine
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.analysis.container.module;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileEvent;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadata;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.FileMetadataCache;
+import org.sonarsource.sonarlint.core.analysis.container.analysis.filesystem.LanguageDetection;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent;
+import testutils.OnDiskTestClientInputFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ModuleInputFileCacheTests {
+
+  private final LanguageDetection langDetection = mock(LanguageDetection.class);
+  private final ModuleInputFileCache cache = new ModuleInputFileCache(new ModuleInputFileBuilder(langDetection, new FileMetadata()));
+
+  @TempDir
+  private Path tempDir;
+
+  @Test
+  void should_reuse_input_files_by_uri() {
+    when(langDetection.language(any(InputFile.class))).thenReturn(Language.JAVA);
+    var path = tempDir.resolve("Foo.java");
+
+    var first = cache.getOrCreate(new OnDiskTestClientInputFile(path, "Foo.java", false, StandardCharsets.UTF_8));
+    var second = cache.getOrCreate(new OnDiskTestClientInputFile(path, "Foo.java", false, StandardCharsets.UTF_8));
+
+    assertThat(second).isSameAs(first);
+    assertThat(cache.size()).isEqualTo(1);
+    verify(langDetection, times(1)).language(any(InputFile.class));
+  }
+
+  @Test
+  void should_not_reuse_input_files_of_other_editor_buffers() {
+    var path = tempDir.resolve("Foo.java");
+
+    var first = cache.getOrCreate(bufferFile(path, null));
+    var second = cache.getOrCreate(bufferFile(path, null));
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void should_reuse_input_files_of_same_editor_buffer_instance() {
+    var clientFile = bufferFile(tempDir.resolve("Foo.java"), null);
+
+    var first = cache.getOrCreate(clientFile);
+
+    assertThat(cache.getOrCreate(clientFile)).isSameAs(first);
+  }
+
+  @Test
+  void should_reuse_input_files_by_content_version() {
+    var path = tempDir.resolve("Foo.java");
+
+    var first = cache.getOrCreate(bufferFile(path, "1"));
+
+    assertThat(cache.getOrCreate(bufferFile(path, "1"))).isSameAs(first);
+    assertThat(cache.getOrCreate(bufferFile(path, "2"))).isNotSameAs(first);
+  }
+
+  @Test
+  void should_not_reuse_input_files_when_properties_changed() {
+    var path = tempDir.resolve("Foo.java");
+
+    var first = cache.getOrCreate(new OnDiskTestClientInputFile(path, "Foo.java", false, StandardCharsets.UTF_8));
+
+    assertThat(cache.getOrCreate(new OnDiskTestClientInputFile(path, "Foo.java", true, StandardCharsets.UTF_8))).isNotSameAs(first);
+    assertThat(cache.getOrCreate(new OnDiskTestClientInputFile(path, "Foo.java", true, StandardCharsets.UTF_16))).isNotSameAs(first);
+  }
+
+  @Test
+  void should_evict_least_recently_used_input_files() {
+    var boundedCache = new ModuleInputFileCache(new ModuleInputFileBuilder(langDetection, new FileMetadata()), 2);
+    var foo = new OnDiskTestClientInputFile(tempDir.resolve("Foo.java"), "Foo.java", false, StandardCharsets.UTF_8);
+    var bar = new OnDiskTestClientInputFile(tempDir.resolve("Bar.java"), "Bar.java", false, StandardCharsets.UTF_8);
+    var baz = new OnDiskTestClientInputFile(tempDir.resolve("Baz.java"), "Baz.java", false, StandardCharsets.UTF_8);
+    var fooInputFile = boundedCache.getOrCreate(foo);
+    var barInputFile = boundedCache.getOrCreate(bar);
+    // touch foo so that bar is the least recently used
+    boundedCache.getOrCreate(foo);
+
+    boundedCache.getOrCreate(baz);
+
+    assertThat(boundedCache.size()).isEqualTo(2);
+    assertThat(boundedCache.getOrCreate(foo)).isSameAs(fooInputFile);
+    assertThat(boundedCache.getOrCreate(bar)).isNotSameAs(barInputFile);
+  }
+
+  @Test
+  void should_drop_input_files_on_file_events() {
+    var path = tempDir.resolve("Foo.java");
+    var clientFile = new OnDiskTestClientInputFile(path, "Foo.java", false, StandardCharsets.UTF_8);
+    var first = cache.getOrCreate(clientFile);
+    var notifier = new ModuleFileEventNotifier(new ModuleInputFileBuilder(langDetection, new FileMetadata()),
+      new FileMetadataCache(), cache);
+
+    notifier.fireModuleFileEvent(ClientModuleFileEvent.of(clientFile, ModuleFileEvent.Type.MODIFIED));
+
+    assertThat(cache.size()).isZero();
+    assertThat(cache.getOrCreate(clientFile)).isNotSameAs(first);
+  }
+
+  @Test
+  void should_clear() {
+    cache.getOrCreate(new OnDiskTestClientInputFile(tempDir.resolve("Foo.java"), "Foo.java", false, StandardCharsets.UTF_8));
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+  }
+
+  private static ClientInputFile bufferFile(Path path, @Nullable String version) {
+    return new OnDiskTestClientInputFile(path, "Foo.java", false, StandardCharsets.UTF_8) {
+      @Override
+      public boolean isOnFileSystem() {
+        return false;
+      }
+
+      @Override
+      public String contentVersion() {
+        return version;
+      }
+    };
+  }
+}
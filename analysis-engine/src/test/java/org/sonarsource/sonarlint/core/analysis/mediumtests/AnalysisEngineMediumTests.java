@@ -31,6 +31,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -43,6 +49,7 @@ import org.sonarsource.sonarlint.core.analysis.AnalysisEngine;
 import org.sonarsource.sonarlint.core.analysis.api.ActiveRule;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisConfiguration;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisEngineConfiguration;
+import org.sonarsource.sonarlint.core.analysis.api.AnalysisTimings;
 import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileSystem;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModuleInfo;
@@ -50,6 +57,7 @@ import org.sonarsource.sonarlint.core.analysis.api.Issue;
 import org.sonarsource.sonarlint.core.analysis.command.AnalyzeCommand;
 import org.sonarsource.sonarlint.core.analysis.command.Command;
 import org.sonarsource.sonarlint.core.analysis.command.RegisterModuleCommand;
+import org.sonarsource.sonarlint.core.analysis.container.global.ModuleRegistry;
 import org.sonarsource.sonarlint.core.commons.Language;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogTester;
@@ -71,15 +79,23 @@ class AnalysisEngineMediumTests {
 
   @BeforeEach
   void prepare(@TempDir Path workDir) throws IOException {
+    this.analysisEngine = createEngine(workDir, 1);
+    engineStopped = false;
+  }
+
+  private AnalysisEngine createEngine(Path workDir, int workerCount) throws IOException {
+    return createEngine(workDir, builder -> builder.setWorkerCount(workerCount));
+  }
+
+  private AnalysisEngine createEngine(Path workDir, UnaryOperator<AnalysisEngineConfiguration.Builder> configCustomizer) throws IOException {
     var enabledLanguages = Set.of(Language.PYTHON);
-    var analysisGlobalConfig = AnalysisEngineConfiguration.builder()
+    var analysisGlobalConfig = configCustomizer.apply(AnalysisEngineConfiguration.builder()
       .addEnabledLanguages(enabledLanguages)
       .setClientPid(1234L)
-      .setWorkDir(workDir)
+      .setWorkDir(workDir))
       .build();
     var pluginInstancesRepository = new PluginInstancesRepository(new PluginInstancesRepository.Configuration(Set.of(findPythonJarPath()), enabledLanguages, Optional.empty()));
-    this.analysisEngine = new AnalysisEngine(analysisGlobalConfig, pluginInstancesRepository, logTester.getLogOutput());
-    engineStopped = false;
+    return new AnalysisEngine(analysisGlobalConfig, pluginInstancesRepository, logTester.getLogOutput());
   }
 
   @AfterEach
@@ -107,6 +123,80 @@ class AnalysisEngineMediumTests {
       .containsOnly(tuple("python:S139", "Move this trailing comment on the previous empty line.", inputFile, List.of(), List.of(), 2, 9, 2, 27));
   }
 
+  @Test
+  void should_reuse_transient_module_container_for_successive_single_file_analyses(@TempDir Path baseDir) throws Exception {
+    var firstFile = preparePythonInputFile(baseDir, "first.py", "def foo():\n  x = 9; # trailing comment\n");
+    var secondFile = preparePythonInputFile(baseDir, "second.py", "def bar():\n  pass\n\n  y = 8; # trailing comment\n");
+
+    List<Issue> firstIssues = new ArrayList<>();
+    analysisEngine.post(new AnalyzeCommand(null, singleFileConfig(baseDir, firstFile), firstIssues::add, null), progressMonitor).get();
+    List<Issue> secondIssues = new ArrayList<>();
+    analysisEngine.post(new AnalyzeCommand(null, singleFileConfig(baseDir, secondFile), secondIssues::add, null), progressMonitor).get();
+
+    assertThat(firstIssues).extracting(Issue::getInputFile, i -> i.getTextRange().getStartLine()).containsOnly(tuple(firstFile, 2));
+    assertThat(secondIssues).extracting(Issue::getInputFile, i -> i.getTextRange().getStartLine()).containsOnly(tuple(secondFile, 4));
+    assertThat(logTester.logs()).containsOnlyOnce("Creating transient module container").contains("Reusing transient module container");
+  }
+
+  @Test
+  void should_analyze_with_concurrent_sensors(@TempDir Path baseDir, @TempDir Path workDir) throws Exception {
+    var engine = createEngine(workDir, builder -> builder.setSensorThreadCount(2));
+    try {
+      var inputFile = preparePythonInputFile(baseDir, "def foo():\n  x = 9; # trailing comment\n");
+
+      List<Issue> issues = new ArrayList<>();
+      engine.post(new AnalyzeCommand(null, singleFileConfig(baseDir, inputFile), issues::add, logTester.getLogOutput()), progressMonitor).get();
+
+      assertThat(issues).extracting(Issue::getRuleKey, i -> i.getTextRange().getStartLine()).containsOnly(tuple("python:S139", 2));
+      assertThat(logTester.logs()).anyMatch(log -> log.startsWith("Execute Sensor: "));
+    } finally {
+      engine.stop();
+    }
+  }
+
+  @Test
+  void should_analyze_with_concurrent_indexing(@TempDir Path baseDir, @TempDir Path workDir) throws Exception {
+    var engine = createEngine(workDir, builder -> builder.setIndexingThreadCount(2));
+    try {
+      var inputFile = preparePythonInputFile(baseDir, "def foo():\n  x = 9; # trailing comment\n");
+
+      List<Issue> issues = new ArrayList<>();
+      var results = engine.post(new AnalyzeCommand(null, singleFileConfig(baseDir, inputFile), issues::add, logTester.getLogOutput()), progressMonitor).get();
+
+      assertThat(results.indexedFileCount()).isEqualTo(1);
+      assertThat(issues).extracting(Issue::getRuleKey, i -> i.getTextRange().getStartLine()).containsOnly(tuple("python:S139", 2));
+    } finally {
+      engine.stop();
+    }
+  }
+
+  @Test
+  void should_report_analysis_container_build_duration(@TempDir Path baseDir) throws Exception {
+    var inputFile = preparePythonInputFile(baseDir, "def foo():\n  x = 9; # trailing comment\n");
+
+    var results = analysisEngine.post(new AnalyzeCommand(null, singleFileConfig(baseDir, inputFile), i -> {
+    }, null), progressMonitor).get();
+
+    assertThat(results.containerBuildDuration()).isPositive();
+    assertThat(logTester.logs()).anyMatch(log -> log.startsWith("Analysis container built in "));
+  }
+
+  @Test
+  void should_report_analysis_timings(@TempDir Path baseDir) throws Exception {
+    var inputFile = preparePythonInputFile(baseDir, "def foo():\n  x = 9; # trailing comment\n");
+
+    var results = analysisEngine.post(new AnalyzeCommand(null, singleFileConfig(baseDir, inputFile), i -> {
+    }, null), progressMonitor).get();
+
+    var timings = results.timings();
+    assertThat(timings.phaseDuration(AnalysisTimings.Phase.CONTAINER_BUILD)).isPositive();
+    assertThat(timings.phaseDuration(AnalysisTimings.Phase.FILE_INDEXING)).isPositive();
+    assertThat(timings.phaseDuration(AnalysisTimings.Phase.SENSORS_EXECUTION)).isPositive();
+    assertThat(timings.issueStorageDuration()).isPositive();
+    assertThat(timings.sensorTimings()).extracting(AnalysisTimings.SensorTiming::getIssueCount).contains(1);
+    assertThat(timings.slowestFilesByMetadata()).extracting(AnalysisTimings.FileTiming::getFile).containsExactly(inputFile);
+  }
+
   @Test
   void should_analyze_a_file_inside_a_module(@TempDir Path baseDir) throws Exception {
     var content = "def foo():\n"
@@ -219,10 +309,89 @@ class AnalysisEngineMediumTests {
     assertThat(logTester.logs(ClientLogOutput.Level.ERROR)).isEmpty();
   }
 
+  @Test
+  void should_execute_commands_of_different_modules_concurrently(@TempDir Path workDir) throws Exception {
+    var multiWorkerEngine = createEngine(workDir, 2);
+    try {
+      var bothStarted = new CountDownLatch(2);
+      Command<Boolean> waitForOtherModule = (moduleRegistry, progressMonitor) -> {
+        bothStarted.countDown();
+        try {
+          return bothStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          return false;
+        }
+      };
+
+      var futureModule1 = multiWorkerEngine.post(onModule("module1", waitForOtherModule), progressMonitor);
+      var futureModule2 = multiWorkerEngine.post(onModule("module2", waitForOtherModule), progressMonitor);
+
+      assertThat(futureModule1.get(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(futureModule2.get(10, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      multiWorkerEngine.stop();
+    }
+  }
+
+  @Test
+  void should_execute_commands_of_the_same_module_sequentially(@TempDir Path workDir) throws Exception {
+    var multiWorkerEngine = createEngine(workDir, 3);
+    try {
+      List<Integer> executionOrder = new CopyOnWriteArrayList<>();
+      var concurrentExecutions = new AtomicInteger();
+      var maxConcurrentExecutions = new AtomicInteger();
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (var i = 0; i < 5; i++) {
+        var index = i;
+        futures.add(multiWorkerEngine.post(onModule("module", (moduleRegistry, progressMonitor) -> {
+          maxConcurrentExecutions.accumulateAndGet(concurrentExecutions.incrementAndGet(), Math::max);
+          pause(100);
+          executionOrder.add(index);
+          concurrentExecutions.decrementAndGet();
+          return null;
+        }), progressMonitor));
+      }
+
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+      assertThat(executionOrder).containsExactly(0, 1, 2, 3, 4);
+      assertThat(maxConcurrentExecutions).hasValue(1);
+    } finally {
+      multiWorkerEngine.stop();
+    }
+  }
+
+  @Test
+  void should_execute_pending_commands_of_all_workers_when_gracefully_finishing(@TempDir Path workDir) throws Exception {
+    var multiWorkerEngine = createEngine(workDir, 2);
+    var futureModule1 = multiWorkerEngine.post(onModule("module1", waitCommand(300L)), progressMonitor);
+    var futureModule2 = multiWorkerEngine.post(onModule("module2", waitCommand(300L)), progressMonitor);
+    var futureModule1Again = multiWorkerEngine.post(onModule("module1", waitCommand(300L)), progressMonitor);
+
+    multiWorkerEngine.finishGracefully();
+
+    await().until(futureModule1Again::isDone);
+    assertThat(futureModule1).isCompletedWithValue("SUCCESS");
+    assertThat(futureModule2).isCompletedWithValue("SUCCESS");
+    assertThat(futureModule1Again).isCompletedWithValue("SUCCESS");
+  }
+
   private ClientInputFile preparePythonInputFile(Path baseDir, String content) throws IOException {
-    final var file = new File(baseDir.toFile(), "file.py");
+    return preparePythonInputFile(baseDir, "file.py", content);
+  }
+
+  private ClientInputFile preparePythonInputFile(Path baseDir, String relativePath, String content) throws IOException {
+    final var file = new File(baseDir.toFile(), relativePath);
     FileUtils.write(file, content, StandardCharsets.UTF_8);
-    return new OnDiskTestClientInputFile(file.toPath(), "file.py", false, StandardCharsets.UTF_8, Language.PYTHON);
+    return new OnDiskTestClientInputFile(file.toPath(), relativePath, false, StandardCharsets.UTF_8, Language.PYTHON);
+  }
+
+  private static AnalysisConfiguration singleFileConfig(Path baseDir, ClientInputFile inputFile) {
+    return AnalysisConfiguration.builder()
+      .addInputFiles(inputFile)
+      .addActiveRules(trailingCommentRule())
+      .setBaseDir(baseDir)
+      .build();
   }
 
   private static Path findPythonJarPath() throws IOException {
@@ -253,6 +422,20 @@ class AnalysisEngineMediumTests {
     };
   }
 
+  private static <T> Command<T> onModule(Object moduleKey, Command<T> command) {
+    return new Command<>() {
+      @Override
+      public T execute(ModuleRegistry moduleRegistry, ProgressMonitor progressMonitor) {
+        return command.execute(moduleRegistry, progressMonitor);
+      }
+
+      @Override
+      public Object moduleKey() {
+        return moduleKey;
+      }
+    };
+  }
+
   private static Command<String> waitCommand(long period) {
     return (moduleRegistry, progressMonitor) -> {
       pause(period);
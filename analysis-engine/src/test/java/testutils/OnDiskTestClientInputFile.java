@@ -88,6 +88,11 @@ public class OnDiskTestClientInputFile implements ClientInputFile {
     return new String(Files.readAllBytes(path), encoding);
   }
 
+  @Override
+  public boolean isOnFileSystem() {
+    return true;
+  }
+
   @Override
   public URI uri() {
     return path.toUri();
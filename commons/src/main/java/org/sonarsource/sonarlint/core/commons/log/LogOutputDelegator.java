@@ -21,6 +21,7 @@ package org.sonarsource.sonarlint.core.commons.log;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput.Level;
 
@@ -50,4 +51,9 @@ class LogOutputDelegator {
   void setTarget(@Nullable ClientLogOutput target) {
     this.target.set(target);
   }
+
+  @CheckForNull
+  ClientLogOutput getTarget() {
+    return target.get();
+  }
 }
@@ -19,6 +19,7 @@
  */
 package org.sonarsource.sonarlint.core.commons.log;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput.Level;
 
@@ -38,6 +39,14 @@ public class SonarLintLogger {
     logger.logOutput.setTarget(output);
   }
 
+  /**
+   * Log output of the current thread, to be propagated to tasks executed on behalf of this thread by other threads.
+   */
+  @CheckForNull
+  public static ClientLogOutput getTarget() {
+    return logger.logOutput.getTarget();
+  }
+
   SonarLintLogger(LogOutputDelegator logOutput) {
     this.logOutput = logOutput;
   }
@@ -40,6 +40,13 @@ public class ProgressMonitor {
     this(0.0f, 1.0f, null, clientMonitor);
   }
 
+  /**
+   * Progress monitor reporting progress to both monitors, and canceled only once both of them are canceled.
+   */
+  public static ProgressMonitor merge(ProgressMonitor first, ProgressMonitor second) {
+    return new ProgressMonitor(new MergedClientProgressMonitor(first, second));
+  }
+
   public ProgressMonitor subProgress(float fromFraction, float toFraction, String msgPrefix) {
     return new ProgressMonitor(offset + fromFraction * factor, (toFraction - fromFraction) * factor, prependPrefix(msgPrefix), clientMonitor);
   }
@@ -81,6 +88,44 @@ public class ProgressMonitor {
     clientMonitor.executeNonCancelableSection(r);
   }
 
+  private static class MergedClientProgressMonitor implements ClientProgressMonitor {
+    private final ProgressMonitor first;
+    private final ProgressMonitor second;
+
+    private MergedClientProgressMonitor(ProgressMonitor first, ProgressMonitor second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return first.isCanceled() && second.isCanceled();
+    }
+
+    @Override
+    public void setMessage(String msg) {
+      first.clientMonitor.setMessage(first.prependPrefix(msg));
+      second.clientMonitor.setMessage(second.prependPrefix(msg));
+    }
+
+    @Override
+    public void setFraction(float fraction) {
+      first.setFraction(fraction);
+      second.setFraction(fraction);
+    }
+
+    @Override
+    public void setIndeterminate(boolean indeterminate) {
+      first.clientMonitor.setIndeterminate(indeterminate);
+      second.clientMonitor.setIndeterminate(indeterminate);
+    }
+
+    @Override
+    public void executeNonCancelableSection(Runnable nonCancelable) {
+      first.executeNonCancelableSection(() -> second.executeNonCancelableSection(nonCancelable));
+    }
+  }
+
   private static class NoOpProgressMonitor implements ClientProgressMonitor {
 
     @Override
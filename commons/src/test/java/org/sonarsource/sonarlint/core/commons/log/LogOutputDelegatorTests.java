@@ -24,6 +24,7 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput.Level;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -53,6 +54,14 @@ class LogOutputDelegatorTests {
     verifyNoInteractions(output);
   }
 
+  @Test
+  void should_expose_target_of_current_thread() {
+    delegator.setTarget(output);
+    assertThat(delegator.getTarget()).isSameAs(output);
+    delegator.setTarget(null);
+    assertThat(delegator.getTarget()).isNull();
+  }
+
   @Test
   void should_report_throwables() {
     delegator.setTarget(output);
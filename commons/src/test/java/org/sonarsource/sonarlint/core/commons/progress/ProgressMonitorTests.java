@@ -23,6 +23,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.AdditionalMatchers;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -103,6 +104,31 @@ class ProgressMonitorTests {
     verify(monitor).setFraction(0.4f);
   }
 
+  @Test
+  void testMergedMonitorReportsToBoth() {
+    var other = mock(ClientProgressMonitor.class);
+    var merged = ProgressMonitor.merge(progress, new ProgressMonitor(other).subProgress(0.0f, 0.5f, "prefix"));
+
+    merged.setProgress("msg", 0.5f);
+
+    verify(monitor).setMessage("msg");
+    verify(monitor).setFraction(0.5f);
+    verify(other).setMessage("prefix - msg");
+    verify(other).setFraction(0.25f);
+  }
+
+  @Test
+  void testMergedMonitorIsCanceledOnlyWhenBothAre() {
+    var other = new ProgressMonitor(null);
+    var merged = ProgressMonitor.merge(progress, other);
+
+    other.cancel();
+    assertThat(merged.isCanceled()).isFalse();
+
+    when(monitor.isCanceled()).thenReturn(true);
+    assertThat(merged.isCanceled()).isTrue();
+  }
+
   @Test
   void testNoMonitor() {
     progress = new ProgressMonitor(null);
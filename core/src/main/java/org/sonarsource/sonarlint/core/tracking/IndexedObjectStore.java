@@ -26,7 +26,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Optional;
-import org.sonarsource.sonarlint.core.client.api.connected.objectstore.ObjectStore;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.PathMapper;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
@@ -38,7 +37,7 @@ import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
  * @param <K> type of the key to store by and used when reading back; must be hashable
  * @param <V> type of the value to store
  */
-class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
+class IndexedObjectStore<K, V> implements ValidatingObjectStore<K, V> {
   private static final SonarLintLogger LOGGER = SonarLintLogger.get();
 
   private final StoreIndex<K> index;
@@ -66,6 +65,7 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
     }
   }
 
+  @Override
   public boolean contains(K key) {
     var path = pathMapper.apply(key);
     return path.toFile().exists();
@@ -74,6 +74,7 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
   /**
    * Deletes all entries in the index that are no longer valid.
    */
+  @Override
   public void deleteInvalid() {
     var counter = 0;
     var keys = index.keys();
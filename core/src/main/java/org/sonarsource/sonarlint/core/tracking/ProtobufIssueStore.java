@@ -20,10 +20,13 @@
 package org.sonarsource.sonarlint.core.tracking;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.HashingPathMapper;
@@ -31,37 +34,123 @@ import org.sonarsource.sonarlint.core.client.api.connected.objectstore.PathMappe
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
 import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.core.issuetracking.TrackableIssueStore;
 import org.sonarsource.sonarlint.core.issuetracking.Trackable;
 import org.sonarsource.sonarlint.core.proto.Sonarlint;
 
 public class ProtobufIssueStore<T> implements TrackableIssueStore<T> {
+  private static final SonarLintLogger LOGGER = SonarLintLogger.get();
 
-  private Path basePath;
-  private IndexedObjectStore<String, Sonarlint.Issues> store;
+  private static final String INDEX_FILENAME = "index.pb";
+  private static final String HASH_DIRECTORY_NAMES = "0123456789abcdef";
 
+  private static final Reader<Sonarlint.Issues> READER = is -> {
+    try {
+      return Sonarlint.Issues.parseFrom(is);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read issues", e);
+    }
+  };
+  private static final Writer<Sonarlint.Issues> WRITER = (os, issues) -> {
+    try {
+      issues.writeTo(os);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to save issues", e);
+    }
+  };
+
+  private final Path basePath;
+  private final Supplier<ValidatingObjectStore<String, Sonarlint.Issues>> storeFactory;
+  private ValidatingObjectStore<String, Sonarlint.Issues> store;
+
+  /**
+   * Store issues in one file per key, along with an index of all keys.
+   */
   public ProtobufIssueStore(Path storeBasePath, Path projectBasePath) {
+    this(storeBasePath, () -> newIndexedStore(storeBasePath, new PathStoreKeyValidator(projectBasePath)));
+  }
+
+  private ProtobufIssueStore(Path storeBasePath, Supplier<ValidatingObjectStore<String, Sonarlint.Issues>> storeFactory) {
     this.basePath = storeBasePath;
+    this.storeFactory = storeFactory;
     FileUtils.mkdirs(storeBasePath);
-    StoreIndex<String> index = new StringStoreIndex(storeBasePath);
-    PathMapper<String> mapper = new HashingPathMapper(storeBasePath, 2);
-    StoreKeyValidator<String> validator = new PathStoreKeyValidator(projectBasePath);
-    Reader<Sonarlint.Issues> reader = is -> {
+    store = storeFactory.get();
+    store.deleteInvalid();
+  }
+
+  /**
+   * Store issues in a single append-only log, so that saving the issues of a file does not depend on the number of
+   * files in the store. Issues stored by {@link #ProtobufIssueStore(Path, Path)} in the same directory are moved to the
+   * log.
+   */
+  public static <T> ProtobufIssueStore<T> logStructured(Path storeBasePath, Path projectBasePath) {
+    return new ProtobufIssueStore<>(storeBasePath, () -> {
+      var logStore = new SegmentLogObjectStore<>(storeBasePath, READER, WRITER, new PathStoreKeyValidator(projectBasePath));
       try {
-        return Sonarlint.Issues.parseFrom(is);
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to read issues", e);
+        migrateIndexedStore(storeBasePath, logStore);
+      } catch (RuntimeException e) {
+        logStore.close();
+        throw e;
       }
-    };
-    Writer<Sonarlint.Issues> writer = (os, issues) -> {
-      try {
-        issues.writeTo(os);
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to save issues", e);
+      return logStore;
+    });
+  }
+
+  private static IndexedObjectStore<String, Sonarlint.Issues> newIndexedStore(Path storeBasePath, StoreKeyValidator<String> validator) {
+    StoreIndex<String> index = new StringStoreIndex(storeBasePath, INDEX_FILENAME);
+    PathMapper<String> mapper = new HashingPathMapper(storeBasePath, 2);
+    return new IndexedObjectStore<>(index, mapper, READER, WRITER, validator);
+  }
+
+  /**
+   * The index file is deleted last, so that an interrupted migration is resumed on next startup. Keys already moved
+   * are simply written again, and keys whose file was already deleted are skipped. Unreadable entries, or all of them
+   * when the index itself is unreadable, are dropped rather than failing every startup: issues are only a cache of
+   * the tracking state and are computed again on next analysis.
+   */
+  private static void migrateIndexedStore(Path storeBasePath, SegmentLogObjectStore<Sonarlint.Issues> logStore) {
+    var indexPath = storeBasePath.resolve(INDEX_FILENAME);
+    if (!indexPath.toFile().exists()) {
+      return;
+    }
+    try {
+      var indexedStore = newIndexedStore(storeBasePath, key -> true);
+      var counter = 0;
+      for (String key : readLegacyKeys(storeBasePath)) {
+        var issues = readLegacyIssues(indexedStore, key);
+        if (issues.isPresent()) {
+          logStore.write(key, issues.get());
+          counter++;
+        }
       }
-    };
-    store = new IndexedObjectStore<>(index, mapper, reader, writer, validator);
-    store.deleteInvalid();
+      logStore.sync();
+      for (var i = 0; i < HASH_DIRECTORY_NAMES.length(); i++) {
+        FileUtils.deleteRecursively(storeBasePath.resolve(HASH_DIRECTORY_NAMES.substring(i, i + 1)));
+      }
+      Files.delete(indexPath);
+      LOGGER.debug(String.format("%d entries moved to the local issue store log", counter));
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to migrate local issue store", e);
+    }
+  }
+
+  private static Collection<String> readLegacyKeys(Path storeBasePath) {
+    try {
+      return new StringStoreIndex(storeBasePath, INDEX_FILENAME).keys();
+    } catch (IllegalStateException e) {
+      LOGGER.warn("Unable to read the index of the local issue store, stored issues are dropped", e);
+      return Collections.emptyList();
+    }
+  }
+
+  private static Optional<Sonarlint.Issues> readLegacyIssues(IndexedObjectStore<String, Sonarlint.Issues> indexedStore, String key) {
+    try {
+      return indexedStore.read(key);
+    } catch (IOException | IllegalStateException e) {
+      LOGGER.warn(String.format("Unable to read stored issues of '%s', they are dropped", key), e);
+      return Optional.empty();
+    }
   }
 
   @Override
@@ -87,8 +176,10 @@ public class ProtobufIssueStore<T> implements TrackableIssueStore<T> {
 
   @Override
   public void clear() {
+    store.close();
     FileUtils.deleteRecursively(basePath);
     FileUtils.mkdirs(basePath);
+    store = storeFactory.get();
   }
 
   private Collection<Trackable<T>> transform(Sonarlint.Issues protoIssues) {
@@ -0,0 +1,372 @@
+/*
+ * SonarLint Core - Implementation
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.tracking;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+
+/**
+ * An ObjectStore that appends every write to a single segment file and keeps an in-memory index from key to the
+ * position of its latest value, so that a write costs one append whatever the number of keys.
+ * <p>
+ * A record is made of the key length, the value length (-1 for a deletion), the UTF-8 key, the value and a CRC32 of
+ * all of the above. When the file is reopened, it is replayed up to the first incomplete or corrupt record, and the
+ * tail is truncated: a crash while appending loses at most the records being written.
+ * <p>
+ * Once more than half of the segment is made of overwritten or deleted records, live records are copied to a new
+ * segment, which is synced and atomically renamed before the old one is deleted. Segments are numbered, and only
+ * compaction creates a new one, so on startup the highest numbered segment holds the whole state and lower ones are
+ * leftovers of an interrupted compaction. A failed compaction does not fail the write that triggered it, and is only
+ * attempted again once the segment grew by the minimum compaction size.
+ *
+ * @param <V> type of the value to store
+ */
+class SegmentLogObjectStore<V> implements ValidatingObjectStore<String, V> {
+  private static final SonarLintLogger LOGGER = SonarLintLogger.get();
+
+  static final String SEGMENT_PREFIX = "issues-";
+  static final String SEGMENT_SUFFIX = ".log";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final long DEFAULT_MIN_COMPACTION_SIZE = 1024L * 1024L;
+  private static final int HEADER_LENGTH = 2 * Integer.BYTES;
+  private static final int CRC_LENGTH = Integer.BYTES;
+  private static final int TOMBSTONE = -1;
+
+  private final Path dir;
+  private final Reader<V> reader;
+  private final Writer<V> writer;
+  private final StoreKeyValidator<String> validator;
+  private final long minCompactionSize;
+  private final Map<String, Entry> index = new HashMap<>();
+
+  private long segmentNumber;
+  private FileChannel channel;
+  private long end;
+  private long liveBytes;
+  private long nextCompactionEnd;
+
+  SegmentLogObjectStore(Path dir, Reader<V> reader, Writer<V> writer, StoreKeyValidator<String> validator) {
+    this(dir, reader, writer, validator, DEFAULT_MIN_COMPACTION_SIZE);
+  }
+
+  SegmentLogObjectStore(Path dir, Reader<V> reader, Writer<V> writer, StoreKeyValidator<String> validator, long minCompactionSize) {
+    this.dir = dir;
+    this.reader = reader;
+    this.writer = writer;
+    this.validator = validator;
+    this.minCompactionSize = minCompactionSize;
+    try {
+      open();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to open local issue store log in " + dir, e);
+    }
+  }
+
+  @Override
+  public synchronized boolean contains(String key) {
+    return index.containsKey(key);
+  }
+
+  @Override
+  public synchronized Optional<V> read(String key) throws IOException {
+    var entry = index.get(key);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    var buffer = ByteBuffer.allocate(entry.valueLength);
+    readFully(channel, buffer, entry.valueOffset());
+    return Optional.of(reader.apply(new ByteArrayInputStream(buffer.array())));
+  }
+
+  @Override
+  public synchronized void write(String key, V value) throws IOException {
+    var out = new ByteArrayOutputStream();
+    writer.accept(out, value);
+    append(key, out.toByteArray());
+  }
+
+  @Override
+  public synchronized void delete(String key) throws IOException {
+    if (index.containsKey(key)) {
+      append(key, null);
+    }
+  }
+
+  @Override
+  public synchronized void deleteInvalid() {
+    var counter = 0;
+    for (String k : new ArrayList<>(index.keySet())) {
+      if (!validator.apply(k)) {
+        try {
+          counter++;
+          delete(k);
+        } catch (IOException e) {
+          LOGGER.error(String.format("failed to delete invalidated key '%s' from '%s'", k, segmentPath(segmentNumber)), e);
+        }
+      }
+    }
+    LOGGER.debug(String.format("%d entries removed from the store", counter));
+  }
+
+  /**
+   * Forces the records appended so far to the storage device.
+   */
+  synchronized void sync() throws IOException {
+    channel.force(false);
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to close local issue store log", e);
+    }
+  }
+
+  synchronized Path segmentPath() {
+    return segmentPath(segmentNumber);
+  }
+
+  private void open() throws IOException {
+    Files.createDirectories(dir);
+    var segments = new ArrayList<Long>();
+    try (var files = Files.list(dir)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        var name = file.getFileName().toString();
+        if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX + TMP_SUFFIX)) {
+          Files.delete(file);
+        } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+          parseSegmentNumber(name).ifPresent(segments::add);
+        }
+      }
+    }
+    segmentNumber = segments.stream().mapToLong(Long::longValue).max().orElse(0L);
+    for (long number : segments) {
+      if (number != segmentNumber) {
+        Files.delete(segmentPath(number));
+      }
+    }
+    var path = segmentPath(segmentNumber);
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    end = replay(path);
+    if (end < channel.size()) {
+      LOGGER.debug(String.format("Truncating %d bytes of incomplete records from '%s'", channel.size() - end, path));
+      channel.truncate(end);
+    }
+  }
+
+  private static Optional<Long> parseSegmentNumber(String fileName) {
+    try {
+      return Optional.of(Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length())));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Rebuilds the index from the segment and returns the offset just after the last valid record.
+   */
+  private long replay(Path path) throws IOException {
+    var size = channel.size();
+    long offset = 0;
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      while (true) {
+        var remaining = size - offset - HEADER_LENGTH - CRC_LENGTH;
+        if (remaining < 0) {
+          return offset;
+        }
+        var keyLength = in.readInt();
+        var valueLength = in.readInt();
+        if (keyLength < 0 || keyLength > remaining || valueLength < TOMBSTONE || valueLength > remaining - keyLength) {
+          return offset;
+        }
+        var data = new byte[keyLength + Math.max(valueLength, 0)];
+        in.readFully(data);
+        var crc = in.readInt();
+        if (crc != crc(keyLength, valueLength, data)) {
+          return offset;
+        }
+        var key = new String(data, 0, keyLength, StandardCharsets.UTF_8);
+        var recordLength = HEADER_LENGTH + data.length + CRC_LENGTH;
+        index(key, valueLength == TOMBSTONE ? null : new Entry(offset, recordLength, valueLength));
+        offset += recordLength;
+      }
+    } catch (EOFException e) {
+      return offset;
+    }
+  }
+
+  private void append(String key, @Nullable byte[] value) throws IOException {
+    var keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    var valueLength = value == null ? TOMBSTONE : value.length;
+    var data = new byte[keyBytes.length + Math.max(valueLength, 0)];
+    System.arraycopy(keyBytes, 0, data, 0, keyBytes.length);
+    if (value != null) {
+      System.arraycopy(value, 0, data, keyBytes.length, value.length);
+    }
+    var recordLength = HEADER_LENGTH + data.length + CRC_LENGTH;
+    var buffer = ByteBuffer.allocate(recordLength)
+      .putInt(keyBytes.length)
+      .putInt(valueLength)
+      .put(data)
+      .putInt(crc(keyBytes.length, valueLength, data));
+    buffer.flip();
+    writeFully(channel, buffer, end);
+    index(key, value == null ? null : new Entry(end, recordLength, valueLength));
+    end += recordLength;
+    if (end >= Math.max(minCompactionSize, nextCompactionEnd) && end - liveBytes > liveBytes) {
+      try {
+        compact();
+      } catch (IOException e) {
+        // the record is already appended and indexed, the log is only bigger than needed
+        nextCompactionEnd = end + minCompactionSize;
+        LOGGER.error(String.format("failed to compact local issue store log '%s'", segmentPath(segmentNumber)), e);
+      }
+    }
+  }
+
+  private void index(String key, @Nullable Entry entry) {
+    var previous = entry == null ? index.remove(key) : index.put(key, entry);
+    if (previous != null) {
+      liveBytes -= previous.recordLength;
+    }
+    if (entry != null) {
+      liveBytes += entry.recordLength;
+    }
+  }
+
+  private void compact() throws IOException {
+    var nextNumber = segmentNumber + 1;
+    var target = segmentPath(nextNumber);
+    var tmp = target.resolveSibling(target.getFileName() + TMP_SUFFIX);
+    var compacted = new HashMap<String, Entry>(index.size() * 2);
+    long offset = 0;
+    var moved = false;
+    FileChannel next;
+    try {
+      try (var out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        for (var e : index.entrySet()) {
+          var entry = e.getValue();
+          var transferred = 0L;
+          while (transferred < entry.recordLength) {
+            transferred += channel.transferTo(entry.recordOffset + transferred, entry.recordLength - transferred, out);
+          }
+          compacted.put(e.getKey(), new Entry(offset, entry.recordLength, entry.valueLength));
+          offset += entry.recordLength;
+        }
+        out.force(true);
+      }
+      Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+      moved = true;
+      next = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } catch (IOException | RuntimeException e) {
+      // the current segment is still complete, a compacted segment left behind would shadow it on next startup
+      deleteIfExists(moved ? target : tmp);
+      throw e;
+    }
+    LOGGER.debug(String.format("Compacted local issue store log from %d to %d bytes", end, offset));
+
+    var previousChannel = channel;
+    var previous = segmentPath(segmentNumber);
+    segmentNumber = nextNumber;
+    channel = next;
+    index.clear();
+    index.putAll(compacted);
+    end = offset;
+    liveBytes = offset;
+    try {
+      previousChannel.close();
+      Files.delete(previous);
+    } catch (IOException e) {
+      // the stale segment is superseded by the new one and will be removed on next startup
+      LOGGER.error(String.format("failed to delete compacted segment '%s'", previous), e);
+    }
+  }
+
+  private static void deleteIfExists(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      LOGGER.error(String.format("failed to delete '%s'", path), e);
+    }
+  }
+
+  private Path segmentPath(long number) {
+    return dir.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+  }
+
+  private static int crc(int keyLength, int valueLength, byte[] data) {
+    var crc = new CRC32();
+    crc.update(ByteBuffer.allocate(HEADER_LENGTH).putInt(keyLength).putInt(valueLength).array());
+    crc.update(data);
+    return (int) crc.getValue();
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of local issue store log");
+      }
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+
+  private static class Entry {
+    private final long recordOffset;
+    private final int recordLength;
+    private final int valueLength;
+
+    Entry(long recordOffset, int recordLength, int valueLength) {
+      this.recordOffset = recordOffset;
+      this.recordLength = recordLength;
+      this.valueLength = valueLength;
+    }
+
+    long valueOffset() {
+      return recordOffset + recordLength - CRC_LENGTH - valueLength;
+    }
+  }
+}
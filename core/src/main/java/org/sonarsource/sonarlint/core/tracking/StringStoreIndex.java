@@ -29,6 +29,9 @@ import java.util.Collections;
 import java.util.Map;
 import org.sonarsource.sonarlint.core.proto.Sonarlint;
 
+/**
+ * The whole index is rewritten on each change, changes are synchronized since several entries can be stored concurrently.
+ */
 class StringStoreIndex implements StoreIndex<String> {
   private static final String DEFAULT_INDEX_FILENAME = "index.pb";
 
@@ -45,7 +48,7 @@ class StringStoreIndex implements StoreIndex<String> {
   }
 
   @Override
-  public Collection<String> keys() {
+  public synchronized Collection<String> keys() {
     return load().keySet();
   }
 
@@ -61,7 +64,7 @@ class StringStoreIndex implements StoreIndex<String> {
   }
 
   @Override
-  public void save(String storageKey, Path path) {
+  public synchronized void save(String storageKey, Path path) {
     var relativeMappedPath = storeBasePath.relativize(path).toString();
     var builder = Sonarlint.StorageIndex.newBuilder();
     builder.putAllMappedPathByKey(load());
@@ -70,7 +73,7 @@ class StringStoreIndex implements StoreIndex<String> {
   }
 
   @Override
-  public void delete(String storageKey) {
+  public synchronized void delete(String storageKey) {
     var builder = Sonarlint.StorageIndex.newBuilder();
     builder.putAllMappedPathByKey(load());
     builder.removeMappedPathByKey(storageKey);
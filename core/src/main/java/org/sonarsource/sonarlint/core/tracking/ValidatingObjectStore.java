@@ -0,0 +1,47 @@
+/*
+ * SonarLint Core - Implementation
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.tracking;
+
+import java.io.Closeable;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.ObjectStore;
+
+/**
+ * An ObjectStore that can tell which keys it holds and drop the ones that are no longer valid.
+ *
+ * @param <K> type of the key to store by and used when reading back
+ * @param <V> type of the value to store
+ */
+interface ValidatingObjectStore<K, V> extends ObjectStore<K, V>, Closeable {
+
+  boolean contains(K key);
+
+  /**
+   * Deletes all entries that are no longer valid.
+   */
+  void deleteInvalid();
+
+  /**
+   * Releases any file handle held by the store. The default implementation holds none.
+   */
+  @Override
+  default void close() {
+    // nothing to release
+  }
+}
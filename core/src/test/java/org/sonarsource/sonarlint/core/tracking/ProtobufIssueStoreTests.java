@@ -30,6 +30,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.HashingPathMapper;
 import org.sonarsource.sonarlint.core.issuetracking.Trackable;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -149,6 +150,86 @@ class ProtobufIssueStoreTests {
     assertThrows(IllegalStateException.class, () -> issueStore.save(key, Collections.emptyList()));
   }
 
+  @Test
+  void log_structured_store_should_persist_issues() throws IOException {
+    var storePath = base.resolve("store");
+    var projectPath = base.resolve("project");
+    ProtobufIssueStore issueStore = ProtobufIssueStore.logStructured(storePath, projectPath);
+
+    Collection<Trackable> issues = Arrays.asList(newMockTrackable(), newMockTrackable());
+    issueStore.save(key, issues);
+    assertThat(issueStore.read(key)).hasSameSizeAs(issues);
+
+    issueStore.clear();
+    assertThat(issueStore.contains(key)).isFalse();
+    issueStore.save(key, Collections.emptyList());
+    assertThat(issueStore.read(key)).isEmpty();
+  }
+
+  @Test
+  void log_structured_store_should_migrate_issues_from_indexed_layout() throws IOException {
+    var storePath = base.resolve("store");
+    var projectPath = base.resolve("project");
+    var validFile = projectPath.resolve(key);
+    Files.createDirectories(projectPath);
+    Files.createFile(validFile);
+    var indexedStore = new ProtobufIssueStore(storePath, projectPath);
+    Collection<Trackable> issues = Arrays.asList(newMockTrackable(), newMockTrackable());
+    indexedStore.save(key, issues);
+
+    ProtobufIssueStore logStore = ProtobufIssueStore.logStructured(storePath, projectPath);
+
+    assertThat(logStore.read(key)).extracting("ruleKey").containsExactlyElementsOf(issues.stream().map(Trackable::getRuleKey).collect(Collectors.toList()));
+    try (var files = Files.list(storePath)) {
+      assertThat(files.map(p -> p.getFileName().toString()).collect(Collectors.toList())).containsOnly("issues-0.log");
+    }
+  }
+
+  @Test
+  void log_structured_store_should_skip_unreadable_legacy_issues() throws IOException {
+    var storePath = base.resolve("store");
+    var projectPath = base.resolve("project");
+    var otherKey = "otherFilePath";
+    Files.createDirectories(projectPath);
+    Files.createFile(projectPath.resolve(key));
+    Files.createFile(projectPath.resolve(otherKey));
+    var indexedStore = new ProtobufIssueStore(storePath, projectPath);
+    Collection<Trackable> issues = Arrays.asList(newMockTrackable(), newMockTrackable());
+    indexedStore.save(key, issues);
+    indexedStore.save(otherKey, issues);
+    var corruptFile = new HashingPathMapper(storePath, 2).apply(otherKey);
+    var content = Files.readAllBytes(corruptFile);
+    Files.write(corruptFile, Arrays.copyOf(content, content.length - 3));
+
+    ProtobufIssueStore logStore = ProtobufIssueStore.logStructured(storePath, projectPath);
+
+    assertThat(logStore.read(key)).hasSameSizeAs(issues);
+    assertThat(logStore.contains(otherKey)).isFalse();
+    try (var files = Files.list(storePath)) {
+      assertThat(files.map(p -> p.getFileName().toString()).collect(Collectors.toList())).containsOnly("issues-0.log");
+    }
+  }
+
+  @Test
+  void log_structured_store_should_open_when_legacy_index_is_corrupt() throws IOException {
+    var storePath = base.resolve("store");
+    var projectPath = base.resolve("project");
+    Files.createDirectories(projectPath);
+    Files.createFile(projectPath.resolve(key));
+    var indexedStore = new ProtobufIssueStore(storePath, projectPath);
+    indexedStore.save(key, Arrays.asList(newMockTrackable(), newMockTrackable()));
+    Files.write(storePath.resolve("index.pb"), new byte[] {(byte) 0xff, (byte) 0xff});
+
+    ProtobufIssueStore logStore = ProtobufIssueStore.logStructured(storePath, projectPath);
+
+    assertThat(logStore.contains(key)).isFalse();
+    logStore.save(key, Collections.emptyList());
+    assertThat(logStore.read(key)).isEmpty();
+    try (var files = Files.list(storePath)) {
+      assertThat(files.map(p -> p.getFileName().toString()).collect(Collectors.toList())).containsOnly("issues-0.log");
+    }
+  }
+
   private Trackable newMockTrackable() {
     var trackable = mock(Trackable.class);
     when(trackable.getRuleKey()).thenReturn("ruleKey" + counter.incrementAndGet());
@@ -0,0 +1,228 @@
+/*
+ * SonarLint Core - Implementation
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.tracking;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentLogObjectStoreTests {
+
+  private static final Reader<String> READER = is -> {
+    try {
+      return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  };
+  private static final Writer<String> WRITER = (os, value) -> {
+    try {
+      os.write(value.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  };
+
+  @TempDir
+  private Path dir;
+
+  @Test
+  void should_read_latest_value_written() throws IOException {
+    var store = newStore();
+
+    assertThat(store.read("key")).isEmpty();
+    store.write("key", "first");
+    store.write("other", "value");
+    store.write("key", "second");
+
+    assertThat(store.contains("key")).isTrue();
+    assertThat(store.read("key")).contains("second");
+    assertThat(store.read("other")).contains("value");
+  }
+
+  @Test
+  void should_forget_deleted_keys() throws IOException {
+    var store = newStore();
+    store.write("key", "value");
+
+    store.delete("key");
+    store.delete("nonexistent");
+
+    assertThat(store.contains("key")).isFalse();
+    assertThat(store.read("key")).isEmpty();
+  }
+
+  @Test
+  void should_restore_state_when_reopened() throws IOException {
+    var store = newStore();
+    store.write("key", "first");
+    store.write("key", "");
+    store.write("deleted", "value");
+    store.delete("deleted");
+    store.write("kept", "value");
+    store.close();
+
+    var reopened = newStore();
+    assertThat(reopened.read("key")).contains("");
+    assertThat(reopened.contains("deleted")).isFalse();
+    assertThat(reopened.read("kept")).contains("value");
+  }
+
+  @Test
+  void should_truncate_incomplete_record_when_reopened() throws IOException {
+    var store = newStore();
+    store.write("key", "value");
+    var path = store.segmentPath();
+    var validLength = Files.size(path);
+    store.write("torn", "value");
+    store.close();
+    try (var file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.setLength(Files.size(path) - 2);
+    }
+
+    var reopened = newStore();
+
+    assertThat(reopened.read("key")).contains("value");
+    assertThat(reopened.contains("torn")).isFalse();
+    assertThat(path).hasSize(validLength);
+    reopened.write("after", "recovery");
+    reopened.close();
+    assertThat(newStore().read("after")).contains("recovery");
+  }
+
+  @Test
+  void should_ignore_records_after_a_corrupt_one() throws IOException {
+    var store = newStore();
+    store.write("key", "value");
+    var path = store.segmentPath();
+    var validLength = Files.size(path);
+    store.write("corrupt", "value");
+    store.write("next", "value");
+    store.close();
+    try (var file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.seek(validLength + 10);
+      file.write('X');
+    }
+
+    var reopened = newStore();
+
+    assertThat(reopened.read("key")).contains("value");
+    assertThat(reopened.contains("corrupt")).isFalse();
+    assertThat(reopened.contains("next")).isFalse();
+  }
+
+  @Test
+  void should_compact_when_mostly_garbage() throws IOException {
+    var store = new SegmentLogObjectStore<>(dir, READER, WRITER, key -> true, 100);
+    var initialSegment = store.segmentPath();
+    store.write("kept", "value");
+    for (var i = 0; i < 20; i++) {
+      store.write("key", "value" + i);
+    }
+
+    assertThat(store.segmentPath()).isNotEqualTo(initialSegment);
+    assertThat(initialSegment).doesNotExist();
+    assertThat(Files.size(store.segmentPath())).isLessThan(20 * 20);
+    assertThat(store.read("kept")).contains("value");
+    assertThat(store.read("key")).contains("value19");
+
+    store.close();
+    var reopened = newStore();
+    assertThat(reopened.read("kept")).contains("value");
+    assertThat(reopened.read("key")).contains("value19");
+  }
+
+  @Test
+  void should_keep_appending_and_clean_up_when_compaction_fails() throws IOException {
+    var store = new SegmentLogObjectStore<>(dir, READER, WRITER, key -> true, 100);
+    var initialSegment = store.segmentPath();
+    // the compacted segment can not be moved in place of a non-empty directory
+    var blocker = Files.createDirectories(dir.resolve("issues-1.log").resolve("blocker"));
+    store.write("kept", "value");
+    for (var i = 0; i < 20; i++) {
+      store.write("key", "value" + i);
+    }
+
+    assertThat(store.segmentPath()).isEqualTo(initialSegment);
+    assertThat(store.read("kept")).contains("value");
+    assertThat(store.read("key")).contains("value19");
+    try (var files = Files.list(dir)) {
+      assertThat(files.map(p -> p.getFileName().toString()).collect(Collectors.toList())).containsOnly("issues-0.log", "issues-1.log");
+    }
+
+    Files.delete(blocker);
+    Files.delete(blocker.getParent());
+    for (var i = 0; i < 20; i++) {
+      store.write("key", "other" + i);
+    }
+
+    assertThat(store.segmentPath()).isNotEqualTo(initialSegment);
+    store.close();
+    var reopened = newStore();
+    assertThat(reopened.read("kept")).contains("value");
+    assertThat(reopened.read("key")).contains("other19");
+  }
+
+  @Test
+  void should_keep_only_newest_segment_and_drop_leftovers_of_interrupted_compaction() throws IOException {
+    var store = newStore();
+    store.write("key", "old");
+    store.close();
+    var newer = newStore();
+    Files.copy(newer.segmentPath(), dir.resolve("issues-1.log"));
+    newer.close();
+    Files.writeString(dir.resolve("issues-2.log.tmp"), "partial");
+
+    var reopened = newStore();
+    reopened.write("key", "new");
+    reopened.close();
+
+    try (var files = Files.list(dir)) {
+      assertThat(files.map(p -> p.getFileName().toString()).collect(Collectors.toList())).containsOnly("issues-1.log");
+    }
+    assertThat(newStore().read("key")).contains("new");
+  }
+
+  @Test
+  void should_delete_invalid_keys() throws IOException {
+    var store = new SegmentLogObjectStore<>(dir, READER, WRITER, key -> key.startsWith("valid"));
+    store.write("valid", "value");
+    store.write("invalid", "value");
+
+    store.deleteInvalid();
+
+    assertThat(store.contains("valid")).isTrue();
+    assertThat(store.contains("invalid")).isFalse();
+  }
+
+  private SegmentLogObjectStore<String> newStore() {
+    return new SegmentLogObjectStore<>(dir, READER, WRITER, key -> true);
+  }
+
+}
@@ -25,6 +25,10 @@ import java.util.Collections;
 public class CachingIssueTracker extends IssueTracker {
 
   private final IssueTrackerCache cache;
+  /**
+   * Tracking of a file depends on the previous tracking of the same file, but not on the other files
+   */
+  private final FileLocks fileLocks = new FileLocks();
 
   public CachingIssueTracker(IssueTrackerCache cache) {
     this.cache = cache;
@@ -37,15 +41,17 @@ public class CachingIssueTracker extends IssueTracker {
    * @param file the file analyzed
    * @param trackables the trackables in the file
    */
-  public synchronized Collection<Trackable> matchAndTrackAsNew(String file, Collection<Trackable> trackables) {
-    Collection<Trackable> tracked;
-    if (cache.isFirstAnalysis(file)) {
-      tracked = trackables;
-    } else {
-      tracked = apply(cache.getCurrentTrackables(file), trackables, false);
+  public Collection<Trackable> matchAndTrackAsNew(String file, Collection<Trackable> trackables) {
+    synchronized (fileLocks.lockFor(file)) {
+      Collection<Trackable> tracked;
+      if (cache.isFirstAnalysis(file)) {
+        tracked = trackables;
+      } else {
+        tracked = apply(cache.getCurrentTrackables(file), trackables, false);
+      }
+      cache.put(file, tracked);
+      return tracked;
     }
-    cache.put(file, tracked);
-    return tracked;
   }
 
   /**
@@ -54,17 +60,19 @@ public class CachingIssueTracker extends IssueTracker {
    * @param file the file analyzed
    * @param trackables the trackables in the file
    */
-  public synchronized Collection<Trackable> matchAndTrackAsBase(String file, Collection<Trackable> trackables) {
-    // store issues (ProtobufIssueTrackable) are of no use since they can't be used in markers. There should have been
-    // an analysis before that set the live issues for the file (even if it is empty)
-    Collection<Trackable> current = cache.getLiveOrFail(file);
-    if (current.isEmpty()) {
-      // whatever is the base, if current is empty, then nothing to do
-      return Collections.emptyList();
+  public Collection<Trackable> matchAndTrackAsBase(String file, Collection<Trackable> trackables) {
+    synchronized (fileLocks.lockFor(file)) {
+      // store issues (ProtobufIssueTrackable) are of no use since they can't be used in markers. There should have been
+      // an analysis before that set the live issues for the file (even if it is empty)
+      Collection<Trackable> current = cache.getLiveOrFail(file);
+      if (current.isEmpty()) {
+        // whatever is the base, if current is empty, then nothing to do
+        return Collections.emptyList();
+      }
+      var tracked = apply(trackables, current, true);
+      cache.put(file, tracked);
+      return tracked;
     }
-    var tracked = apply(trackables, current, true);
-    cache.put(file, tracked);
-    return tracked;
   }
 
   public void clear() {
@@ -0,0 +1,42 @@
+/*
+ * SonarLint Issue Tracking
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.issuetracking;
+
+/**
+ * Fixed set of monitors, a given file always being mapped to the same one. Updates of a file are serialized, while different files
+ * are very likely to use different monitors.
+ */
+class FileLocks {
+
+  private static final int STRIPES = 64;
+
+  private final Object[] locks = new Object[STRIPES];
+
+  FileLocks() {
+    for (var i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  Object lockFor(String file) {
+    var hash = file.hashCode();
+    return locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * SonarLint Issue Tracking
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.issuetracking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Match and track a collection of issues, with the same matching rules and the same results as {@link Tracker}.
+ * <p>
+ * The fields used by the matching passes are read once per trackable and stored in primitive arrays, strings being replaced by ids. Each
+ * pass then indexes the unmatched bases in open-addressing tables that are allocated once and reused by the following passes, so that no
+ * key object is created and a matched base is removed in constant time.
+ *
+ * @param <R> type of the "raw" trackables that are in the incoming collection
+ * @param <B> type of the base trackables that are in the current collection
+ */
+public class IndexedTracker<R extends Trackable, B extends Trackable> {
+
+  private static final int SERVER_ISSUE_KEY = 0;
+  private static final int RULE_KEY = 1;
+  private static final int MESSAGE = 2;
+  private static final int LINE = 3;
+  private static final int LINE_HASH = 4;
+  private static final int TEXT_RANGE_HASH = 5;
+  private static final int FIELD_COUNT = 6;
+
+  /**
+   * Fields compared by each pass, in the same order as {@link Tracker#track(Supplier, Supplier)}
+   */
+  private static final int[][] PASSES = {
+    // 1. same server issue key
+    {SERVER_ISSUE_KEY},
+    // 2. same rule, same line and same text range hash
+    {RULE_KEY, LINE, TEXT_RANGE_HASH},
+    // 3. same rule, same message and same text range hash
+    {RULE_KEY, MESSAGE, TEXT_RANGE_HASH},
+    // 4. same rule, same line and same message
+    {RULE_KEY, LINE, MESSAGE},
+    // 5. same rule and same text range hash
+    {RULE_KEY, TEXT_RANGE_HASH},
+    // 6. same rule, same line and same line hash
+    {RULE_KEY, LINE, LINE_HASH},
+    // 7. same rule and same line hash
+    {RULE_KEY, LINE_HASH}
+  };
+
+  /**
+   * Encoding of null values, distinct from all int values and string ids
+   */
+  private static final long NULL = Long.MIN_VALUE;
+  /**
+   * Encoding of blank server issue keys, that never match
+   */
+  private static final long NO_MATCH = Long.MIN_VALUE + 1;
+  private static final int EMPTY = -1;
+
+  public Tracking<R, B> track(Supplier<Collection<R>> rawTrackableSupplier, Supplier<Collection<B>> baseTrackableSupplier) {
+    var tracking = new Tracking<R, B>(rawTrackableSupplier, baseTrackableSupplier);
+    new Matcher<>(tracking).matchAll();
+    return tracking;
+  }
+
+  private static class Matcher<R extends Trackable, B extends Trackable> {
+    private final Tracking<R, B> tracking;
+    private final List<R> raws;
+    private final List<B> bases;
+    private final long[][] rawFields;
+    private final long[][] baseFields;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    /**
+     * For each slot of the table, the base that defines the key of the slot, or {@link #EMPTY}. A slot keeps its key once all its bases
+     * have been matched, so that probing stays valid until the end of the pass.
+     */
+    private final int[] slotKeys;
+    private final int[] slotHeads;
+    private final int[] slotTails;
+    /**
+     * Next base with the same key, in the order of the base collection
+     */
+    private final int[] nextBases;
+    private final boolean[] unmatchedRaws;
+
+    Matcher(Tracking<R, B> tracking) {
+      this.tracking = tracking;
+      this.raws = new ArrayList<>(tracking.getRaws());
+      this.bases = new ArrayList<>(tracking.getBases());
+      this.rawFields = readFields(raws);
+      this.baseFields = readFields(bases);
+      var capacity = Integer.highestOneBit(Math.max(2, bases.size()) * 2 - 1) << 1;
+      this.slotKeys = new int[capacity];
+      this.slotHeads = new int[capacity];
+      this.slotTails = new int[capacity];
+      this.nextBases = new int[bases.size()];
+      this.unmatchedRaws = new boolean[raws.size()];
+    }
+
+    void matchAll() {
+      for (int[] pass : PASSES) {
+        if (tracking.isComplete()) {
+          return;
+        }
+        match(pass);
+      }
+    }
+
+    private void match(int[] pass) {
+      Arrays.fill(slotKeys, EMPTY);
+      var mask = slotKeys.length - 1;
+      for (var b = 0; b < bases.size(); b++) {
+        if (tracking.isMatchedBase(bases.get(b)) || !isMatchable(baseFields, b, pass)) {
+          continue;
+        }
+        var slot = findSlot(baseFields, b, pass, mask);
+        nextBases[b] = EMPTY;
+        if (slotKeys[slot] == EMPTY) {
+          slotKeys[slot] = b;
+          slotHeads[slot] = b;
+        } else if (slotHeads[slot] == EMPTY) {
+          slotHeads[slot] = b;
+        } else {
+          nextBases[slotTails[slot]] = b;
+        }
+        slotTails[slot] = b;
+      }
+
+      // like Tracker, raws matched during this pass are still considered if they appear several times in the collection
+      for (var r = 0; r < raws.size(); r++) {
+        unmatchedRaws[r] = !tracking.isMatchedRaw(raws.get(r));
+      }
+      for (var r = 0; r < raws.size(); r++) {
+        if (!unmatchedRaws[r] || !isMatchable(rawFields, r, pass)) {
+          continue;
+        }
+        var slot = findSlot(rawFields, r, pass, mask);
+        if (slotKeys[slot] != EMPTY && slotHeads[slot] != EMPTY) {
+          var match = slotHeads[slot];
+          tracking.match(raws.get(r), bases.get(match));
+          slotHeads[slot] = nextBases[match];
+        }
+      }
+    }
+
+    /**
+     * @return the slot holding the key of the given trackable, or the empty slot where it should be added
+     */
+    private int findSlot(long[][] fields, int index, int[] pass, int mask) {
+      var slot = hash(fields, index, pass) & mask;
+      while (slotKeys[slot] != EMPTY && !sameKey(fields, index, slotKeys[slot], pass)) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private boolean sameKey(long[][] fields, int index, int base, int[] pass) {
+      for (int field : pass) {
+        if (fields[field][index] != baseFields[field][base]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean isMatchable(long[][] fields, int index, int[] pass) {
+      return pass[0] != SERVER_ISSUE_KEY || fields[SERVER_ISSUE_KEY][index] != NO_MATCH;
+    }
+
+    private static int hash(long[][] fields, int index, int[] pass) {
+      var result = 1;
+      for (int field : pass) {
+        result = 31 * result + Long.hashCode(fields[field][index]);
+      }
+      // spread the bits, low ones are used to find the slot
+      return result ^ (result >>> 16);
+    }
+
+    private long[][] readFields(List<? extends Trackable> trackables) {
+      var fields = new long[FIELD_COUNT][trackables.size()];
+      for (var i = 0; i < trackables.size(); i++) {
+        var trackable = trackables.get(i);
+        var serverIssueKey = trackable.getServerIssueKey();
+        fields[SERVER_ISSUE_KEY][i] = serverIssueKey == null || serverIssueKey.isEmpty() ? NO_MATCH : id(serverIssueKey);
+        fields[RULE_KEY][i] = id(trackable.getRuleKey());
+        fields[MESSAGE][i] = id(trackable.getMessage());
+        fields[LINE][i] = value(trackable.getLine());
+        fields[LINE_HASH][i] = value(trackable.getLineHash());
+        fields[TEXT_RANGE_HASH][i] = value(trackable.getTextRangeHash());
+      }
+      return fields;
+    }
+
+    private long id(@Nullable String value) {
+      return value == null ? NULL : stringIds.computeIfAbsent(value, v -> stringIds.size());
+    }
+
+    private static long value(@Nullable Integer value) {
+      return value == null ? NULL : value;
+    }
+  }
+}
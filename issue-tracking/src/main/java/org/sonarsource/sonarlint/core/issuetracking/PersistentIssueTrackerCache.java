@@ -20,116 +20,463 @@
 package org.sonarsource.sonarlint.core.issuetracking;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+import javax.annotation.CheckForNull;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 
+/**
+ * Keeps a maximum number of entries in memory, or with {@link #withIssueBudget(TrackableIssueStore, long)} a maximum number of tracked
+ * issues. On insertion, if the limit is passed, the entries accessed the longest time ago are removed from memory, except the last one,
+ * and queued to be written to the store by a background writer. Until it is written, the queued entry is still returned by reads, and a
+ * newer eviction of the same file replaces it in the queue. Failed writes are retried with an increasing delay, and queued entries are
+ * bounded by the same limit as entries in memory: the oldest ones are dropped when the store keeps failing.
+ * <p>
+ * Operations on a file are serialized with a per-file lock, so that different files can be read and updated concurrently. The store
+ * has to support concurrent writes of different files.
+ */
 public class PersistentIssueTrackerCache<T> implements IssueTrackerCache<T> {
 
   private static final SonarLintLogger LOGGER = SonarLintLogger.get();
 
   static final int MAX_ENTRIES = 100;
+  private static final int FLUSH_THREADS = 4;
+  private static final long DEFAULT_MIN_RETRY_DELAY_MS = 1_000;
+  private static final long MAX_RETRY_DELAY_MS = 60_000;
+
+  private final TrackableIssueStore<T> store;
+  private final Map<String, Entry<T>> cache = new ConcurrentHashMap<>();
+  /**
+   * Evicted entries that are not written to the store yet
+   */
+  private final Map<String, Entry<T>> pendingWrites = new ConcurrentHashMap<>();
+  private final AtomicLong pendingWeight = new AtomicLong();
+  private final AtomicLong accessClock = new AtomicLong();
+  private final ToIntFunction<Collection<?>> weigher;
+  private final long maxWeight;
+  private final AtomicLong weight = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final FileLocks fileLocks = new FileLocks();
+  private final Object evictionLock = new Object();
+  /**
+   * Reads and writes of the store hold the read lock, clearing the store holds the write lock
+   */
+  private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+  private final Executor writer;
+  private final AtomicBoolean writeScheduled = new AtomicBoolean();
+  private final long minRetryDelayMillis;
+  private final AtomicLong retryDelayMillis = new AtomicLong();
+  private volatile boolean shutdown;
 
-  private final TrackableIssueStore store;
-  private final Map<String, Collection<Trackable<T>>> cache;
+  public PersistentIssueTrackerCache(TrackableIssueStore<T> store) {
+    this(store, newWriter());
+  }
 
-  public PersistentIssueTrackerCache(TrackableIssueStore store) {
+  PersistentIssueTrackerCache(TrackableIssueStore<T> store, Executor writer) {
+    this(store, trackables -> 1, MAX_ENTRIES, writer);
+  }
+
+  PersistentIssueTrackerCache(TrackableIssueStore<T> store, ToIntFunction<Collection<?>> weigher, long maxWeight, Executor writer) {
+    this(store, weigher, maxWeight, writer, DEFAULT_MIN_RETRY_DELAY_MS);
+  }
+
+  PersistentIssueTrackerCache(TrackableIssueStore<T> store, ToIntFunction<Collection<?>> weigher, long maxWeight, Executor writer,
+    long minRetryDelayMillis) {
     this.store = store;
-    this.cache = new LimitedSizeLinkedHashMap();
+    this.weigher = weigher;
+    this.maxWeight = maxWeight;
+    this.writer = writer;
+    this.minRetryDelayMillis = minRetryDelayMillis;
   }
 
   /**
-   * Keeps a maximum number of entries in the map. On insertion, if the limit is passed, the entry accessed the longest time ago
-   * is flushed into cache and removed from the map.
+   * Keep in memory the files that have at most the given number of tracked issues in total, a file without issues counting as one issue.
+   * A single file above the budget is still kept until another one is put.
    */
-  private class LimitedSizeLinkedHashMap extends LinkedHashMap<String, Collection<Trackable<T>>> {
-    LimitedSizeLinkedHashMap() {
-      super(MAX_ENTRIES, 0.75f, true);
+  public static <T> PersistentIssueTrackerCache<T> withIssueBudget(TrackableIssueStore<T> store, long maxTrackedIssues) {
+    return new PersistentIssueTrackerCache<>(store, trackables -> Math.max(1, trackables.size()), maxTrackedIssues, newWriter());
+  }
+
+  private static Executor newWriter() {
+    return new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreads("sonarlint-issue-store-writer"));
+  }
+
+  @Override
+  public boolean isFirstAnalysis(String file) {
+    synchronized (fileLocks.lockFor(file)) {
+      return !cache.containsKey(file) && !pendingWrites.containsKey(file) && !storeContains(file);
     }
+  }
 
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<String, Collection<Trackable<T>>> eldest) {
-      if (size() <= MAX_ENTRIES) {
-        return false;
+  @Override
+  public Collection<Trackable<T>> getLiveOrFail(String file) {
+    synchronized (fileLocks.lockFor(file)) {
+      var liveTrackables = getLive(file);
+      if (liveTrackables != null) {
+        hits.incrementAndGet();
+        return liveTrackables;
+      }
+    }
+
+    misses.incrementAndGet();
+    throw new IllegalStateException("No issues in cache for file: " + file);
+  }
+
+  /**
+   * Read issues from a file that is cached. On cache miss, it won't fallback to the persistent store.
+   */
+  @Override
+  public Collection<Trackable<T>> getCurrentTrackables(String file) {
+    synchronized (fileLocks.lockFor(file)) {
+      var liveTrackables = getLive(file);
+      if (liveTrackables != null) {
+        hits.incrementAndGet();
+        return liveTrackables;
+      }
+      misses.incrementAndGet();
+      var pending = pendingWrites.get(file);
+      if (pending != null) {
+        return Collections.unmodifiableCollection(pending.trackables);
       }
 
-      var key = eldest.getKey();
       try {
-        LOGGER.debug("Persisting issues for " + key);
-        store.save(key, eldest.getValue());
+        var storedTrackables = readStore(file);
+        if (storedTrackables != null) {
+          return Collections.unmodifiableCollection(storedTrackables);
+        }
       } catch (IOException e) {
-        throw new IllegalStateException(String.format("Error persisting issues for %s", key), e);
+        LOGGER.error(String.format("Failed to read issues from store for file %s", file), e);
       }
-      return true;
+      return Collections.emptyList();
     }
   }
 
-  @Override
-  public boolean isFirstAnalysis(String file) {
-    return !cache.containsKey(file) && !store.contains(file);
+  private boolean storeContains(String file) {
+    storeLock.readLock().lock();
+    try {
+      return store.contains(file);
+    } finally {
+      storeLock.readLock().unlock();
+    }
+  }
+
+  @CheckForNull
+  private Collection<Trackable<T>> readStore(String file) throws IOException {
+    storeLock.readLock().lock();
+    try {
+      return store.read(file);
+    } finally {
+      storeLock.readLock().unlock();
+    }
+  }
+
+  @CheckForNull
+  private Collection<Trackable<T>> getLive(String file) {
+    var entry = cache.get(file);
+    if (entry == null) {
+      return null;
+    }
+    entry.lastAccess = accessClock.incrementAndGet();
+    return entry.trackables;
   }
 
   @Override
-  public synchronized Collection<Trackable<T>> getLiveOrFail(String file) {
-    var liveTrackables = cache.get(file);
-    if (liveTrackables != null) {
-      return liveTrackables;
+  public void put(String file, Collection<Trackable<T>> trackables) {
+    synchronized (fileLocks.lockFor(file)) {
+      var entry = new Entry<>(trackables, weigher.applyAsInt(trackables), accessClock.incrementAndGet());
+      var previous = cache.put(file, entry);
+      weight.addAndGet(previous != null ? (entry.weight - previous.weight) : entry.weight);
+    }
+    // the lock of the file is released first, the eviction takes the lock of the evicted file
+    if (isOverBudget()) {
+      evictEldestEntries();
     }
+  }
 
-    throw new IllegalStateException("No issues in cache for file: " + file);
+  private void evictEldestEntries() {
+    synchronized (evictionLock) {
+      while (isOverBudget()) {
+        var eldest = cache.entrySet().stream()
+          .min((e1, e2) -> Long.compare(e1.getValue().lastAccess, e2.getValue().lastAccess))
+          .orElse(null);
+        if (eldest == null) {
+          return;
+        }
+        var key = eldest.getKey();
+        synchronized (fileLocks.lockFor(key)) {
+          // the entry may have been replaced since it was selected
+          if (cache.remove(key, eldest.getValue())) {
+            weight.addAndGet(-eldest.getValue().weight);
+            evictions.incrementAndGet();
+            queueWrite(key, eldest.getValue());
+          }
+        }
+      }
+      dropEldestPendingWrites();
+    }
+    scheduleWrites();
+  }
+
+  private void queueWrite(String key, Entry<T> entry) {
+    var previous = pendingWrites.put(key, entry);
+    pendingWeight.addAndGet(previous != null ? (entry.weight - previous.weight) : entry.weight);
+  }
+
+  private void removePendingWrite(String key, Entry<T> entry) {
+    if (pendingWrites.remove(key, entry)) {
+      pendingWeight.addAndGet(-entry.weight);
+    }
   }
 
   /**
-   * Read issues from a file that is cached. On cache miss, it won't fallback to the persistent store.
+   * Only happens when writes keep failing, the most recently queued entry is never dropped
    */
-  @Override
-  public synchronized Collection<Trackable<T>> getCurrentTrackables(String file) {
-    var liveTrackables = cache.get(file);
-    if (liveTrackables != null) {
-      return liveTrackables;
+  private void dropEldestPendingWrites() {
+    while (pendingWeight.get() > maxWeight && pendingWrites.size() > 1) {
+      var eldest = pendingWrites.entrySet().stream()
+        .min((e1, e2) -> Long.compare(e1.getValue().lastAccess, e2.getValue().lastAccess))
+        .orElse(null);
+      if (eldest == null) {
+        return;
+      }
+      LOGGER.warn("Dropping issues of " + eldest.getKey() + " that could not be persisted");
+      removePendingWrite(eldest.getKey(), eldest.getValue());
     }
+  }
 
-    try {
-      Collection<Trackable<T>> storedTrackables = store.read(file);
-      if (storedTrackables != null) {
-        return Collections.unmodifiableCollection(storedTrackables);
+  /**
+   * The most recently accessed entry is never evicted
+   */
+  private boolean isOverBudget() {
+    return weight.get() > maxWeight && cache.size() > 1;
+  }
+
+  private void scheduleWrites() {
+    if (writeScheduled.compareAndSet(false, true)) {
+      var logTarget = SonarLintLogger.getTarget();
+      try {
+        writer.execute(() -> {
+          SonarLintLogger.setTarget(logTarget);
+          writeAllPending();
+        });
+      } catch (RejectedExecutionException e) {
+        // after shutdown
+        writeAllPending();
       }
-    } catch (IOException e) {
-      LOGGER.error(String.format("Failed to read issues from store for file %s", file), e);
     }
-    return Collections.emptyList();
   }
 
-  @Override
-  public synchronized void put(String file, Collection<Trackable<T>> trackables) {
-    cache.put(file, trackables);
+  private void writeAllPending() {
+    // entries queued from now on will schedule another run
+    writeScheduled.set(false);
+    var failed = false;
+    for (String key : new ArrayList<>(pendingWrites.keySet())) {
+      failed |= !writePending(key);
+    }
+    if (failed) {
+      scheduleRetry();
+    } else {
+      retryDelayMillis.set(0);
+    }
+  }
+
+  private void scheduleRetry() {
+    if (shutdown) {
+      return;
+    }
+    var delay = retryDelayMillis.updateAndGet(d -> d == 0 ? minRetryDelayMillis : Math.min(2 * d, MAX_RETRY_DELAY_MS));
+    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(this::scheduleWrites);
+  }
+
+  /**
+   * Holds the lock of the file, only operations on this file wait for the write
+   *
+   * @return false if the write failed
+   */
+  private boolean writePending(String key) {
+    synchronized (fileLocks.lockFor(key)) {
+      storeLock.readLock().lock();
+      try {
+        var pending = pendingWrites.get(key);
+        if (pending != null) {
+          LOGGER.debug("Persisting issues for " + key);
+          store.save(key, pending.trackables);
+          removePendingWrite(key, pending);
+        }
+        return true;
+      } catch (IOException e) {
+        // kept in the queue, it will be retried
+        LOGGER.error(String.format("Error persisting issues for %s", key), e);
+        return false;
+      } finally {
+        storeLock.readLock().unlock();
+      }
+    }
   }
 
   @Override
-  public synchronized void clear() {
-    store.clear();
-    cache.clear();
+  public void clear() {
+    synchronized (evictionLock) {
+      storeLock.writeLock().lock();
+      try {
+        pendingWrites.forEach(this::removePendingWrite);
+        store.clear();
+      } finally {
+        storeLock.writeLock().unlock();
+      }
+      cache.forEach((path, entry) -> {
+        if (cache.remove(path, entry)) {
+          weight.addAndGet(-entry.weight);
+        }
+      });
+    }
   }
 
   /**
-   * Flushes all cached entries to disk.
+   * Flushes all cached and queued entries to disk, writing several files in parallel.
    * It does not clear the cache.
    */
-  public synchronized void flushAll() {
+  public void flushAll() {
     LOGGER.debug("Persisting all issues");
-    cache.forEach((path, trackables) -> {
+    Map<String, Entry<T>> toWrite = new HashMap<>(pendingWrites);
+    toWrite.putAll(cache);
+    if (toWrite.isEmpty()) {
+      return;
+    }
+    var logTarget = SonarLintLogger.getTarget();
+    var flushers = Executors.newFixedThreadPool(Math.min(FLUSH_THREADS, toWrite.size()), daemonThreads("sonarlint-issue-store-flusher"));
+    try {
+      List<CompletableFuture<Void>> writes = new ArrayList<>();
+      toWrite.forEach((path, entry) -> writes.add(CompletableFuture.runAsync(() -> {
+        SonarLintLogger.setTarget(logTarget);
+        flush(path);
+      }, flushers)));
+      CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    } finally {
+      flushers.shutdown();
+    }
+  }
+
+  private void flush(String path) {
+    synchronized (fileLocks.lockFor(path)) {
+      var entry = cache.get(path);
+      storeLock.readLock().lock();
       try {
-        store.save(path, trackables);
+        if (entry != null) {
+          store.save(path, entry.trackables);
+          // the live entry is more recent than the queued one
+          var pending = pendingWrites.get(path);
+          if (pending != null) {
+            removePendingWrite(path, pending);
+          }
+        } else {
+          var pending = pendingWrites.get(path);
+          if (pending != null) {
+            store.save(path, pending.trackables);
+            removePendingWrite(path, pending);
+          }
+        }
       } catch (IOException e) {
         throw new IllegalStateException("Failed to flush cache", e);
+      } finally {
+        storeLock.readLock().unlock();
       }
-    });
+    }
+  }
+
+  /**
+   * Number of reads that found the issues of the file in memory
+   */
+  public long hits() {
+    return hits.get();
+  }
+
+  /**
+   * Number of reads that didn't find the issues of the file in memory
+   */
+  public long misses() {
+    return misses.get();
+  }
+
+  /**
+   * Number of entries removed from memory to respect the budget
+   */
+  public long evictions() {
+    return evictions.get();
+  }
+
+  /**
+   * Weight of the entries in memory: their count, or the number of tracked issues with an issue budget
+   */
+  public long weight() {
+    return weight.get();
+  }
+
+  /**
+   * Weight of the evicted entries that are not written to the store yet
+   */
+  public long pendingWeight() {
+    return pendingWeight.get();
   }
 
   @Override
-  public synchronized void shutdown() {
-    flushAll();
+  public void shutdown() {
+    shutdown = true;
+    try {
+      flushAll();
+    } finally {
+      if (writer instanceof ExecutorService) {
+        ((ExecutorService) writer).shutdown();
+      }
+    }
+  }
+
+  private static ThreadFactory daemonThreads(String namePrefix) {
+    var counter = new AtomicInteger();
+    return r -> {
+      var thread = new Thread(r, namePrefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static class Entry<T> {
+    private final Collection<Trackable<T>> trackables;
+    private final int weight;
+    private volatile long lastAccess;
+
+    private Entry(Collection<Trackable<T>> trackables, int weight, long lastAccess) {
+      this.trackables = trackables;
+      this.weight = weight;
+      this.lastAccess = lastAccess;
+    }
   }
 }
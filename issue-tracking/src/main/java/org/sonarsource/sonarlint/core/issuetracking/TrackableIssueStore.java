@@ -23,6 +23,9 @@ import java.io.IOException;
 import java.util.Collection;
 import javax.annotation.CheckForNull;
 
+/**
+ * Issues can be written concurrently for different keys.
+ */
 public interface TrackableIssueStore<T> {
 
   boolean contains(String key);
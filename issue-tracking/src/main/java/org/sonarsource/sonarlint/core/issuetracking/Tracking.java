@@ -80,6 +80,22 @@ public class Tracking<R extends Trackable, B extends Trackable> {
     return result;
   }
 
+  Collection<R> getRaws() {
+    return raws;
+  }
+
+  Collection<B> getBases() {
+    return bases;
+  }
+
+  boolean isMatchedRaw(R raw) {
+    return rawToBase.containsKey(raw);
+  }
+
+  boolean isMatchedBase(B base) {
+    return baseToRaw.containsKey(base);
+  }
+
   void match(R raw, B base) {
     rawToBase.put(raw, base);
     baseToRaw.put(base, raw);
@@ -19,10 +19,19 @@
  */
 package org.sonarsource.sonarlint.core.issuetracking;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CachingIssueTrackerTests {
 
@@ -40,4 +49,34 @@ class CachingIssueTrackerTests {
     tracker.shutdown();
     verify(cache).shutdown();
   }
+
+  @Test
+  void should_track_different_files_concurrently() throws Exception {
+    var blockingCache = mock(IssueTrackerCache.class);
+    var fileAEntered = new CountDownLatch(1);
+    var releaseFileA = new CountDownLatch(1);
+    when(blockingCache.isFirstAnalysis(anyString())).thenReturn(true);
+    doAnswer(invocation -> {
+      if ("fileA".equals(invocation.getArgument(0))) {
+        fileAEntered.countDown();
+        releaseFileA.await(10, TimeUnit.SECONDS);
+      }
+      return null;
+    }).when(blockingCache).put(anyString(), any());
+    var concurrentTracker = new CachingIssueTracker(blockingCache);
+
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var fileA = executor.submit(() -> concurrentTracker.matchAndTrackAsNew("fileA", List.of()));
+      assertThat(fileAEntered.await(10, TimeUnit.SECONDS)).isTrue();
+
+      // not blocked by the tracking of fileA
+      assertThat(concurrentTracker.matchAndTrackAsNew("fileB", List.of())).isEmpty();
+
+      releaseFileA.countDown();
+      assertThat(fileA.get(10, TimeUnit.SECONDS)).isEmpty();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
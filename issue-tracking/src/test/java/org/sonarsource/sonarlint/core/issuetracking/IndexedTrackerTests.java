@@ -0,0 +1,191 @@
+/*
+ * SonarLint Issue Tracking
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.issuetracking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexedTrackerTests {
+
+  @Test
+  void should_match_like_tracker_on_random_issues() {
+    var random = new Random(42);
+    for (var i = 0; i < 2_000; i++) {
+      var bases = randomIssues(random, random.nextInt(30));
+      var raws = randomIssues(random, random.nextInt(30));
+      assertSameTracking(raws, bases);
+    }
+  }
+
+  @Test
+  void should_match_like_tracker_on_many_issues() {
+    var random = new Random(7);
+    var bases = randomIssues(random, 5_000);
+    var raws = new ArrayList<Trackable>();
+    // mostly moved lines and edited messages of existing issues, in another order
+    for (Trackable base : bases) {
+      var issue = (TestTrackable) base;
+      raws.add(new TestTrackable(issue.ruleKey, random.nextBoolean() ? issue.message : "edited", issue.line == null ? null : issue.line + random.nextInt(3),
+        issue.lineHash, random.nextInt(4) == 0 ? null : issue.textRangeHash, null));
+    }
+    Collections.shuffle(raws, random);
+    raws.addAll(randomIssues(random, 500));
+    assertSameTracking(raws, bases);
+  }
+
+  @Test
+  void should_match_like_tracker_with_same_instances_several_times() {
+    var issue = new TestTrackable("rule", "message", 1, 1, 1, "key");
+    var other = new TestTrackable("rule", "message", 1, 1, 1, null);
+    assertSameTracking(List.of(issue, issue, other), List.of(other, issue, other));
+  }
+
+  @Test
+  void should_never_match_blank_server_issue_keys() {
+    var raw = new TestTrackable("rule1", "message1", 1, 1, 1, "");
+    var base = new TestTrackable("rule2", "message2", 2, 2, 2, "");
+
+    var tracking = new IndexedTracker<Trackable, Trackable>().track(() -> List.of(raw), () -> List.of(base));
+
+    assertThat(tracking.getMatchedRaws()).isEmpty();
+  }
+
+  private static void assertSameTracking(Collection<Trackable> raws, Collection<Trackable> bases) {
+    var expected = new Tracker<Trackable, Trackable>().track(() -> raws, () -> bases);
+    var actual = new IndexedTracker<Trackable, Trackable>().track(() -> raws, () -> bases);
+
+    assertThat(actual.getMatchedRaws()).containsExactlyInAnyOrderEntriesOf(expected.getMatchedRaws());
+    assertThat(actual.getUnmatchedRaws()).containsExactlyElementsOf(expected.getUnmatchedRaws());
+    assertThat(actual.getUnmatchedBases()).containsExactlyElementsOf(expected.getUnmatchedBases());
+  }
+
+  private static List<Trackable> randomIssues(Random random, int count) {
+    List<Trackable> issues = new ArrayList<>();
+    for (var i = 0; i < count; i++) {
+      issues.add(new TestTrackable(
+        "rule" + random.nextInt(3),
+        "message" + random.nextInt(3),
+        randomOrNull(random, 10),
+        randomOrNull(random, 5),
+        randomOrNull(random, 5),
+        random.nextInt(3) == 0 ? randomServerIssueKey(random) : null));
+    }
+    return issues;
+  }
+
+  @Nullable
+  private static Integer randomOrNull(Random random, int bound) {
+    return random.nextInt(5) == 0 ? null : random.nextInt(bound);
+  }
+
+  private static String randomServerIssueKey(Random random) {
+    return random.nextBoolean() ? "" : ("key" + random.nextInt(20));
+  }
+
+  private static class TestTrackable implements Trackable<Object> {
+    private final String ruleKey;
+    private final String message;
+    private final Integer line;
+    private final Integer lineHash;
+    private final Integer textRangeHash;
+    private final String serverIssueKey;
+
+    TestTrackable(String ruleKey, String message, @Nullable Integer line, @Nullable Integer lineHash, @Nullable Integer textRangeHash, @Nullable String serverIssueKey) {
+      this.ruleKey = ruleKey;
+      this.message = message;
+      this.line = line;
+      this.lineHash = lineHash;
+      this.textRangeHash = textRangeHash;
+      this.serverIssueKey = serverIssueKey;
+    }
+
+    @Override
+    public Object getClientObject() {
+      return this;
+    }
+
+    @Override
+    public String getRuleKey() {
+      return ruleKey;
+    }
+
+    @Override
+    public String getSeverity() {
+      return "MAJOR";
+    }
+
+    @Override
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String getType() {
+      return null;
+    }
+
+    @Override
+    public Integer getLine() {
+      return line;
+    }
+
+    @Override
+    public Integer getLineHash() {
+      return lineHash;
+    }
+
+    @Override
+    public TextRange getTextRange() {
+      return null;
+    }
+
+    @Override
+    public Integer getTextRangeHash() {
+      return textRangeHash;
+    }
+
+    @Override
+    public Long getCreationDate() {
+      return null;
+    }
+
+    @Override
+    public String getServerIssueKey() {
+      return serverIssueKey;
+    }
+
+    @Override
+    public boolean isResolved() {
+      return false;
+    }
+
+    @Override
+    public String getAssignee() {
+      return "";
+    }
+  }
+}
@@ -22,9 +22,17 @@ package org.sonarsource.sonarlint.core.issuetracking;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -43,11 +51,13 @@ class PersistentIssueTrackerCacheTests {
   private StubIssueStore stubIssueStore;
 
   class StubIssueStore implements TrackableIssueStore<Object> {
-    private final Map<String, Collection<Trackable<Object>>> cache = new HashMap<>();
+    private final Map<String, Collection<Trackable<Object>>> cache = new ConcurrentHashMap<>();
+    private final Map<String, Integer> saveCounts = new ConcurrentHashMap<>();
 
     @Override
     public void save(String key, Collection<Trackable<Object>> issues) throws IOException {
       cache.put(key, issues);
+      saveCounts.merge(key, 1, Integer::sum);
     }
 
     @Override
@@ -73,7 +83,8 @@ class PersistentIssueTrackerCacheTests {
   @BeforeEach
   void setUp() {
     stubIssueStore = new StubIssueStore();
-    cache = new PersistentIssueTrackerCache(stubIssueStore);
+    // write evicted entries synchronously
+    cache = new PersistentIssueTrackerCache(stubIssueStore, Runnable::run);
   }
 
   @Test
@@ -91,6 +102,98 @@ class PersistentIssueTrackerCacheTests {
     assertThat(stubIssueStore.size()).isEqualTo(2);
   }
 
+  @Test
+  void should_persist_least_recently_accessed_issues_first() {
+    for (var i = 0; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
+      cache.put("file" + i, Collections.emptyList());
+    }
+    cache.getCurrentTrackables("file0");
+
+    cache.put("new file", Collections.emptyList());
+
+    assertThat(stubIssueStore.contains("file0")).isFalse();
+    assertThat(stubIssueStore.contains("file1")).isTrue();
+    assertThat(cache.getLiveOrFail("file0")).isEmpty();
+  }
+
+  @Test
+  void should_keep_entries_bounded_with_concurrent_puts() throws Exception {
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (var t = 0; t < 4; t++) {
+        var thread = t;
+        futures.add(executor.submit(() -> {
+          for (var i = 0; i < 200; i++) {
+            cache.put("file" + thread + "-" + i, Collections.emptyList());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(stubIssueStore.size()).isEqualTo(800 - PersistentIssueTrackerCache.MAX_ENTRIES);
+    cache.shutdown();
+    assertThat(stubIssueStore.size()).isEqualTo(800);
+  }
+
+  @Test
+  void should_evict_by_tracked_issues_with_an_issue_budget() {
+    var cache = new PersistentIssueTrackerCache<Object>(stubIssueStore, trackables -> Math.max(1, trackables.size()), 10, Runnable::run);
+    cache.put("big", trackables(8));
+    cache.put("small", trackables(2));
+    assertThat(cache.weight()).isEqualTo(10);
+    assertThat(cache.evictions()).isZero();
+
+    cache.put("empty", Collections.emptyList());
+
+    assertThat(cache.evictions()).isEqualTo(1);
+    assertThat(cache.weight()).isEqualTo(3);
+    assertThat(stubIssueStore.contains("big")).isTrue();
+
+    cache.put("huge", trackables(20));
+
+    // the last file is kept even if it is above the budget
+    assertThat(cache.getLiveOrFail("huge")).hasSize(20);
+    assertThat(cache.weight()).isEqualTo(20);
+    assertThat(cache.evictions()).isEqualTo(3);
+  }
+
+  @Test
+  void should_count_hits_and_misses() {
+    cache.put("file", Collections.emptyList());
+
+    cache.getCurrentTrackables("file");
+    cache.getLiveOrFail("file");
+    cache.getCurrentTrackables("other");
+    assertThrows(IllegalStateException.class, () -> cache.getLiveOrFail("other"));
+
+    assertThat(cache.hits()).isEqualTo(2);
+    assertThat(cache.misses()).isEqualTo(2);
+  }
+
+  @Test
+  void should_create_cache_with_issue_budget() {
+    var cache = PersistentIssueTrackerCache.withIssueBudget(stubIssueStore, 1_000);
+    cache.put("file", trackables(5));
+
+    assertThat(cache.weight()).isEqualTo(5);
+    cache.shutdown();
+    assertThat(stubIssueStore.contains("file")).isTrue();
+  }
+
+  private static List<Trackable<Object>> trackables(int count) {
+    List<Trackable<Object>> trackables = new ArrayList<>();
+    for (var i = 0; i < count; i++) {
+      trackables.add(mock(Trackable.class));
+    }
+    return trackables;
+  }
+
   @Test
   void should_persist_issues_on_shutdown() {
     var count = PersistentIssueTrackerCache.MAX_ENTRIES / 2;
@@ -177,13 +280,185 @@ class PersistentIssueTrackerCacheTests {
   }
 
   @Test
-  void put_should_crash_on_io_failures_during_store_write() throws IOException {
+  void put_should_keep_evicted_issues_on_io_failures_during_store_write() throws IOException {
     var store = mock(TrackableIssueStore.class);
     doThrow(new IOException("failed to write to store")).when(store).save(anyString(), any());
-    var cache = new PersistentIssueTrackerCache(store);
-    for (var i = 0; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
+    var cache = new PersistentIssueTrackerCache(store, Runnable::run);
+    List<Trackable> trackables = Collections.singletonList(mock(Trackable.class));
+    cache.put("dummy0", trackables);
+    for (var i = 1; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
       cache.put("dummy" + i, Collections.emptyList());
     }
-    assertThrows(IllegalStateException.class, () -> cache.put("too much", Collections.emptyList()));
+
+    cache.put("too much", Collections.emptyList());
+
+    verify(store).save("dummy0", trackables);
+    assertThat(cache.getCurrentTrackables("dummy0")).containsExactlyElementsOf(trackables);
+    assertThat(cache.isFirstAnalysis("dummy0")).isFalse();
+  }
+
+  @Test
+  void should_read_evicted_issues_until_they_are_written() throws IOException {
+    var pendingTasks = new ArrayList<Runnable>();
+    var cache = new PersistentIssueTrackerCache(stubIssueStore, pendingTasks::add);
+    List<Trackable> trackables = Collections.singletonList(mock(Trackable.class));
+    cache.put("file0", trackables);
+    for (var i = 1; i <= PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
+      cache.put("file" + i, Collections.emptyList());
+    }
+
+    assertThat(stubIssueStore.size()).isZero();
+    assertThat(cache.isFirstAnalysis("file0")).isFalse();
+    assertThat(cache.getCurrentTrackables("file0")).containsExactlyElementsOf(trackables);
+    assertThrows(IllegalStateException.class, () -> cache.getLiveOrFail("file0"));
+
+    pendingTasks.forEach(Runnable::run);
+
+    assertThat(stubIssueStore.size()).isEqualTo(1);
+    assertThat(stubIssueStore.read("file0")).isSameAs(trackables);
+    assertThat(cache.getCurrentTrackables("file0")).containsExactlyElementsOf(trackables);
+  }
+
+  @Test
+  void should_coalesce_writes_of_the_same_file() throws IOException {
+    var pendingTasks = new ArrayList<Runnable>();
+    var cache = new PersistentIssueTrackerCache(stubIssueStore, pendingTasks::add);
+    cache.put("file", Collections.emptyList());
+    for (var i = 0; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
+      cache.put("other" + i, Collections.emptyList());
+    }
+    List<Trackable> latest = Collections.singletonList(mock(Trackable.class));
+    cache.put("file", latest);
+    for (var i = 0; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
+      cache.put("another" + i, Collections.emptyList());
+    }
+
+    assertThat(pendingTasks).hasSize(1);
+    pendingTasks.forEach(Runnable::run);
+
+    assertThat(stubIssueStore.saveCounts).containsEntry("file", 1);
+    assertThat(stubIssueStore.read("file")).isSameAs(latest);
+  }
+
+  @Test
+  void should_flush_files_in_parallel_on_shutdown() {
+    var concurrentSaves = new CountDownLatch(2);
+    var parallel = new ConcurrentLinkedQueue<Boolean>();
+    var store = new StubIssueStore() {
+      @Override
+      public void save(String key, Collection<Trackable<Object>> issues) throws IOException {
+        concurrentSaves.countDown();
+        try {
+          parallel.add(concurrentSaves.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.save(key, issues);
+      }
+    };
+    var cache = new PersistentIssueTrackerCache(store, Runnable::run);
+    cache.put("file1", Collections.emptyList());
+    cache.put("file2", Collections.emptyList());
+
+    cache.shutdown();
+
+    assertThat(parallel).containsExactly(true, true);
+    assertThat(store.size()).isEqualTo(2);
+  }
+
+  @Test
+  void should_not_access_store_while_it_is_cleared() throws Exception {
+    var clearing = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var clearInProgress = new AtomicBoolean();
+    var accessesDuringClear = new AtomicInteger();
+    var store = new StubIssueStore() {
+      @Override
+      public Collection<Trackable<Object>> read(String key) throws IOException {
+        if (clearInProgress.get()) {
+          accessesDuringClear.incrementAndGet();
+        }
+        return super.read(key);
+      }
+
+      @Override
+      public boolean contains(String key) {
+        if (clearInProgress.get()) {
+          accessesDuringClear.incrementAndGet();
+        }
+        return super.contains(key);
+      }
+
+      @Override
+      public void clear() {
+        clearInProgress.set(true);
+        clearing.countDown();
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.clear();
+        clearInProgress.set(false);
+      }
+    };
+    var cache = new PersistentIssueTrackerCache(store, Runnable::run);
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var clear = executor.submit(cache::clear);
+      assertThat(clearing.await(10, TimeUnit.SECONDS)).isTrue();
+      var read = executor.submit(() -> cache.isFirstAnalysis("file") && cache.getCurrentTrackables("file").isEmpty());
+
+      Thread.sleep(100);
+      assertThat(read).isNotDone();
+      release.countDown();
+
+      clear.get(10, TimeUnit.SECONDS);
+      assertThat(read.get(10, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(accessesDuringClear).hasValue(0);
+  }
+
+  @Test
+  void should_retry_failed_writes() throws Exception {
+    var failures = new AtomicInteger(2);
+    var store = new StubIssueStore() {
+      @Override
+      public void save(String key, Collection<Trackable<Object>> issues) throws IOException {
+        if (failures.getAndDecrement() > 0) {
+          throw new IOException("failed to write to store");
+        }
+        super.save(key, issues);
+      }
+    };
+    var cache = new PersistentIssueTrackerCache<Object>(store, trackables -> 1, 1, Runnable::run, 10);
+    cache.put("file0", Collections.emptyList());
+
+    cache.put("file1", Collections.emptyList());
+
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!store.contains("file0") && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(store.contains("file0")).isTrue();
+    assertThat(cache.pendingWeight()).isZero();
+  }
+
+  @Test
+  void should_bound_pending_writes_when_store_keeps_failing() throws IOException {
+    var store = mock(TrackableIssueStore.class);
+    doThrow(new IOException("failed to write to store")).when(store).save(anyString(), any());
+    var cache = new PersistentIssueTrackerCache<Object>(store, trackables -> 1, 10, Runnable::run, TimeUnit.HOURS.toMillis(1));
+
+    for (var i = 0; i < 30; i++) {
+      cache.put("file" + i, Collections.emptyList());
+    }
+
+    assertThat(cache.weight()).isEqualTo(10);
+    assertThat(cache.pendingWeight()).isEqualTo(10);
+    assertThat(cache.isFirstAnalysis("file0")).isTrue();
+    assertThat(cache.isFirstAnalysis("file19")).isFalse();
   }
 }
@@ -19,6 +19,9 @@
  */
 package org.sonarsource.sonarlint.core.plugin.commons;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.BiPredicate;
@@ -41,6 +44,16 @@ public class ExtensionInstaller {
   }
 
   public ExtensionInstaller install(ComponentContainer container, Map<String, Plugin> pluginInstancesByKey, BiPredicate<String, Object> extensionFilter) {
+    install(container, loadExtensions(pluginInstancesByKey, extensionFilter));
+    return this;
+  }
+
+  /**
+   * Let each plugin define its extensions and keep the ones accepted by the filter. Plugins failing to define their extensions are logged
+   * and left out of the returned map.
+   */
+  protected Map<String, List<Object>> loadExtensions(Map<String, Plugin> pluginInstancesByKey, BiPredicate<String, Object> extensionFilter) {
+    Map<String, List<Object>> extensionsByPluginKey = new LinkedHashMap<>();
     for (Entry<String, Plugin> pluginInstanceEntry : pluginInstancesByKey.entrySet()) {
       var plugin = pluginInstanceEntry.getValue();
       var context = new PluginContextImpl.Builder()
@@ -50,18 +63,33 @@ public class ExtensionInstaller {
       var pluginKey = pluginInstanceEntry.getKey();
       try {
         plugin.define(context);
-        loadExtensions(container, pluginKey, context, extensionFilter);
+        extensionsByPluginKey.put(pluginKey, filterExtensions(pluginKey, context, extensionFilter));
       } catch (Throwable t) {
         LOG.error("Error loading components for plugin '{}'", pluginKey, t);
       }
     }
-    return this;
+    return extensionsByPluginKey;
   }
 
-  private void loadExtensions(ComponentContainer container, String pluginKey, Plugin.Context context, BiPredicate<String, Object> extensionFilter) {
+  private static List<Object> filterExtensions(String pluginKey, Plugin.Context context, BiPredicate<String, Object> extensionFilter) {
+    List<Object> extensions = new ArrayList<>();
     for (Object extension : context.getExtensions()) {
       if (extensionFilter.test(pluginKey, extension)) {
-        container.addExtension(pluginKey, extension);
+        extensions.add(extension);
+      }
+    }
+    return extensions;
+  }
+
+  protected void install(ComponentContainer container, Map<String, List<Object>> extensionsByPluginKey) {
+    for (Entry<String, List<Object>> pluginExtensions : extensionsByPluginKey.entrySet()) {
+      var pluginKey = pluginExtensions.getKey();
+      try {
+        for (Object extension : pluginExtensions.getValue()) {
+          container.addExtension(pluginKey, extension);
+        }
+      } catch (Throwable t) {
+        LOG.error("Error loading components for plugin '{}'", pluginKey, t);
       }
     }
   }
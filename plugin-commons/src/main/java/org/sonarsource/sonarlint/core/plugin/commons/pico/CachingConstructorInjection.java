@@ -0,0 +1,136 @@
+/*
+ * SonarLint Core - Plugin Commons
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.plugin.commons.pico;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.picocontainer.Characteristics;
+import org.picocontainer.ComponentAdapter;
+import org.picocontainer.ComponentMonitor;
+import org.picocontainer.LifecycleStrategy;
+import org.picocontainer.Parameter;
+import org.picocontainer.PicoContainer;
+import org.picocontainer.behaviors.AbstractBehaviorFactory;
+import org.picocontainer.injectors.ConstructorInjection;
+import org.picocontainer.injectors.ConstructorInjector;
+import org.picocontainer.injectors.ParameterNameBinding;
+
+/**
+ * Constructor injection that reuses the constructors recorded in a {@link ConstructorCache}.
+ */
+class CachingConstructorInjection extends ConstructorInjection {
+
+  private final transient ConstructorCache cache;
+
+  CachingConstructorInjection(ConstructorCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public <T> ComponentAdapter<T> createComponentAdapter(ComponentMonitor monitor, LifecycleStrategy lifecycleStrategy, Properties properties, Object componentKey,
+    Class<T> componentImplementation, Parameter... parameters) {
+    var useNames = AbstractBehaviorFactory.arePropertiesPresent(properties, Characteristics.USE_NAMES, true);
+    var injector = new CachingConstructorInjector<T>(cache, componentKey, componentImplementation, parameters, monitor, useNames);
+    injector.enableEmjection(AbstractBehaviorFactory.removePropertiesIfPresent(properties, Characteristics.EMJECTION_ENABLED));
+    return wrapLifeCycle(monitor.newInjector(injector), lifecycleStrategy);
+  }
+
+  static class CachingConstructorInjector<T> extends ConstructorInjector<T> {
+
+    private final transient ConstructorCache cache;
+
+    CachingConstructorInjector(ConstructorCache cache, Object componentKey, Class<?> componentImplementation, Parameter[] parameters, ComponentMonitor monitor,
+      boolean useNames) {
+      super(componentKey, componentImplementation, parameters, monitor, useNames, true);
+      this.cache = cache;
+    }
+
+    @Override
+    protected CtorAndAdapters<T> getGreediestSatisfiableConstructor(PicoContainer container) {
+      var cached = cache.get(getComponentImplementation());
+      if (cached != null) {
+        var resolved = resolve(container, cached);
+        if (resolved != null) {
+          return resolved;
+        }
+      }
+      var chosen = super.getGreediestSatisfiableConstructor(container);
+      cache.put(getComponentImplementation(), describe(chosen.getConstructor()));
+      return chosen;
+    }
+
+    /**
+     * @return null if one of the parameters of the cached constructor can't be satisfied by this container, in which case the full constructor search applies
+     */
+    private CtorAndAdapters<T> resolve(PicoContainer container, ConstructorCache.CachedConstructor cached) {
+      for (ConstructorCache.CachedConstructor rival : cached.getRivals()) {
+        if (resolveParameters(container, rival) != null) {
+          return null;
+        }
+      }
+      return resolveParameters(container, cached);
+    }
+
+    private CtorAndAdapters<T> resolveParameters(PicoContainer container, ConstructorCache.CachedConstructor cached) {
+      @SuppressWarnings("unchecked")
+      var constructor = (Constructor<T>) cached.getConstructor();
+      var parameterTypes = cached.getParameterTypes();
+      var bindings = cached.getBindings();
+      if (parameters != null && parameters.length != parameterTypes.length) {
+        return null;
+      }
+      var currentParameters = parameters != null ? parameters : createDefaultParameters(parameterTypes.length);
+      var adapters = new ComponentAdapter<?>[currentParameters.length];
+      for (var i = 0; i < currentParameters.length; i++) {
+        var resolver = currentParameters[i].resolve(container, this, null, parameterTypes[i], new ParameterNameBinding(getParanamer(), constructor, i), useNames(), bindings[i]);
+        if (!resolver.isResolved()) {
+          return null;
+        }
+        adapters[i] = resolver.getComponentAdapter();
+      }
+      return new CtorAndAdapters<>(constructor, currentParameters, adapters);
+    }
+
+    private ConstructorCache.CachedConstructor describe(Constructor<T> chosen) {
+      List<ConstructorCache.CachedConstructor> rivals = new ArrayList<>();
+      for (Constructor<?> constructor : chosen.getDeclaringClass().getConstructors()) {
+        if (!constructor.equals(chosen) && constructor.getParameterCount() >= chosen.getParameterCount()) {
+          rivals.add(describe(constructor, List.of()));
+        }
+      }
+      return describe(chosen, rivals);
+    }
+
+    private ConstructorCache.CachedConstructor describe(Constructor<?> constructor, List<ConstructorCache.CachedConstructor> rivals) {
+      Type[] parameterTypes = constructor.getGenericParameterTypes();
+      for (var i = 0; i < parameterTypes.length; i++) {
+        if (parameterTypes[i] instanceof TypeVariable) {
+          parameterTypes[i] = constructor.getParameterTypes()[i];
+        }
+        parameterTypes[i] = box(parameterTypes[i]);
+      }
+      return new ConstructorCache.CachedConstructor(constructor, parameterTypes, getBindings(constructor.getParameterAnnotations()), rivals);
+    }
+  }
+}
@@ -60,7 +60,11 @@ public class ComponentContainer {
 
     @Override
     public MutablePicoContainer makeChildContainer() {
-      DefaultPicoContainer pc = new ExtendedDefaultPicoContainer(componentFactory, lifecycleStrategy, this, componentMonitor);
+      return makeChildContainer(componentFactory);
+    }
+
+    private MutablePicoContainer makeChildContainer(ComponentFactory childComponentFactory) {
+      DefaultPicoContainer pc = new ExtendedDefaultPicoContainer(childComponentFactory, lifecycleStrategy, this, componentMonitor);
       addChildContainer(pc);
       return pc;
     }
@@ -94,10 +98,25 @@ public class ComponentContainer {
     addSingleton(this);
   }
 
+  /**
+   * Create child container whose components are instantiated with the constructors remembered by the given cache
+   */
+  protected ComponentContainer(ComponentContainer parent, ConstructorCache constructorCache) {
+    this.parent = parent;
+    this.pico = parent.makeChildContainer(new OptInCaching().wrap(new CachingConstructorInjection(constructorCache)));
+    this.propertyDefinitions = parent.propertyDefinitions;
+    this.componentKeys = new PicoComponentKeys();
+    addSingleton(this);
+  }
+
   private synchronized MutablePicoContainer makeChildContainer() {
     return pico.makeChildContainer();
   }
 
+  private synchronized MutablePicoContainer makeChildContainer(ComponentFactory componentFactory) {
+    return ((ExtendedDefaultPicoContainer) pico).makeChildContainer(componentFactory);
+  }
+
   public void execute() {
     var threw = true;
     try {
@@ -0,0 +1,94 @@
+/*
+ * SonarLint Core - Plugin Commons
+ * Copyright (C) 2016-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.core.plugin.commons.pico;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+
+/**
+ * Remembers, for each component implementation class, the constructor that was chosen the last time the class was
+ * instantiated by a container, together with its resolved parameter metadata. Child containers created with a
+ * {@link ConstructorCache} skip the greediest-satisfiable-constructor search and the related reflection for classes
+ * that were already wired once.
+ * <p/>
+ * The cache is keyed by implementation class only, so containers sharing it may be built from different sets of
+ * components. A cached constructor is therefore only reused when it is still satisfiable and none of the other
+ * constructors with at least as many parameters is, that is when it is still the one PicoContainer would choose.
+ * Otherwise the full search applies and its result replaces the cached one.
+ */
+public class ConstructorCache {
+
+  static final class CachedConstructor {
+    private final Constructor<?> constructor;
+    private final Type[] parameterTypes;
+    private final Annotation[] bindings;
+    private final List<CachedConstructor> rivals;
+
+    CachedConstructor(Constructor<?> constructor, Type[] parameterTypes, Annotation[] bindings, List<CachedConstructor> rivals) {
+      this.constructor = constructor;
+      this.parameterTypes = parameterTypes;
+      this.bindings = bindings;
+      this.rivals = rivals;
+    }
+
+    Constructor<?> getConstructor() {
+      return constructor;
+    }
+
+    Type[] getParameterTypes() {
+      return parameterTypes;
+    }
+
+    Annotation[] getBindings() {
+      return bindings;
+    }
+
+    /**
+     * Other constructors with at least as many parameters, that would be chosen instead, or make the choice ambiguous, if satisfiable
+     */
+    List<CachedConstructor> getRivals() {
+      return rivals;
+    }
+  }
+
+  private final Map<Class<?>, CachedConstructor> constructorsByImplementation = new ConcurrentHashMap<>();
+
+  @CheckForNull
+  CachedConstructor get(Class<?> implementation) {
+    return constructorsByImplementation.get(implementation);
+  }
+
+  void put(Class<?> implementation, CachedConstructor constructor) {
+    constructorsByImplementation.put(implementation, constructor);
+  }
+
+  public int size() {
+    return constructorsByImplementation.size();
+  }
+
+  public void clear() {
+    constructorsByImplementation.clear();
+  }
+}
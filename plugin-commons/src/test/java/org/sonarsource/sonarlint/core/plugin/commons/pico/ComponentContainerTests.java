@@ -138,6 +138,68 @@ class ComponentContainerTests {
     assertThat(component.stopped).isTrue();
   }
 
+  @Test
+  void child_containers_should_reuse_cached_constructors() {
+    var parent = new ComponentContainer();
+    parent.addSingleton(SimpleComponent.class);
+    parent.startComponents();
+    var constructorCache = new ConstructorCache();
+
+    var child1 = new ComponentContainer(parent, constructorCache);
+    child1.addSingleton(ComponentWithOptionalDependency.class);
+    child1.startComponents();
+    var child2 = new ComponentContainer(parent, constructorCache);
+    child2.addSingleton(ComponentWithOptionalDependency.class);
+    child2.startComponents();
+
+    var component1 = child1.getComponentByType(ComponentWithOptionalDependency.class);
+    var component2 = child2.getComponentByType(ComponentWithOptionalDependency.class);
+    assertThat(component2).isNotSameAs(component1);
+    assertThat(component1.dependency).isSameAs(parent.getComponentByType(SimpleComponent.class));
+    assertThat(component2.dependency).isSameAs(component1.dependency);
+    assertThat(constructorCache.size()).isEqualTo(1);
+
+    parent.stopComponents();
+  }
+
+  @Test
+  void child_containers_should_not_use_cached_constructor_when_not_satisfiable() {
+    var parent = new ComponentContainer();
+    parent.startComponents();
+    var constructorCache = new ConstructorCache();
+
+    var child1 = new ComponentContainer(parent, constructorCache);
+    child1.add(SimpleComponent.class, ComponentWithOptionalDependency.class);
+    child1.startComponents();
+    var child2 = new ComponentContainer(parent, constructorCache);
+    child2.addSingleton(ComponentWithOptionalDependency.class);
+    child2.startComponents();
+
+    assertThat(child1.getComponentByType(ComponentWithOptionalDependency.class).dependency).isNotNull();
+    assertThat(child2.getComponentByType(ComponentWithOptionalDependency.class).dependency).isNull();
+
+    parent.stopComponents();
+  }
+
+  @Test
+  void child_containers_should_not_use_cached_constructor_when_a_greedier_one_is_satisfiable() {
+    var parent = new ComponentContainer();
+    parent.startComponents();
+    var constructorCache = new ConstructorCache();
+
+    var child1 = new ComponentContainer(parent, constructorCache);
+    child1.addSingleton(ComponentWithOptionalDependency.class);
+    child1.startComponents();
+    var child2 = new ComponentContainer(parent, constructorCache);
+    child2.add(SimpleComponent.class, ComponentWithOptionalDependency.class);
+    child2.startComponents();
+
+    assertThat(child1.getComponentByType(ComponentWithOptionalDependency.class).dependency).isNull();
+    assertThat(child2.getComponentByType(ComponentWithOptionalDependency.class).dependency).isSameAs(child2.getComponentByType(SimpleComponent.class));
+
+    parent.stopComponents();
+  }
+
   @Test
   void shouldDeclareComponentProperties() {
     var container = new ComponentContainer();
@@ -424,6 +486,18 @@ class ComponentContainerTests {
 
   }
 
+  public static class ComponentWithOptionalDependency {
+    private final SimpleComponent dependency;
+
+    public ComponentWithOptionalDependency() {
+      this(null);
+    }
+
+    public ComponentWithOptionalDependency(SimpleComponent dependency) {
+      this.dependency = dependency;
+    }
+  }
+
   public static class SimpleComponentProvider extends ProviderAdapter {
     public SimpleComponent provide() {
       return new SimpleComponent();